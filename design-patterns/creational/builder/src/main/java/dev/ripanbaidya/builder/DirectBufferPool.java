@@ -0,0 +1,36 @@
+package dev.ripanbaidya.builder;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Small pool of fixed-size direct buffers.
+ *
+ * Direct buffers are expensive to allocate and are only reclaimed by the GC, so the
+ * encoder borrows one per write instead of allocating a new one each time. The pool
+ * is bounded: buffers released while it is full are simply dropped.
+ */
+final class DirectBufferPool {
+
+    static final DirectBufferPool SHARED = new DirectBufferPool(8 * 1024, 64);
+
+    private final int bufferSize;
+    private final BlockingQueue<ByteBuffer> free;
+
+    DirectBufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.free = new ArrayBlockingQueue<>(maxPooled);
+    }
+
+    ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        return buffer != null ? buffer.clear() : ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    void release(ByteBuffer buffer) {
+        if (buffer.isDirect() && buffer.capacity() == bufferSize) {
+            free.offer(buffer);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package dev.ripanbaidya.builder;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Compact, immutable key/value storage used by {@link HttpRequest} for headers and params.
+ *
+ * Entries are kept in a single flat array laid out as [k0, v0, k1, v1, ...] instead of
+ * a HashMap, so a request with a couple of headers costs one small array rather than a
+ * hash table plus one entry node per mapping. A request rarely carries more than a few
+ * dozen entries, and for that size a linear scan is as fast as hashing.
+ *
+ * A map derived from another one (see {@link HttpRequest#toBuilder()}) does not copy
+ * its parent. It only stores the entries that changed and points at the parent for the
+ * rest, so millions of near-identical requests share one copy of their common headers.
+ * To keep lookups cheap the chain of parents is bounded: once it gets too deep, or the
+ * changes outgrow the shared part, the derived map is flattened into a plain copy.
+ *
+ * Instances are read-only views: every mutator inherited from {@link AbstractMap}
+ * throws {@link UnsupportedOperationException}. Values are never null, a header without
+ * a value has nothing to send, and it lets a null lookup mean the key is absent.
+ */
+public final class HeaderMap extends AbstractMap<String, String> {
+
+    private static final String[] NO_ENTRIES = new String[0];
+    private static final int MAX_DEPTH = 4;
+
+    /**
+     * Shared empty instances, so requests without headers or params allocate nothing.
+     */
+    static final HeaderMap EMPTY_HEADERS = new HeaderMap(null, NO_ENTRIES, 0, 0, true);
+    static final HeaderMap EMPTY_PARAMS = new HeaderMap(null, NO_ENTRIES, 0, 0, false);
+
+    /**
+     * Map this one was derived from, null for a flat map
+     */
+    private final HeaderMap parent;
+
+    /**
+     * For a flat map every entry. For a derived map only its own entries: first the
+     * ones overriding a parent key, then the ones the parent does not have.
+     */
+    private final String[] entries;
+    private final int overrides;
+    private final int size;
+    private final int depth;
+    private final boolean ignoreCase;
+
+    private HeaderMap(HeaderMap parent, String[] entries, int overrides, int size, boolean ignoreCase) {
+        this.parent = parent;
+        this.entries = entries;
+        this.overrides = overrides;
+        this.size = size;
+        this.depth = parent == null ? 0 : parent.depth + 1;
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * Header names are case-insensitive (RFC 9110), param names are not.
+     */
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String name && lookup(name) != null;
+    }
+
+    @Override
+    public String get(Object key) {
+        return key instanceof String name ? lookup(name) : null;
+    }
+
+    /**
+     * Key at the given position, in insertion order. Lets callers walk the
+     * entries without allocating an iterator or Map.Entry objects.
+     */
+    public String keyAt(int index) {
+        checkIndex(index);
+        if (parent == null) {
+            return entries[index << 1];
+        }
+        if (index < parent.size) {
+            return parent.keyAt(index);
+        }
+        return entries[(overrides + index - parent.size) << 1];
+    }
+
+    /**
+     * Value at the given position, in insertion order.
+     */
+    public String valueAt(int index) {
+        checkIndex(index);
+        if (parent == null) {
+            return entries[(index << 1) + 1];
+        }
+        if (index < parent.size) {
+            int own = indexOf(entries, overrides, parent.keyAt(index), ignoreCase);
+            return own >= 0 ? entries[own + 1] : parent.valueAt(index);
+        }
+        return entries[((overrides + index - parent.size) << 1) + 1];
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super String> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(keyAt(i), valueAt(i));
+        }
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (next >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        int i = next++;
+                        return new SimpleImmutableEntry<>(keyAt(i), valueAt(i));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * True if this map stores entries by reference to the given one instead of copying them
+     */
+    boolean isDerivedFrom(HeaderMap other) {
+        for (HeaderMap map = parent; map != null; map = map.parent) {
+            if (map == other) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String lookup(String key) {
+        HeaderMap map = this;
+        do {
+            int own = indexOf(map.entries, map.entries.length >> 1, key, ignoreCase);
+            if (own >= 0) {
+                return map.entries[own + 1];
+            }
+            map = map.parent;
+        } while (map != null);
+        return null;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    private static int indexOf(String[] entries, int size, String key, boolean ignoreCase) {
+        for (int i = 0; i < size << 1; i += 2) {
+            String candidate = entries[i];
+            if (candidate == key || (ignoreCase ? candidate.equalsIgnoreCase(key) : candidate.equals(key))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Mutable counterpart used by {@link HttpRequest.Builder}.
+     * The backing array is only allocated on the first put, and {@link #build()}
+     * freezes the current state into a right-sized immutable copy, or into a map
+     * derived from the base when the builder started from an existing one.
+     */
+    static final class Builder {
+        private final boolean ignoreCase;
+        private final HeaderMap base;
+        private String[] entries = NO_ENTRIES;
+        private int size;
+
+        Builder(boolean ignoreCase) {
+            this.ignoreCase = ignoreCase;
+            this.base = null;
+        }
+
+        /**
+         * Builder whose puts are layered on top of an existing map
+         */
+        Builder(HeaderMap base) {
+            this.ignoreCase = base.ignoreCase;
+            this.base = base.isEmpty() ? null : base;
+        }
+
+        /**
+         * Adds a mapping, replacing the value of an existing key just like Map.put.
+         *
+         * @throws NullPointerException if the key or the value is null
+         */
+        void put(String key, String value) {
+            Objects.requireNonNull(key, "key");
+            Objects.requireNonNull(value, () -> "value of " + key);
+            int index = indexOf(entries, size, key, ignoreCase);
+            if (index >= 0) {
+                entries[index + 1] = value;
+                return;
+            }
+            if (size << 1 == entries.length) {
+                entries = Arrays.copyOf(entries, Math.max(8, entries.length << 1));
+            }
+            entries[size << 1] = key;
+            entries[(size << 1) + 1] = value;
+            size++;
+        }
+
+        HeaderMap build() {
+            if (base == null) {
+                if (size == 0) {
+                    return ignoreCase ? EMPTY_HEADERS : EMPTY_PARAMS;
+                }
+                return new HeaderMap(null, Arrays.copyOf(entries, size << 1), 0, size, ignoreCase);
+            }
+            if (size == 0) {
+                return base;
+            }
+            if (base.depth >= MAX_DEPTH || size > base.size) {
+                return flatten();
+            }
+
+            // Overrides of base keys first, new keys after them, both in insertion order
+            String[] own = new String[size << 1];
+            int overrides = 0;
+            for (int i = 0; i < size << 1; i += 2) {
+                if (base.containsKey(entries[i])) {
+                    own[overrides << 1] = entries[i];
+                    own[(overrides << 1) + 1] = entries[i + 1];
+                    overrides++;
+                }
+            }
+            int additions = 0;
+            for (int i = 0; i < size << 1; i += 2) {
+                if (!base.containsKey(entries[i])) {
+                    int slot = overrides + additions++;
+                    own[slot << 1] = entries[i];
+                    own[(slot << 1) + 1] = entries[i + 1];
+                }
+            }
+            return new HeaderMap(base, own, overrides, base.size + additions, ignoreCase);
+        }
+
+        private HeaderMap flatten() {
+            Builder flat = new Builder(ignoreCase);
+            base.forEach(flat::put);
+            for (int i = 0; i < size << 1; i += 2) {
+                flat.put(entries[i], entries[i + 1]);
+            }
+            return flat.build();
+        }
+    }
+}
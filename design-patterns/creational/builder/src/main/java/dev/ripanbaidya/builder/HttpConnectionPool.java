@@ -0,0 +1,184 @@
+package dev.ripanbaidya.builder;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keep-alive connections to a single host.
+ *
+ * At most {@code maxConnections} connections are in use at a time, callers beyond
+ * that wait for one to be released. Released connections that are still usable go
+ * back to an idle stack and are handed out most-recently-used first, which keeps the
+ * number of open sockets close to the actual concurrency.
+ */
+final class HttpConnectionPool {
+
+    private final InetSocketAddress address;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<Connection> idle = new ConcurrentLinkedDeque<>();
+    private volatile boolean closed;
+
+    HttpConnectionPool(InetSocketAddress address, int maxConnections) {
+        this.address = address;
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    /**
+     * Borrows an idle connection or opens a new one, waiting at most until the deadline.
+     *
+     * @param fresh skip idle connections and always open a new one
+     */
+    Connection acquire(long deadlineNanos, boolean fresh) throws IOException, InterruptedException {
+        if (!permits.tryAcquire(remainingNanos(deadlineNanos), TimeUnit.NANOSECONDS)) {
+            throw new SocketTimeoutException("Timed out waiting for a connection to " + address);
+        }
+        try {
+            if (closed) {
+                throw new IOException("Connection pool for " + address + " is closed");
+            }
+            Connection connection;
+            while (!fresh && (connection = idle.pollFirst()) != null) {
+                if (connection.channel.isOpen()) {
+                    connection.reused = true;
+                    return connection;
+                }
+            }
+            return open(deadlineNanos);
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the connection to the pool, or closes it if it cannot carry another request.
+     */
+    void release(Connection connection, boolean reusable) {
+        if (reusable && !closed && connection.channel.isOpen()) {
+            idle.offerFirst(connection);
+        } else {
+            connection.close();
+        }
+        permits.release();
+    }
+
+    void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            connection.close();
+        }
+    }
+
+    private Connection open(long deadlineNanos) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.socket().setTcpNoDelay(true);
+            channel.socket().connect(address, timeoutMillis(deadlineNanos));
+            return new Connection(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static long remainingNanos(long deadlineNanos) {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * Socket timeouts are in millis and 0 means "no timeout", so round up to at least 1.
+     */
+    static int timeoutMillis(long deadlineNanos) throws SocketTimeoutException {
+        long remaining = remainingNanos(deadlineNanos);
+        if (remaining <= 0) {
+            throw new SocketTimeoutException("Request timed out");
+        }
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+    }
+
+    /**
+     * One blocking socket. Requests are written to the channel through {@link #out}, which
+     * counts the bytes, and responses are read through a buffered stream over the same
+     * socket, which honours SO_TIMEOUT.
+     *
+     * SO_TIMEOUT bounds each read on its own and does not apply to writes at all, so the
+     * overall deadline of an exchange is enforced by {@link #expire()}: closing the socket
+     * makes a blocked write or read fail right away.
+     */
+    static final class Connection {
+        final SocketChannel channel;
+        final InputStream in;
+        final WritableByteChannel out;
+        boolean reused;
+        // Progress of the current exchange, decides whether it may be retried
+        long requestBytesWritten;
+        boolean responseStarted;
+        private volatile boolean expired;
+
+        Connection(SocketChannel channel) throws IOException {
+            this.channel = channel;
+            this.in = new BufferedInputStream(channel.socket().getInputStream());
+            this.out = new WritableByteChannel() {
+                @Override
+                public int write(ByteBuffer src) throws IOException {
+                    int written = channel.write(src);
+                    requestBytesWritten += written;
+                    return written;
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return channel.isOpen();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    channel.close();
+                }
+            };
+        }
+
+        /**
+         * Starts a new exchange on this connection
+         */
+        void begin() {
+            requestBytesWritten = 0;
+            responseStarted = false;
+        }
+
+        void setReadDeadline(long deadlineNanos) throws IOException {
+            channel.socket().setSoTimeout(timeoutMillis(deadlineNanos));
+        }
+
+        /**
+         * Called when the deadline of the exchange passes: closes the socket, so whatever
+         * the exchange is blocked on fails
+         */
+        void expire() {
+            expired = true;
+            close();
+        }
+
+        boolean isExpired() {
+            return expired;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Nothing useful to do, the socket is being discarded anyway
+            }
+        }
+    }
+}
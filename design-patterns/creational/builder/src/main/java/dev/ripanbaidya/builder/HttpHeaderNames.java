@@ -0,0 +1,65 @@
+package dev.ripanbaidya.builder;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Registry of well-known header names.
+ *
+ * {@link HttpRequest.Builder#header(String, String)} canonicalizes names through
+ * {@link #canonicalize(String)}, so "content-type" and "CONTENT-TYPE" both end up as
+ * the shared {@link #CONTENT_TYPE} constant. Requests then hold references to a
+ * handful of shared Strings instead of their own copies, and header lookups usually
+ * succeed on the identity check before any character is compared.
+ */
+public final class HttpHeaderNames {
+
+    public static final String ACCEPT = "Accept";
+    public static final String ACCEPT_ENCODING = "Accept-Encoding";
+    public static final String ACCEPT_LANGUAGE = "Accept-Language";
+    public static final String AUTHORIZATION = "Authorization";
+    public static final String CACHE_CONTROL = "Cache-Control";
+    public static final String CONNECTION = "Connection";
+    public static final String CONTENT_ENCODING = "Content-Encoding";
+    public static final String CONTENT_LENGTH = "Content-Length";
+    public static final String CONTENT_TYPE = "Content-Type";
+    public static final String COOKIE = "Cookie";
+    public static final String HOST = "Host";
+    public static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+    public static final String IF_NONE_MATCH = "If-None-Match";
+    public static final String ORIGIN = "Origin";
+    public static final String REFERER = "Referer";
+    public static final String TRANSFER_ENCODING = "Transfer-Encoding";
+    public static final String USER_AGENT = "User-Agent";
+    public static final String X_API_KEY = "X-API-Key";
+    public static final String X_REQUEST_ID = "X-Request-Id";
+
+    /**
+     * Upper bound on distinct custom names kept by the intern table
+     */
+    private static final int MAX_INTERNED_NAMES = 1024;
+
+    private static final Map<String, String> WELL_KNOWN = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private static final InternTable CUSTOM_NAMES = new InternTable(MAX_INTERNED_NAMES);
+
+    static {
+        for (String name : new String[]{
+                ACCEPT, ACCEPT_ENCODING, ACCEPT_LANGUAGE, AUTHORIZATION, CACHE_CONTROL, CONNECTION,
+                CONTENT_ENCODING, CONTENT_LENGTH, CONTENT_TYPE, COOKIE, HOST, IF_MODIFIED_SINCE,
+                IF_NONE_MATCH, ORIGIN, REFERER, TRANSFER_ENCODING, USER_AGENT, X_API_KEY, X_REQUEST_ID}) {
+            WELL_KNOWN.put(name, name);
+        }
+    }
+
+    private HttpHeaderNames() {
+    }
+
+    /**
+     * Shared instance for the given name: the registry constant for well-known headers
+     * (matched case-insensitively), an interned copy for anything else.
+     */
+    public static String canonicalize(String name) {
+        String known = WELL_KNOWN.get(name);
+        return known != null ? known : CUSTOM_NAMES.intern(name);
+    }
+}
@@ -0,0 +1,42 @@
+package dev.ripanbaidya.builder;
+
+/**
+ * Standard HTTP methods (RFC 9110 and RFC 5789).
+ *
+ * Requests using one of these carry the enum constant, so checks like
+ * {@code request.getHttpMethod() == HttpMethod.HEAD} are a reference comparison
+ * instead of a string comparison.
+ */
+public enum HttpMethod {
+    GET, HEAD, POST, PUT, DELETE, CONNECT, OPTIONS, TRACE, PATCH;
+
+    /**
+     * Whether sending the request twice has the same effect on the server as sending it
+     * once (RFC 9110, section 9.2.2), which makes it safe to retry automatically
+     */
+    public boolean isIdempotent() {
+        return switch (this) {
+            case GET, HEAD, PUT, DELETE, OPTIONS, TRACE -> true;
+            case POST, CONNECT, PATCH -> false;
+        };
+    }
+
+    /**
+     * Method with exactly this name, or null for extension methods.
+     * Method names are case-sensitive, "get" is not GET.
+     */
+    public static HttpMethod lookup(String name) {
+        return switch (name) {
+            case "GET" -> GET;
+            case "HEAD" -> HEAD;
+            case "POST" -> POST;
+            case "PUT" -> PUT;
+            case "DELETE" -> DELETE;
+            case "CONNECT" -> CONNECT;
+            case "OPTIONS" -> OPTIONS;
+            case "TRACE" -> TRACE;
+            case "PATCH" -> PATCH;
+            default -> null;
+        };
+    }
+}
@@ -1,17 +1,16 @@
 package dev.ripanbaidya.builder;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public class HttpRequest {
     // Required
     private final String url;
 
     // Optional
     private final String method;
-    private final Map<String, String> headers;
-    private final Map<String, String> params;
+    private final HttpMethod httpMethod;
+    private final HeaderMap headers;
+    private final HeaderMap params;
     private final String body;
+    private final RequestBody requestBody;
     private final long timeout;
 
     /**
@@ -20,9 +19,11 @@ public class HttpRequest {
     private HttpRequest(Builder builder) {
         this.url = builder.url;
         this.method = builder.method;
-        this.headers = builder.headers;
-        this.params = builder.params;
+        this.httpMethod = builder.httpMethod;
+        this.headers = builder.headers.build();
+        this.params = builder.params.build();
         this.body = builder.body;
+        this.requestBody = builder.requestBody;
         this.timeout = builder.timeout;
     }
 
@@ -38,22 +39,56 @@ public class HttpRequest {
         return method;
     }
 
-    public Map<String, String> getHeaders() {
+    /**
+     * Standard method of this request, null for extension methods
+     */
+    public HttpMethod getHttpMethod() {
+        return httpMethod;
+    }
+
+    /**
+     * Read-only view, header names are matched case-insensitively
+     */
+    public HeaderMap getHeaders() {
         return headers;
     }
 
-    public Map<String, String> getParams() {
+    /**
+     * Read-only view
+     */
+    public HeaderMap getParams() {
         return params;
     }
 
+    /**
+     * Body set through {@link Builder#body(String)}, null for streamed bodies
+     */
     public String getBody() {
         return body;
     }
 
+    /**
+     * Body in whatever form it was given, null if the request has none
+     */
+    public RequestBody getRequestBody() {
+        if (requestBody == null && body != null) {
+            return RequestBody.ofString(body);
+        }
+        return requestBody;
+    }
+
     public long getTimeout() {
         return timeout;
     }
 
+    /**
+     * Builder pre-filled with this request. Headers and params are not copied, the new
+     * request only stores what the builder changes and shares the rest with this one.
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
     @Override
     public String toString() {
         return "HttpRequest{" +
@@ -61,7 +96,7 @@ public class HttpRequest {
                 ", method='" + method + '\'' +
                 ", headers=" + headers +
                 ", params=" + params +
-                ", body='" + body + '\'' +
+                ", body='" + (body != null ? body : requestBody) + '\'' +
                 ", timeout=" + timeout +
                 '}';
     }
@@ -70,27 +105,66 @@ public class HttpRequest {
      * Builder class
      */
     public static class Builder {
+        private static final InternTable EXTENSION_METHODS = new InternTable(64);
+
         private final String url; // Required
         private String method = "GET";
-        private Map<String, String> headers = new HashMap<>();
-        private Map<String, String> params = new HashMap<>();
+        private HttpMethod httpMethod = HttpMethod.GET;
+        private final HeaderMap.Builder headers;
+        private final HeaderMap.Builder params;
         private String body;
+        private RequestBody requestBody;
         private long timeout = 30000;
 
         public Builder(String url) {
             this.url = url;
+            this.headers = new HeaderMap.Builder(true);
+            this.params = new HeaderMap.Builder(false);
+        }
+
+        private Builder(HttpRequest request) {
+            this.url = request.url;
+            this.method = request.method;
+            this.httpMethod = request.httpMethod;
+            this.headers = new HeaderMap.Builder(request.headers);
+            this.params = new HeaderMap.Builder(request.params);
+            this.body = request.body;
+            this.requestBody = request.requestBody;
+            this.timeout = request.timeout;
         }
 
+        /**
+         * Standard methods are mapped to {@link HttpMethod}, anything else is interned
+         */
         public Builder method(String method) {
-            this.method = method;
+            HttpMethod known = HttpMethod.lookup(method);
+            if (known != null) {
+                return method(known);
+            }
+            this.method = EXTENSION_METHODS.intern(method);
+            this.httpMethod = null;
+            return this;
+        }
+
+        public Builder method(HttpMethod method) {
+            this.method = method.name();
+            this.httpMethod = method;
             return this;
         }
 
+        /**
+         * Header names are canonicalized through {@link HttpHeaderNames}
+         *
+         * @throws NullPointerException if the name or the value is null
+         */
         public Builder header(String key, String value) {
-            this.headers.put(key, value);
+            this.headers.put(HttpHeaderNames.canonicalize(key), value);
             return this;
         }
 
+        /**
+         * @throws NullPointerException if the name or the value is null
+         */
         public Builder param(String key, String value) {
             this.params.put(key, value);
             return this;
@@ -98,6 +172,16 @@ public class HttpRequest {
 
         public Builder body(String body) {
             this.body = body;
+            this.requestBody = null;
+            return this;
+        }
+
+        /**
+         * Streamed body, see {@link RequestBody} for the available sources
+         */
+        public Builder body(RequestBody body) {
+            this.requestBody = body;
+            this.body = null;
             return this;
         }
 
@@ -0,0 +1,459 @@
+package dev.ripanbaidya.builder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes an {@link HttpRequest} as an HTTP/1.1 message.
+ *
+ * Every piece of the message (request line, headers, percent-encoded query built from
+ * the params, and String bodies as UTF-8) is written character by character straight
+ * into the target buffer, so no intermediate Strings or byte arrays are created.
+ * Streamed bodies ({@link RequestBody}) are copied in bulk, or written to the channel
+ * directly when they are larger than the buffer. Bodies of unknown length are sent
+ * with chunked transfer encoding.
+ *
+ * The framing of the body is decided in one place, before anything is written: a
+ * Transfer-Encoding header set by the caller means chunked, a Content-Length header
+ * must match the body's length, and without either it follows from the body. Requests
+ * whose headers contradict each other or the body, or whose header names or values
+ * contain CR, LF or NUL, which would let them inject headers or a second request, are
+ * rejected with an IllegalArgumentException.
+ *
+ * Usage:
+ * <pre>
+ *     HttpRequestEncoder.encode(request, buffer);   // caller-supplied buffer
+ *     HttpRequestEncoder.encode(request, channel);  // pooled direct buffer, flushed as it fills
+ * </pre>
+ */
+public final class HttpRequestEncoder {
+
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HTTP_VERSION = " HTTP/1.1\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HOST = "Host: ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CONTENT_LENGTH = "Content-Length: ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRANSFER_ENCODING_CHUNKED =
+            "Transfer-Encoding: chunked".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEADER_SEPARATOR = ": ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private HttpRequestEncoder() {
+    }
+
+    /**
+     * Writes the encoded request into the given buffer.
+     *
+     * @return number of bytes written
+     * @throws BufferOverflowException if the request does not fit into the remaining space
+     */
+    public static int encode(HttpRequest request, ByteBuffer dst) {
+        Output out = new Output(dst, null);
+        try {
+            write(request, out);
+        } catch (IOException e) {
+            // Only the channel variant performs I/O
+            throw new UncheckedIOException(e);
+        }
+        return (int) out.written;
+    }
+
+    /**
+     * Writes the encoded request to the channel through a pooled direct buffer,
+     * flushing whenever the buffer fills up.
+     *
+     * @return number of bytes written
+     */
+    public static long encode(HttpRequest request, WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = DirectBufferPool.SHARED.acquire();
+        try {
+            Output out = new Output(buffer, channel);
+            write(request, out);
+            out.flush();
+            return out.written;
+        } finally {
+            DirectBufferPool.SHARED.release(buffer);
+        }
+    }
+
+    private static void write(HttpRequest request, Output out) throws IOException {
+        HeaderMap headers = request.getHeaders();
+        checkNoControlCharacters("Method", request.getMethod());
+        for (int i = 0; i < headers.size(); i++) {
+            String name = headers.keyAt(i);
+            checkNoControlCharacters("Header name", name);
+            checkNoControlCharacters("Header " + name, headers.valueAt(i));
+        }
+        RequestBody body = request.getRequestBody();
+        boolean chunked = isChunked(headers, body);
+
+        String url = request.getUrl();
+        int schemeEnd = url.indexOf("://");
+        int authorityStart = schemeEnd < 0 ? 0 : schemeEnd + 3;
+        int authorityEnd = authorityStart;
+        while (authorityEnd < url.length() && "/?#".indexOf(url.charAt(authorityEnd)) < 0) {
+            authorityEnd++;
+        }
+        // Host is only host and port, credentials in the url never go on the wire
+        int hostStart = url.lastIndexOf('@', authorityEnd - 1);
+        hostStart = hostStart < authorityStart ? authorityStart : hostStart + 1;
+        int targetEnd = url.indexOf('#', authorityEnd);
+        if (targetEnd < 0) {
+            targetEnd = url.length();
+        }
+
+        // Request line
+        out.ascii(request.getMethod(), 0, request.getMethod().length());
+        out.put((byte) ' ');
+        writeRequestTarget(request, url, authorityEnd, targetEnd, out);
+        out.put(HTTP_VERSION);
+
+        // Headers
+        if (!headers.containsKey(HttpHeaderNames.HOST) && authorityEnd > hostStart) {
+            out.put(HOST);
+            out.ascii(url, hostStart, authorityEnd);
+            out.put(CRLF);
+        }
+        for (int i = 0; i < headers.size(); i++) {
+            String name = headers.keyAt(i);
+            String value = headers.valueAt(i);
+            out.ascii(name, 0, name.length());
+            out.put(HEADER_SEPARATOR);
+            out.ascii(value, 0, value.length());
+            out.put(CRLF);
+        }
+        if (body != null && !headers.containsKey(HttpHeaderNames.CONTENT_LENGTH)
+                && !headers.containsKey(HttpHeaderNames.TRANSFER_ENCODING)) {
+            out.put(chunked ? TRANSFER_ENCODING_CHUNKED : CONTENT_LENGTH);
+            if (!chunked) {
+                out.decimal(body.contentLength());
+            }
+            out.put(CRLF);
+        }
+        out.put(CRLF);
+
+        // Body
+        if (chunked) {
+            ChunkedSink sink = new ChunkedSink(out);
+            if (body != null) {
+                body.writeTo(sink);
+            }
+            sink.finish();
+        } else if (body != null) {
+            body.writeTo(out);
+        }
+    }
+
+    /**
+     * Whether the body goes out in chunks, checking that the framing headers set by the
+     * caller agree with each other and with the body
+     */
+    private static boolean isChunked(HeaderMap headers, RequestBody body) {
+        long length = body == null ? 0 : body.contentLength();
+        String transferEncoding = headers.get(HttpHeaderNames.TRANSFER_ENCODING);
+        String declaredLength = headers.get(HttpHeaderNames.CONTENT_LENGTH);
+        if (transferEncoding != null) {
+            if (declaredLength != null) {
+                throw new IllegalArgumentException("Content-Length and Transfer-Encoding must not both be set");
+            }
+            // In a request, chunked has to be the final coding
+            String[] codings = transferEncoding.split(",");
+            if (!codings[codings.length - 1].trim().equalsIgnoreCase("chunked")) {
+                throw new IllegalArgumentException("Transfer-Encoding must end with chunked: " + transferEncoding);
+            }
+            return true;
+        }
+        if (declaredLength != null) {
+            long declared;
+            try {
+                declared = Long.parseLong(declaredLength.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed Content-Length: " + declaredLength, e);
+            }
+            if (declared != length) {
+                throw new IllegalArgumentException("Content-Length " + declaredLength + " does not match the body, "
+                        + (length == RequestBody.UNKNOWN_LENGTH ? "whose length is unknown" : "which has " + length + " bytes"));
+            }
+            return false;
+        }
+        return length == RequestBody.UNKNOWN_LENGTH;
+    }
+
+    private static void checkNoControlCharacters(String what, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\r' || c == '\n' || c == '\0') {
+                throw new IllegalArgumentException(what + " must not contain CR, LF or NUL: "
+                        + s.replace("\r", "\\r").replace("\n", "\\n").replace("\0", "\\0"));
+            }
+        }
+    }
+
+    /**
+     * Path and query of the url followed by the encoded params,
+     * e.g. "/search?q=low%20level&page=2".
+     */
+    private static void writeRequestTarget(HttpRequest request, String url, int start, int end,
+                                           Output out) throws IOException {
+        boolean hasQuery = false;
+        if (start == end || url.charAt(start) == '?') {
+            out.put((byte) '/');
+        }
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+            hasQuery |= c == '?';
+            if (c <= ' ' || c >= 0x7F) {
+                i = out.utf8CodePoint(url, i, true);
+            } else {
+                out.put((byte) c);
+            }
+        }
+
+        HeaderMap params = request.getParams();
+        for (int i = 0; i < params.size(); i++) {
+            out.put((byte) (i == 0 && !hasQuery ? '?' : '&'));
+            String name = params.keyAt(i);
+            String value = params.valueAt(i);
+            out.percentEncoded(name, 0, name.length());
+            out.put((byte) '=');
+            out.percentEncoded(value, 0, value.length());
+        }
+    }
+
+    /**
+     * Number of bytes the string takes in UTF-8, computed without encoding it.
+     */
+    static long utf8Length(String s) {
+        long length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++; // unpaired surrogate, replaced by '?'
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Write cursor over a buffer. When a channel is attached the buffer is drained into
+     * it whenever it fills up, otherwise running out of space is an overflow.
+     */
+    private static final class Output implements RequestBody.Sink {
+        private final ByteBuffer buffer;
+        private final WritableByteChannel channel;
+        private long written;
+
+        Output(ByteBuffer buffer, WritableByteChannel channel) {
+            this.buffer = buffer;
+            this.channel = channel;
+        }
+
+        void put(byte b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                if (channel == null) {
+                    throw new BufferOverflowException();
+                }
+                flush();
+            }
+            buffer.put(b);
+            written++;
+        }
+
+        void put(byte[] bytes) throws IOException {
+            write(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void write(byte[] src, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (!buffer.hasRemaining()) {
+                    if (channel == null) {
+                        throw new BufferOverflowException();
+                    }
+                    flush();
+                }
+                int n = Math.min(length, buffer.remaining());
+                buffer.put(src, offset, n);
+                written += n;
+                offset += n;
+                length -= n;
+            }
+        }
+
+        /**
+         * Small buffers are copied, anything that does not fit is written to the
+         * channel directly after draining what is already buffered.
+         */
+        @Override
+        public void write(ByteBuffer src) throws IOException {
+            int length = src.remaining();
+            if (length <= buffer.remaining()) {
+                buffer.put(src);
+            } else if (channel == null) {
+                throw new BufferOverflowException();
+            } else {
+                flush();
+                while (src.hasRemaining()) {
+                    channel.write(src);
+                }
+            }
+            written += length;
+        }
+
+        /**
+         * Request line and header text, written as ISO-8859-1
+         */
+        void ascii(String s, int from, int to) throws IOException {
+            for (int i = from; i < to; i++) {
+                char c = s.charAt(i);
+                put(c < 0x100 ? (byte) c : (byte) '?');
+            }
+        }
+
+        void hex(long value) throws IOException {
+            int shift = (63 - Long.numberOfLeadingZeros(value | 1)) & ~3;
+            for (; shift >= 0; shift -= 4) {
+                put(HEX[(int) (value >>> shift) & 0xF]);
+            }
+        }
+
+        void decimal(long value) throws IOException {
+            long divisor = 1;
+            while (value / divisor >= 10) {
+                divisor *= 10;
+            }
+            for (; divisor > 0; divisor /= 10) {
+                put((byte) ('0' + (value / divisor) % 10));
+            }
+        }
+
+        @Override
+        public void writeUtf8(String s) throws IOException {
+            for (int i = 0; i < s.length(); i++) {
+                i = utf8CodePoint(s, i, false);
+            }
+        }
+
+        /**
+         * RFC 3986 percent-encoding: unreserved characters are kept, everything else
+         * is written as %XX of its UTF-8 bytes.
+         */
+        void percentEncoded(String s, int from, int to) throws IOException {
+            for (int i = from; i < to; i++) {
+                char c = s.charAt(i);
+                if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                        || c == '-' || c == '.' || c == '_' || c == '~') {
+                    put((byte) c);
+                } else {
+                    i = utf8CodePoint(s, i, true);
+                }
+            }
+        }
+
+        /**
+         * Writes the code point starting at index i and returns the index of its last char.
+         */
+        int utf8CodePoint(String s, int i, boolean escape) throws IOException {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                encodedByte(c, escape);
+            } else if (c < 0x800) {
+                encodedByte(0xC0 | (c >> 6), escape);
+                encodedByte(0x80 | (c & 0x3F), escape);
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                encodedByte(0xF0 | (cp >> 18), escape);
+                encodedByte(0x80 | ((cp >> 12) & 0x3F), escape);
+                encodedByte(0x80 | ((cp >> 6) & 0x3F), escape);
+                encodedByte(0x80 | (cp & 0x3F), escape);
+            } else if (Character.isSurrogate(c)) {
+                encodedByte('?', escape);
+            } else {
+                encodedByte(0xE0 | (c >> 12), escape);
+                encodedByte(0x80 | ((c >> 6) & 0x3F), escape);
+                encodedByte(0x80 | (c & 0x3F), escape);
+            }
+            return i;
+        }
+
+        private void encodedByte(int b, boolean escape) throws IOException {
+            if (escape) {
+                put((byte) '%');
+                put(HEX[(b >> 4) & 0xF]);
+                put(HEX[b & 0xF]);
+            } else {
+                put((byte) b);
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Wraps every write of a body in a chunk: size in hex, CRLF, data, CRLF.
+     */
+    private static final class ChunkedSink implements RequestBody.Sink {
+        private final Output out;
+
+        ChunkedSink(Output out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(ByteBuffer src) throws IOException {
+            if (src.hasRemaining()) {
+                header(src.remaining());
+                out.write(src);
+                out.put(CRLF);
+            }
+        }
+
+        @Override
+        public void write(byte[] src, int offset, int length) throws IOException {
+            if (length > 0) {
+                header(length);
+                out.write(src, offset, length);
+                out.put(CRLF);
+            }
+        }
+
+        @Override
+        public void writeUtf8(String src) throws IOException {
+            if (!src.isEmpty()) {
+                header(utf8Length(src));
+                out.writeUtf8(src);
+                out.put(CRLF);
+            }
+        }
+
+        private void header(long size) throws IOException {
+            out.hex(size);
+            out.put(CRLF);
+        }
+
+        void finish() throws IOException {
+            out.put(LAST_CHUNK);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package dev.ripanbaidya.builder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes {@link HttpRequest}s over HTTP/1.1.
+ *
+ * Asynchronous requests run on virtual threads, so thousands of in-flight requests only
+ * cost a few KB each while they wait on the network. Connections are kept alive and
+ * pooled per host (see {@link HttpConnectionPool}), and the request's timeout bounds
+ * the whole exchange: waiting for a connection, connecting, writing and reading. A
+ * watchdog closes the connection when the deadline passes, so neither a stalled upload
+ * nor a server that trickles its response out byte by byte can run over it.
+ *
+ * A request that failed on a pooled connection, which the server may have closed while
+ * it was idle, is sent once more on a fresh connection, but only if the server cannot
+ * have acted on it: nothing of the request was written yet, or the method is idempotent
+ * and the connection was closed before any byte of the response arrived. Bodies that
+ * cannot be written twice, like publishers, are never retried.
+ *
+ * Only plain http:// urls are supported, TLS is out of scope for this example.
+ *
+ * Usage:
+ * <pre>
+ *     try (HttpRequestExecutor executor = new HttpRequestExecutor()) {
+ *         HttpResponse response = executor.execute(request);
+ *         CompletableFuture&lt;HttpResponse&gt; future = executor.executeAsync(request);
+ *         List&lt;HttpResponse&gt; responses = executor.executeAll(requests);
+ *     }
+ * </pre>
+ */
+public class HttpRequestExecutor implements AutoCloseable {
+
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 64;
+    private static final int MAX_LINE_LENGTH = 8 * 1024;
+
+    private final int maxConnectionsPerHost;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledThreadPoolExecutor watchdog = newWatchdog();
+    private final Map<InetSocketAddress, HttpConnectionPool> pools = new ConcurrentHashMap<>();
+
+    public HttpRequestExecutor() {
+        this(DEFAULT_MAX_CONNECTIONS_PER_HOST);
+    }
+
+    public HttpRequestExecutor(int maxConnectionsPerHost) {
+        if (maxConnectionsPerHost <= 0) {
+            throw new IllegalArgumentException("maxConnectionsPerHost must be positive");
+        }
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    /**
+     * Executes the request on the calling thread
+     */
+    public HttpResponse execute(HttpRequest request) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(request.getTimeout());
+        URI uri = URI.create(request.getUrl());
+        if (!"http".equalsIgnoreCase(uri.getScheme())) {
+            throw new IllegalArgumentException("Only http:// urls are supported: " + request.getUrl());
+        }
+        HttpConnectionPool pool = pools.computeIfAbsent(
+                InetSocketAddress.createUnresolved(uri.getHost(), uri.getPort() < 0 ? 80 : uri.getPort()),
+                address -> new HttpConnectionPool(
+                        new InetSocketAddress(address.getHostString(), address.getPort()), maxConnectionsPerHost));
+
+        try {
+            return exchange(pool, request, deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while executing " + request.getUrl(), e);
+        }
+    }
+
+    /**
+     * Executes the request on a virtual thread
+     */
+    public CompletableFuture<HttpResponse> executeAsync(HttpRequest request) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return execute(request);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Executes all requests concurrently and waits for every one of them.
+     *
+     * @return responses in the same order as the requests
+     * @throws IOException the first failure, if any request failed
+     */
+    public List<HttpResponse> executeAll(List<HttpRequest> requests) throws IOException {
+        List<CompletableFuture<HttpResponse>> futures = new ArrayList<>(requests.size());
+        for (HttpRequest request : requests) {
+            futures.add(executeAsync(request));
+        }
+        List<HttpResponse> responses = new ArrayList<>(requests.size());
+        for (CompletableFuture<HttpResponse> future : futures) {
+            try {
+                responses.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof UncheckedIOException io) {
+                    throw io.getCause();
+                }
+                throw e;
+            }
+        }
+        return responses;
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+        watchdog.shutdownNow();
+        pools.values().forEach(HttpConnectionPool::close);
+    }
+
+    private static ScheduledThreadPoolExecutor newWatchdog() {
+        ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1,
+                Thread.ofPlatform().name("http-request-watchdog").daemon().factory());
+        // Nearly every exchange finishes in time, don't keep its cancelled task around
+        watchdog.setRemoveOnCancelPolicy(true);
+        return watchdog;
+    }
+
+    private HttpResponse exchange(HttpConnectionPool pool, HttpRequest request, long deadline)
+            throws IOException, InterruptedException {
+        HttpConnectionPool.Connection connection = pool.acquire(deadline, false);
+        try {
+            return send(pool, connection, request, deadline);
+        } catch (IOException e) {
+            if (!isRetryable(connection, request, e)) {
+                throw e;
+            }
+            return send(pool, pool.acquire(deadline, true), request, deadline);
+        }
+    }
+
+    /**
+     * A pooled connection may have been closed by the server while idle. The request is
+     * tried once more on a fresh one if the server cannot have processed it.
+     */
+    private static boolean isRetryable(HttpConnectionPool.Connection connection, HttpRequest request,
+                                       IOException failure) {
+        if (!connection.reused || failure instanceof SocketTimeoutException) {
+            return false;
+        }
+        RequestBody body = request.getRequestBody();
+        if (body != null && !body.isReplayable()) {
+            return false;
+        }
+        if (connection.requestBytesWritten == 0) {
+            return true;
+        }
+        // The request went out: only a connection closed before it was answered means it
+        // was most likely never read, and even then only idempotent requests may be repeated
+        HttpMethod method = request.getHttpMethod();
+        return failure instanceof EOFException && !connection.responseStarted
+                && method != null && method.isIdempotent();
+    }
+
+    /**
+     * Writes the request, reads the response and hands the connection back to the pool
+     */
+    private HttpResponse send(HttpConnectionPool pool, HttpConnectionPool.Connection connection,
+                              HttpRequest request, long deadline) throws IOException {
+        boolean reusable = false;
+        connection.begin();
+        ScheduledFuture<?> expiry = watchdog.schedule(connection::expire,
+                HttpConnectionPool.remainingNanos(deadline), TimeUnit.NANOSECONDS);
+        try {
+            connection.setReadDeadline(deadline);
+            HttpRequestEncoder.encode(request, connection.out);
+            ResponseReader reader = new ResponseReader(connection, deadline);
+            HttpResponse response = reader.read(request.getHttpMethod() == HttpMethod.HEAD);
+            reusable = reader.keepAlive;
+            return response;
+        } catch (IOException e) {
+            if (connection.isExpired()) {
+                SocketTimeoutException timeout = new SocketTimeoutException(
+                        "Request to " + request.getUrl() + " timed out after " + request.getTimeout() + " ms");
+                timeout.initCause(e);
+                throw timeout;
+            }
+            throw e;
+        } finally {
+            expiry.cancel(false);
+            pool.release(connection, reusable);
+        }
+    }
+
+    /**
+     * Minimal HTTP/1.1 response parser: status line, headers, and a body delimited by
+     * Content-Length, chunked transfer coding, or the end of the connection.
+     */
+    private static final class ResponseReader {
+        private final HttpConnectionPool.Connection connection;
+        private final InputStream in;
+        private final long deadline;
+        private boolean keepAlive = true;
+
+        ResponseReader(HttpConnectionPool.Connection connection, long deadline) {
+            this.connection = connection;
+            this.in = connection.in;
+            this.deadline = deadline;
+        }
+
+        HttpResponse read(boolean headRequest) throws IOException {
+            String statusLine = readLine();
+            // e.g. "HTTP/1.1 200 OK"
+            int firstSpace = statusLine.indexOf(' ');
+            if (!statusLine.startsWith("HTTP/") || firstSpace < 0 || statusLine.length() < firstSpace + 4) {
+                throw new IOException("Malformed status line: " + statusLine);
+            }
+            int statusCode;
+            try {
+                statusCode = Integer.parseInt(statusLine, firstSpace + 1, firstSpace + 4, 10);
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed status line: " + statusLine, e);
+            }
+
+            HeaderMap.Builder headerBuilder = new HeaderMap.Builder(true);
+            for (String line = readLine(); !line.isEmpty(); line = readLine()) {
+                int colon = line.indexOf(':');
+                if (colon <= 0) {
+                    throw new IOException("Malformed header: " + line);
+                }
+                headerBuilder.put(HttpHeaderNames.canonicalize(line.substring(0, colon).trim()),
+                        line.substring(colon + 1).trim());
+            }
+            HeaderMap headers = headerBuilder.build();
+            keepAlive = !"close".equalsIgnoreCase(headers.get(HttpHeaderNames.CONNECTION));
+
+            byte[] body;
+            String contentLength = headers.get(HttpHeaderNames.CONTENT_LENGTH);
+            if (headRequest || statusCode == 204 || statusCode == 304 || statusCode / 100 == 1) {
+                body = new byte[0];
+            } else if ("chunked".equalsIgnoreCase(headers.get(HttpHeaderNames.TRANSFER_ENCODING))) {
+                body = readChunked();
+            } else if (contentLength != null) {
+                body = readFully(parseLength(contentLength, 10, "Content-Length"));
+            } else {
+                // Body runs until the server closes the connection
+                keepAlive = false;
+                body = in.readAllBytes();
+            }
+            return new HttpResponse(statusCode, headers, body);
+        }
+
+        private byte[] readChunked() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            while (true) {
+                String sizeLine = readLine();
+                int extension = sizeLine.indexOf(';');
+                int size = parseLength(extension < 0 ? sizeLine : sizeLine.substring(0, extension), 16, "chunk size");
+                if (size == 0) {
+                    // Skip trailers
+                    while (!readLine().isEmpty()) {
+                        // ignore
+                    }
+                    return out.toByteArray();
+                }
+                out.writeBytes(readFully(size));
+                readLine();
+            }
+        }
+
+        /**
+         * A length announced by the server, which is not trusted to be well-formed
+         */
+        private static int parseLength(String value, int radix, String what) throws IOException {
+            int length;
+            try {
+                length = Integer.parseInt(value.trim(), radix);
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed " + what + ": " + value, e);
+            }
+            if (length < 0) {
+                throw new IOException("Negative " + what + ": " + value);
+            }
+            return length;
+        }
+
+        private byte[] readFully(int length) throws IOException {
+            connection.setReadDeadline(deadline);
+            byte[] bytes = in.readNBytes(length);
+            if (bytes.length < length) {
+                throw new EOFException("Connection closed after " + bytes.length + " of " + length + " bytes");
+            }
+            return bytes;
+        }
+
+        private String readLine() throws IOException {
+            connection.setReadDeadline(deadline);
+            StringBuilder line = new StringBuilder();
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b < 0) {
+                    throw new EOFException("Connection closed while reading response");
+                }
+                connection.responseStarted = true;
+                if (b != '\r') {
+                    if (line.length() == MAX_LINE_LENGTH) {
+                        throw new IOException("Response line too long");
+                    }
+                    line.append((char) b);
+                }
+            }
+            return line.toString();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package dev.ripanbaidya.builder;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Response returned by {@link HttpRequestExecutor}
+ */
+public class HttpResponse {
+    private final int statusCode;
+    private final HeaderMap headers;
+    private final byte[] body;
+
+    HttpResponse(int statusCode, HeaderMap headers, byte[] body) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Read-only view, header names are matched case-insensitively
+     */
+    public HeaderMap getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getBodyAsString() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "HttpResponse{" +
+                "statusCode=" + statusCode +
+                ", headers=" + headers +
+                ", body=" + body.length + " bytes" +
+                '}';
+    }
+}
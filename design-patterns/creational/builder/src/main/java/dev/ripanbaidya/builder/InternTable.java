@@ -0,0 +1,38 @@
+package dev.ripanbaidya.builder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded String intern table.
+ *
+ * Names seen again and again (custom header names, extension methods) are stored once
+ * and every request refers to that copy. Unlike String.intern() the table has a fixed
+ * capacity: once it is full, new names are returned as they are, so a client sending
+ * random header names cannot grow it without limit.
+ */
+final class InternTable {
+
+    private final int capacity;
+    private final ConcurrentMap<String, String> names = new ConcurrentHashMap<>();
+
+    InternTable(int capacity) {
+        this.capacity = capacity;
+    }
+
+    String intern(String name) {
+        String existing = names.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        if (names.size() >= capacity) {
+            return name;
+        }
+        existing = names.putIfAbsent(name, name);
+        return existing != null ? existing : name;
+    }
+
+    int size() {
+        return names.size();
+    }
+}
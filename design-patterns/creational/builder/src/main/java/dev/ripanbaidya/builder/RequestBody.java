@@ -0,0 +1,302 @@
+package dev.ripanbaidya.builder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+
+/**
+ * Body of an {@link HttpRequest}.
+ *
+ * Apart from Strings, bodies can be streamed from byte arrays, InputStreams, reactive
+ * publishers and memory-mapped file regions. Streamed bodies are copied to the wire in
+ * fixed-size pieces, so sending a multi-hundred-MB upload needs only a few KB of heap.
+ *
+ * A body either knows its length up front, in which case it is sent with a
+ * Content-Length header, or reports {@link #UNKNOWN_LENGTH} and is sent with chunked
+ * transfer encoding.
+ */
+public abstract class RequestBody {
+
+    public static final long UNKNOWN_LENGTH = -1;
+
+    private static final int COPY_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Large files are mapped in windows so a single body never pins a huge mapping.
+     */
+    private static final long MAP_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    RequestBody() {
+    }
+
+    /**
+     * Length in bytes, or {@link #UNKNOWN_LENGTH}
+     */
+    public abstract long contentLength();
+
+    /**
+     * Whether the body can be written more than once, which a retry needs
+     */
+    boolean isReplayable() {
+        return true;
+    }
+
+    /**
+     * Streams the body into the encoder's output
+     */
+    abstract void writeTo(Sink sink) throws IOException;
+
+    /**
+     * Destination the encoder hands to {@link #writeTo(Sink)}
+     */
+    interface Sink {
+        void write(ByteBuffer src) throws IOException;
+
+        void write(byte[] src, int offset, int length) throws IOException;
+
+        void writeUtf8(String src) throws IOException;
+    }
+
+    // ***** Factories *****
+
+    public static RequestBody ofString(String body) {
+        Objects.requireNonNull(body, "body");
+        return new RequestBody() {
+            @Override
+            public long contentLength() {
+                return HttpRequestEncoder.utf8Length(body);
+            }
+
+            @Override
+            void writeTo(Sink sink) throws IOException {
+                sink.writeUtf8(body);
+            }
+
+            @Override
+            public String toString() {
+                return body;
+            }
+        };
+    }
+
+    public static RequestBody ofBytes(byte[] body) {
+        return ofBytes(body, 0, body.length);
+    }
+
+    public static RequestBody ofBytes(byte[] body, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, body.length);
+        return new RequestBody() {
+            @Override
+            public long contentLength() {
+                return length;
+            }
+
+            @Override
+            void writeTo(Sink sink) throws IOException {
+                sink.write(body, offset, length);
+            }
+
+            @Override
+            public String toString() {
+                return "<" + length + " bytes>";
+            }
+        };
+    }
+
+    /**
+     * Body of unknown length read from a fresh stream on every send, so a request can
+     * be retried or sent more than once. The stream is closed after each send.
+     */
+    public static RequestBody ofInputStream(Supplier<? extends InputStream> streamSupplier) {
+        return ofInputStream(streamSupplier, UNKNOWN_LENGTH);
+    }
+
+    /**
+     * Same as {@link #ofInputStream(Supplier)} for streams whose length is known
+     *
+     * @param length bytes to send from each stream, or {@link #UNKNOWN_LENGTH}
+     */
+    public static RequestBody ofInputStream(Supplier<? extends InputStream> streamSupplier, long length) {
+        Objects.requireNonNull(streamSupplier, "streamSupplier");
+        checkLength(length);
+        return new RequestBody() {
+            @Override
+            public long contentLength() {
+                return length;
+            }
+
+            @Override
+            void writeTo(Sink sink) throws IOException {
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                long remaining = length;
+                try (InputStream in = streamSupplier.get()) {
+                    int read;
+                    while (remaining != 0 && (read = in.read(buffer, 0, chunk(remaining))) >= 0) {
+                        sink.write(buffer, 0, read);
+                        if (remaining != UNKNOWN_LENGTH) {
+                            remaining -= read;
+                        }
+                    }
+                }
+                if (remaining > 0) {
+                    throw new IOException("Stream ended " + remaining + " bytes before the declared length");
+                }
+            }
+
+            private int chunk(long remaining) {
+                return remaining == UNKNOWN_LENGTH ? COPY_BUFFER_SIZE : (int) Math.min(COPY_BUFFER_SIZE, remaining);
+            }
+
+            @Override
+            public String toString() {
+                return "<stream>";
+            }
+        };
+    }
+
+    /**
+     * Body produced by a reactive publisher. Buffers are requested one at a time and
+     * written before the next one is requested, so a fast publisher cannot flood the heap.
+     *
+     * A publisher of known length must publish exactly that many bytes. Sending is failed
+     * before the first byte past the length is written, or when the publisher completes
+     * short of it, since either would leave the message framing wrong.
+     *
+     * @param length total length if known, otherwise {@link #UNKNOWN_LENGTH}
+     */
+    public static RequestBody ofPublisher(Flow.Publisher<ByteBuffer> publisher, long length) {
+        Objects.requireNonNull(publisher, "publisher");
+        checkLength(length);
+        return new RequestBody() {
+            @Override
+            public long contentLength() {
+                return length;
+            }
+
+            @Override
+            void writeTo(Sink sink) throws IOException {
+                CompletableFuture<Void> done = new CompletableFuture<>();
+                publisher.subscribe(new Flow.Subscriber<>() {
+                    private Flow.Subscription subscription;
+                    private long published;
+
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription) {
+                        this.subscription = subscription;
+                        subscription.request(1);
+                    }
+
+                    @Override
+                    public void onNext(ByteBuffer item) {
+                        published += item.remaining();
+                        if (length != UNKNOWN_LENGTH && published > length) {
+                            subscription.cancel();
+                            done.completeExceptionally(new IOException(
+                                    "Publisher produced more than the declared " + length + " bytes"));
+                            return;
+                        }
+                        try {
+                            sink.write(item);
+                            subscription.request(1);
+                        } catch (IOException | RuntimeException e) {
+                            subscription.cancel();
+                            done.completeExceptionally(e);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        done.completeExceptionally(throwable);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        if (length != UNKNOWN_LENGTH && published < length) {
+                            done.completeExceptionally(new IOException("Publisher ended "
+                                    + (length - published) + " bytes before the declared length"));
+                        } else {
+                            done.complete(null);
+                        }
+                    }
+                });
+                try {
+                    done.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while streaming body", e);
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+                }
+            }
+
+            @Override
+            boolean isReplayable() {
+                // A publisher is subscribed to once, its items cannot be requested again
+                return false;
+            }
+
+            @Override
+            public String toString() {
+                return "<publisher>";
+            }
+        };
+    }
+
+    private static void checkLength(long length) {
+        if (length < UNKNOWN_LENGTH) {
+            throw new IllegalArgumentException("length must not be negative, or UNKNOWN_LENGTH, was " + length);
+        }
+    }
+
+    /**
+     * Whole file, memory-mapped while it is being sent
+     */
+    public static RequestBody ofFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return ofFileRegion(file, 0, channel.size());
+        }
+    }
+
+    /**
+     * Region of a file, memory-mapped while it is being sent. The file is read straight
+     * from the page cache, its contents never pass through the Java heap.
+     */
+    public static RequestBody ofFileRegion(Path file, long position, long length) {
+        Objects.requireNonNull(file, "file");
+        if (position < 0 || length < 0) {
+            throw new IllegalArgumentException("position and length must not be negative");
+        }
+        return new RequestBody() {
+            @Override
+            public long contentLength() {
+                return length;
+            }
+
+            @Override
+            void writeTo(Sink sink) throws IOException {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    if (position + length > channel.size()) {
+                        throw new IOException("Region " + position + "+" + length + " is beyond the end of " + file);
+                    }
+                    for (long offset = 0; offset < length; offset += MAP_WINDOW_SIZE) {
+                        long window = Math.min(MAP_WINDOW_SIZE, length - offset);
+                        sink.write(channel.map(FileChannel.MapMode.READ_ONLY, position + offset, window));
+                    }
+                }
+            }
+
+            @Override
+            public String toString() {
+                return "<" + file + " [" + position + ", " + (position + length) + ")>";
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package dev.ripanbaidya.builder;
+
+/**
+ * Reusable blueprint for requests that differ only in a few headers or params.
+ *
+ * Every request derived from a template shares the template's header and param storage
+ * and only stores its own changes, so deriving a request costs a few small arrays no
+ * matter how many headers the template carries.
+ *
+ * Usage:
+ * <pre>
+ *     RequestTemplate template = new RequestTemplate(new HttpRequest.Builder("http://api/items")
+ *             .header("Authorization", token)
+ *             .header("Accept", "application/json"));
+ *
+ *     HttpRequest req = template.withParam("id", "42");
+ *     HttpRequest other = template.newRequest().param("id", "43").timeout(500).build();
+ * </pre>
+ */
+public final class RequestTemplate {
+
+    private final HttpRequest prototype;
+
+    public RequestTemplate(HttpRequest prototype) {
+        this.prototype = prototype;
+    }
+
+    public RequestTemplate(HttpRequest.Builder builder) {
+        this(builder.build());
+    }
+
+    public HttpRequest getPrototype() {
+        return prototype;
+    }
+
+    /**
+     * Builder for a new request, starting from the template
+     */
+    public HttpRequest.Builder newRequest() {
+        return prototype.toBuilder();
+    }
+
+    public HttpRequest withParam(String key, String value) {
+        return prototype.toBuilder().param(key, value).build();
+    }
+
+    public HttpRequest withHeader(String key, String value) {
+        return prototype.toBuilder().header(key, value).build();
+    }
+}
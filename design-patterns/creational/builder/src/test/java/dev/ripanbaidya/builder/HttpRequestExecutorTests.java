@@ -0,0 +1,364 @@
+package dev.ripanbaidya.builder;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HttpRequestExecutorTests {
+
+    private static final String NODELAY = "sun.net.httpserver.nodelay";
+    private static String previousNodelay;
+
+    private HttpServer server;
+    private String baseUrl;
+    private final AtomicInteger connections = new AtomicInteger();
+
+    @BeforeAll
+    static void disableNagleOnServer() {
+        // The JDK server writes headers and body separately, with Nagle enabled every
+        // keep-alive response would stall on the client's delayed ACK
+        previousNodelay = System.setProperty(NODELAY, "true");
+    }
+
+    @AfterAll
+    static void restoreNagleOnServer() {
+        if (previousNodelay == null) {
+            System.clearProperty(NODELAY);
+        } else {
+            System.setProperty(NODELAY, previousNodelay);
+        }
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/echo", exchange -> {
+            byte[] body = (exchange.getRequestMethod() + " " + exchange.getRequestURI() + " "
+                    + new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8))
+                    .getBytes(StandardCharsets.UTF_8);
+            if (exchange.getRequestHeaders().containsKey("X-Echo")) {
+                exchange.getResponseHeaders().add("X-Echo", exchange.getRequestHeaders().getFirst("X-Echo"));
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/chunked", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            for (int i = 0; i < 3; i++) {
+                exchange.getResponseBody().write(("part" + i).getBytes(StandardCharsets.UTF_8));
+                exchange.getResponseBody().flush();
+            }
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void executesSyncAndAsync() throws Exception {
+        try (HttpRequestExecutor executor = new HttpRequestExecutor()) {
+            HttpRequest req = new HttpRequest.Builder(baseUrl + "/echo")
+                    .method("POST")
+                    .header("X-Echo", "hello")
+                    .param("q", "a b")
+                    .body("payload")
+                    .build();
+
+            HttpResponse response = executor.execute(req);
+            assertThat(response.getStatusCode()).isEqualTo(200);
+            assertThat(response.getHeaders().get("x-echo")).isEqualTo("hello");
+            assertThat(response.getBodyAsString()).isEqualTo("POST /echo?q=a%20b payload");
+
+            CompletableFuture<HttpResponse> future = executor.executeAsync(req);
+            assertThat(future.get(5, TimeUnit.SECONDS).getBodyAsString()).isEqualTo(response.getBodyAsString());
+        }
+    }
+
+    @Test
+    void readsChunkedResponses() throws Exception {
+        try (HttpRequestExecutor executor = new HttpRequestExecutor()) {
+            HttpResponse response = executor.execute(new HttpRequest.Builder(baseUrl + "/chunked").build());
+
+            assertThat(response.getBodyAsString()).isEqualTo("part0part1part2");
+        }
+    }
+
+    @Test
+    void enforcesRequestTimeout() {
+        try (HttpRequestExecutor executor = new HttpRequestExecutor()) {
+            HttpRequest req = new HttpRequest.Builder(baseUrl + "/slow").timeout(200).build();
+
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> executor.execute(req)).isInstanceOf(SocketTimeoutException.class);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1500);
+        }
+    }
+
+    @Test
+    void reusesPooledConnections() throws Exception {
+        server.stop(0);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/count", exchange -> {
+            byte[] body = exchange.getRemoteAddress().toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        try (HttpRequestExecutor executor = new HttpRequestExecutor(1)) {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/count";
+            List<String> clients = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                clients.add(executor.execute(new HttpRequest.Builder(url).build()).getBodyAsString());
+            }
+            // Same client address and port means the same socket carried every request
+            assertThat(clients).containsOnly(clients.get(0));
+        }
+    }
+
+    @Test
+    void executesConcurrentRequestsOverABoundedPool() throws Exception {
+        int count = 200;
+        try (HttpRequestExecutor executor = new HttpRequestExecutor(8)) {
+            List<CompletableFuture<HttpResponse>> futures = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                HttpRequest req = new HttpRequest.Builder(baseUrl + "/echo").param("i", String.valueOf(i)).build();
+                futures.add(executor.executeAsync(req));
+            }
+            for (int i = 0; i < count; i++) {
+                assertThat(futures.get(i).get(30, TimeUnit.SECONDS).getBodyAsString()).isEqualTo("GET /echo?i=" + i + " ");
+            }
+        }
+    }
+
+    @Test
+    void executeAllKeepsRequestOrder() throws Exception {
+        try (HttpRequestExecutor executor = new HttpRequestExecutor()) {
+            List<HttpRequest> requests = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                requests.add(new HttpRequest.Builder(baseUrl + "/echo").param("i", String.valueOf(i)).build());
+            }
+
+            List<HttpResponse> responses = executor.executeAll(requests);
+
+            for (int i = 0; i < 20; i++) {
+                assertThat(responses.get(i).getBodyAsString()).isEqualTo("GET /echo?i=" + i + " ");
+            }
+        }
+    }
+
+    @Test
+    void doesNotResendAPostTheServerMayHaveProcessed() throws Exception {
+        try (RawServer raw = new RawServer(RawServer::closeOnSecondRequest);
+             HttpRequestExecutor executor = new HttpRequestExecutor(1)) {
+            executor.execute(new HttpRequest.Builder(raw.url()).build());
+            HttpRequest post = new HttpRequest.Builder(raw.url()).method(HttpMethod.POST).body("charge card").build();
+
+            assertThatThrownBy(() -> executor.execute(post)).isInstanceOf(EOFException.class);
+            assertThat(raw.requests).hasValue(2);
+        }
+    }
+
+    @Test
+    void retriesAnIdempotentRequestOnAStaleConnection() throws Exception {
+        try (RawServer raw = new RawServer(RawServer::closeOnSecondRequest);
+             HttpRequestExecutor executor = new HttpRequestExecutor(1)) {
+            executor.execute(new HttpRequest.Builder(raw.url()).build());
+
+            assertThat(executor.execute(new HttpRequest.Builder(raw.url()).build()).getBodyAsString()).isEqualTo("ok");
+            assertThat(raw.requests).hasValue(3);
+        }
+    }
+
+    @Test
+    void enforcesTimeoutOnAStalledUpload() throws Exception {
+        // Accepts the connection but never reads, so the socket buffers fill up
+        try (RawServer raw = new RawServer((socket, requests) -> Thread.sleep(10_000));
+             HttpRequestExecutor executor = new HttpRequestExecutor()) {
+            HttpRequest upload = new HttpRequest.Builder(raw.url())
+                    .method(HttpMethod.PUT)
+                    .body(RequestBody.ofInputStream(() -> new InputStream() {
+                        @Override
+                        public int read() {
+                            return 0;
+                        }
+
+                        @Override
+                        public int read(byte[] b, int off, int len) {
+                            Arrays.fill(b, off, off + len, (byte) 0);
+                            return len;
+                        }
+                    }))
+                    .timeout(300)
+                    .build();
+
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> executor.execute(upload)).isInstanceOf(SocketTimeoutException.class);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1500);
+        }
+    }
+
+    @Test
+    void enforcesTimeoutOnATricklingResponse() throws Exception {
+        // Every byte arrives well within a single read timeout, the whole body does not
+        try (RawServer raw = new RawServer((socket, requests) -> {
+            RawServer.readRequest(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            out.write("HTTP/1.1 200 OK\r\nContent-Length: 100\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            for (int i = 0; i < 100; i++) {
+                out.write('x');
+                out.flush();
+                Thread.sleep(50);
+            }
+        }); HttpRequestExecutor executor = new HttpRequestExecutor()) {
+            HttpRequest req = new HttpRequest.Builder(raw.url()).timeout(300).build();
+
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> executor.execute(req)).isInstanceOf(SocketTimeoutException.class);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1500);
+        }
+    }
+
+    @Test
+    void rejectsAMalformedContentLength() throws Exception {
+        try (RawServer raw = new RawServer((socket, requests) -> {
+            RawServer.readRequest(socket.getInputStream());
+            socket.getOutputStream().write(
+                    "HTTP/1.1 200 OK\r\nContent-Length: 12abc\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            socket.getOutputStream().flush();
+        }); HttpRequestExecutor executor = new HttpRequestExecutor()) {
+
+            assertThatThrownBy(() -> executor.execute(new HttpRequest.Builder(raw.url()).build()))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("Malformed Content-Length");
+        }
+    }
+
+    /**
+     * Bare-bones socket server for the misbehaving peers HttpServer cannot imitate
+     */
+    static final class RawServer implements AutoCloseable {
+
+        @FunctionalInterface
+        interface Handler {
+            void handle(Socket socket, AtomicInteger requests) throws Exception;
+        }
+
+        final AtomicInteger requests = new AtomicInteger();
+        private final ServerSocket serverSocket;
+        private final Thread acceptor;
+
+        RawServer(Handler handler) throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            acceptor = Thread.ofVirtual().start(() -> {
+                while (!serverSocket.isClosed()) {
+                    try {
+                        Socket socket = serverSocket.accept();
+                        Thread.ofVirtual().start(() -> {
+                            try (socket) {
+                                handler.handle(socket, requests);
+                            } catch (Exception ignored) {
+                                // The client gave up on the connection
+                            }
+                        });
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        String url() {
+            return "http://127.0.0.1:" + serverSocket.getLocalPort() + "/";
+        }
+
+        /**
+         * Answers requests with keep-alive, except the second one overall: it is read in
+         * full and the connection is closed without an answer
+         */
+        static void closeOnSecondRequest(Socket socket, AtomicInteger requests) throws IOException {
+            InputStream in = socket.getInputStream();
+            while (readRequest(in)) {
+                if (requests.incrementAndGet() == 2) {
+                    return;
+                }
+                socket.getOutputStream().write("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\nok"
+                        .getBytes(StandardCharsets.US_ASCII));
+                socket.getOutputStream().flush();
+            }
+        }
+
+        /**
+         * Reads the headers and a Content-Length body, false at the end of the stream
+         */
+        static boolean readRequest(InputStream in) throws IOException {
+            int contentLength = 0;
+            StringBuilder line = new StringBuilder();
+            for (int b; (b = in.read()) >= 0; ) {
+                if (b == '\r') {
+                    continue;
+                }
+                if (b != '\n') {
+                    line.append((char) b);
+                    continue;
+                }
+                if (line.isEmpty()) {
+                    in.readNBytes(contentLength);
+                    return true;
+                }
+                if (line.toString().toLowerCase().startsWith("content-length:")) {
+                    contentLength = Integer.parseInt(line.substring(15).trim());
+                }
+                line.setLength(0);
+            }
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            acceptor.interrupt();
+        }
+    }
+}
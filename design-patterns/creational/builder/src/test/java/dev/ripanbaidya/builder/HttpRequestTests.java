@@ -0,0 +1,180 @@
+package dev.ripanbaidya.builder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HttpRequestTests {
+
+    @Test
+    void headersAreCaseInsensitiveAndParamsAreNot() {
+        HttpRequest req = new HttpRequest.Builder("http://localhost/data")
+                .header("Content-Type", "application/json")
+                .param("env", "prod")
+                .build();
+
+        assertThat(req.getHeaders().get("content-type")).isEqualTo("application/json");
+        assertThat(req.getParams().get("env")).isEqualTo("prod");
+        assertThat(req.getParams().get("ENV")).isNull();
+    }
+
+    @Test
+    void laterPutReplacesEarlierValue() {
+        HttpRequest req = new HttpRequest.Builder("http://localhost/data")
+                .header("Accept", "text/plain")
+                .header("accept", "application/json")
+                .build();
+
+        assertThat(req.getHeaders()).hasSize(1);
+        assertThat(req.getHeaders()).containsEntry("Accept", "application/json");
+    }
+
+    @Test
+    void requestsWithoutEntriesShareEmptyInstance() {
+        HttpRequest a = new HttpRequest.Builder("http://localhost/a").build();
+        HttpRequest b = new HttpRequest.Builder("http://localhost/b").build();
+
+        assertThat(a.getHeaders()).isSameAs(b.getHeaders()).isEmpty();
+        assertThat(a.getParams()).isSameAs(b.getParams()).isEmpty();
+    }
+
+    @Test
+    void builtRequestIsNotAffectedByLaterBuilderChanges() {
+        HttpRequest.Builder builder = new HttpRequest.Builder("http://localhost/data")
+                .header("X-Trace", "1");
+        HttpRequest first = builder.build();
+        builder.header("X-Trace", "2").header("X-Other", "3");
+
+        assertThat(first.getHeaders()).isEqualTo(Map.of("X-Trace", "1"));
+    }
+
+    @Test
+    void viewsAreReadOnly() {
+        HttpRequest req = new HttpRequest.Builder("http://localhost/data")
+                .header("Accept", "*/*")
+                .param("page", "1")
+                .build();
+
+        assertThatThrownBy(() -> req.getHeaders().put("Accept", "text/html"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> req.getParams().clear())
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void toBuilderSharesUnchangedStorage() {
+        HttpRequest parent = new HttpRequest.Builder("http://localhost/items")
+                .method("POST")
+                .header("Accept", "application/json")
+                .header("Authorization", "token")
+                .param("page", "1")
+                .body("payload")
+                .build();
+
+        HttpRequest child = parent.toBuilder().param("id", "42").build();
+
+        assertThat(child.getHeaders()).isSameAs(parent.getHeaders());
+        assertThat(child.getParams().isDerivedFrom(parent.getParams())).isTrue();
+        assertThat(child.getParams()).isEqualTo(Map.of("page", "1", "id", "42"));
+        assertThat(child.getMethod()).isEqualTo("POST");
+        assertThat(child.getBody()).isEqualTo("payload");
+        assertThat(parent.getParams()).isEqualTo(Map.of("page", "1"));
+    }
+
+    @Test
+    void derivedMapsKeepParentOrderAndOverrideValues() {
+        HttpRequest parent = new HttpRequest.Builder("http://localhost/items")
+                .header("A", "1")
+                .header("B", "2")
+                .header("C", "3")
+                .build();
+
+        HttpRequest child = parent.toBuilder().header("x-new", "4").header("b", "20").build();
+
+        HeaderMap headers = child.getHeaders();
+        assertThat(headers.isDerivedFrom(parent.getHeaders())).isTrue();
+        assertThat(headers).hasSize(4);
+        assertThat(headers.keyAt(1)).isEqualTo("B");
+        assertThat(headers.valueAt(1)).isEqualTo("20");
+        assertThat(headers.keyAt(3)).isEqualTo("x-new");
+        assertThat(headers.get("B")).isEqualTo("20");
+        assertThat(headers.get("x-NEW")).isEqualTo("4");
+    }
+
+    @Test
+    void rejectsNullValues() {
+        HttpRequest parent = new HttpRequest.Builder("http://localhost/items")
+                .header("A", "1")
+                .build();
+
+        assertThatThrownBy(() -> new HttpRequest.Builder("http://localhost/items").header("X-Value", null))
+                .isInstanceOf(NullPointerException.class)
+                .hasMessageContaining("X-Value");
+        assertThatThrownBy(() -> new HttpRequest.Builder("http://localhost/items").param("id", null))
+                .isInstanceOf(NullPointerException.class);
+        // A key that is present is never mistaken for an addition when a derived map is built
+        HeaderMap headers = parent.toBuilder().header("a", "2").build().getHeaders();
+        assertThat(headers).hasSize(1);
+        assertThat(headers.keyAt(0)).isEqualTo("A");
+        assertThat(headers.valueAt(0)).isEqualTo("2");
+    }
+
+    @Test
+    void deepDerivationChainsAreFlattened() {
+        RequestTemplate template = new RequestTemplate(new HttpRequest.Builder("http://localhost/items")
+                .header("Accept", "*/*")
+                .header("User-Agent", "lld")
+                .header("X-Tenant", "t1"));
+
+        HttpRequest req = template.getPrototype();
+        for (int i = 0; i < 10; i++) {
+            req = req.toBuilder().header("X-Tenant", "t" + i).build();
+        }
+
+        assertThat(req.getHeaders()).containsEntry("X-Tenant", "t9").hasSize(3);
+        assertThat(template.withParam("id", "1").getHeaders()).isSameAs(template.getPrototype().getHeaders());
+    }
+
+    @Test
+    void canonicalizesMethodsAndHeaderNames() {
+        HttpRequest a = new HttpRequest.Builder("http://localhost/a")
+                .method("POST")
+                .header("content-type", "application/json")
+                .header("X-Custom-Trace", "1")
+                .build();
+        HttpRequest b = new HttpRequest.Builder("http://localhost/b")
+                .method(HttpMethod.POST)
+                .header("CONTENT-TYPE", "text/plain")
+                .header(new String("X-Custom-Trace"), "2")
+                .build();
+
+        assertThat(a.getHttpMethod()).isSameAs(HttpMethod.POST);
+        assertThat(a.getMethod()).isSameAs(b.getMethod());
+        assertThat(a.getHeaders().keyAt(0)).isSameAs(HttpHeaderNames.CONTENT_TYPE);
+        assertThat(b.getHeaders().keyAt(0)).isSameAs(HttpHeaderNames.CONTENT_TYPE);
+        assertThat(a.getHeaders().keyAt(1)).isSameAs(b.getHeaders().keyAt(1));
+    }
+
+    @Test
+    void acceptsExtensionMethods() {
+        HttpRequest req = new HttpRequest.Builder("http://localhost/a").method("PROPFIND").build();
+
+        assertThat(req.getMethod()).isEqualTo("PROPFIND");
+        assertThat(req.getHttpMethod()).isNull();
+    }
+
+    @Test
+    void internTableIsBounded() {
+        InternTable table = new InternTable(2);
+        String first = table.intern(new String("a"));
+
+        assertThat(table.intern(new String("a"))).isSameAs(first);
+        table.intern("b");
+        String overflow = new String("c");
+        assertThat(table.intern(overflow)).isSameAs(overflow);
+        assertThat(table.size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,130 @@
+package dev.ripanbaidya.builder.benchmark;
+
+import dev.ripanbaidya.builder.HeaderMap;
+import dev.ripanbaidya.builder.HttpRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size and latency of {@link HeaderMap} against the HashMap requests used to keep their
+ * headers in: building a request's headers, deriving a request that changes one header
+ * from a prototype, against building that request from scratch, and looking a header up. main() runs with the gc profiler, its
+ * gc.alloc.rate.norm is the number of bytes allocated per build, which for the build
+ * benchmarks is about what each request retains.
+ * The HeaderMap builds go through {@link HttpRequest.Builder}, so they include the
+ * builder and the request object as well.
+ * Run through main() on the test classpath (mvn test-compile first).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HeaderMapBenchmark {
+
+    private static final String URL = "http://api.example.com/v1/orders";
+
+    @Param({"4", "16"})
+    public int headers;
+
+    private String[] names;
+    private String[] values;
+    private HttpRequest prototype;
+    private Map<String, String> prototypeHashMap;
+
+    @Setup
+    public void setUp() {
+        names = new String[headers];
+        values = new String[headers];
+        HttpRequest.Builder builder = new HttpRequest.Builder(URL);
+        prototypeHashMap = new HashMap<>();
+        for (int i = 0; i < headers; i++) {
+            names[i] = "X-Header-" + i;
+            values[i] = "value-" + i;
+            builder.header(names[i], values[i]);
+            prototypeHashMap.put(names[i], values[i]);
+        }
+        prototype = builder.build();
+    }
+
+    @Benchmark
+    public HeaderMap buildHeaderMap() {
+        HttpRequest.Builder builder = new HttpRequest.Builder(URL);
+        for (int i = 0; i < headers; i++) {
+            builder.header(names[i], values[i]);
+        }
+        return builder.build().getHeaders();
+    }
+
+    @Benchmark
+    public Map<String, String> buildHashMap() {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < headers; i++) {
+            map.put(names[i], values[i]);
+        }
+        return map;
+    }
+
+    /**
+     * A request that differs from the prototype in one header, the shape a template stamps out
+     */
+    @Benchmark
+    public HeaderMap deriveHeaderMap() {
+        return prototype.toBuilder().header("X-Request-Id", "42").build().getHeaders();
+    }
+
+    /**
+     * Baseline for {@link #deriveHeaderMap()}: the same request built from scratch
+     */
+    @Benchmark
+    public HeaderMap deriveHeaderMapFromScratch() {
+        HttpRequest.Builder builder = new HttpRequest.Builder(URL);
+        for (int i = 0; i < headers; i++) {
+            builder.header(names[i], values[i]);
+        }
+        return builder.header("X-Request-Id", "42").build().getHeaders();
+    }
+
+    @Benchmark
+    public Map<String, String> deriveHashMap() {
+        Map<String, String> map = new HashMap<>(prototypeHashMap);
+        map.put("X-Request-Id", "42");
+        return map;
+    }
+
+    /**
+     * The last header, the worst case of the linear scan
+     */
+    @Benchmark
+    public String lookupHeaderMap() {
+        return prototype.getHeaders().get(names[headers - 1]);
+    }
+
+    @Benchmark
+    public String lookupHashMap() {
+        return prototypeHashMap.get(names[headers - 1]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(HeaderMapBenchmark.class.getName() + "\\.")
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,99 @@
+package dev.ripanbaidya.builder.benchmark;
+
+import dev.ripanbaidya.builder.HttpRequest;
+import dev.ripanbaidya.builder.HttpRequestEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and allocation per encoded request: the encoder writing into a reused buffer or
+ * through its pooled direct buffer to a channel, against building the message as a
+ * String and encoding that. main() runs with the gc profiler, gc.alloc.rate.norm is the
+ * number of bytes allocated per request.
+ * Run through main() on the test classpath (mvn test-compile first).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpRequestEncoderBenchmark {
+
+    private HttpRequest request;
+    private ByteBuffer buffer;
+    private WritableByteChannel channel;
+
+    @Setup
+    public void setUp() {
+        request = new HttpRequest.Builder("http://api.example.com/v1/orders")
+                .method("POST")
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer 0123456789abcdef")
+                .header("X-Request-Id", "6f1c2a9e-5d1b-4c47-9a55-2b7f8a1d3e40")
+                .param("expand", "items,customer")
+                .param("q", "status:open date>2024")
+                .body("{\"sku\":\"A-1001\",\"quantity\":2,\"note\":\"gift wrap\"}")
+                .build();
+        buffer = ByteBuffer.allocate(4096);
+        channel = Channels.newChannel(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public int encodeIntoBuffer() {
+        buffer.clear();
+        return HttpRequestEncoder.encode(request, buffer);
+    }
+
+    @Benchmark
+    public long encodeToChannel() throws Exception {
+        return HttpRequestEncoder.encode(request, channel);
+    }
+
+    /**
+     * Message built as a String, params encoded with URLEncoder, then turned into bytes
+     */
+    @Benchmark
+    public byte[] stringConcatenation() {
+        StringBuilder message = new StringBuilder()
+                .append(request.getMethod()).append(" /v1/orders");
+        request.getParams().forEach((name, value) -> message
+                .append(message.indexOf("?") < 0 ? '?' : '&')
+                .append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=')
+                .append(URLEncoder.encode(value, StandardCharsets.UTF_8)));
+        message.append(" HTTP/1.1\r\nHost: api.example.com\r\n");
+        request.getHeaders().forEach((name, value) -> message.append(name).append(": ").append(value).append("\r\n"));
+        byte[] body = request.getBody().getBytes(StandardCharsets.UTF_8);
+        message.append("Content-Length: ").append(body.length).append("\r\n\r\n");
+        byte[] head = message.toString().getBytes(StandardCharsets.ISO_8859_1);
+        byte[] encoded = new byte[head.length + body.length];
+        System.arraycopy(head, 0, encoded, 0, head.length);
+        System.arraycopy(body, 0, encoded, head.length, body.length);
+        return encoded;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(HttpRequestEncoderBenchmark.class.getName() + "\\.")
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
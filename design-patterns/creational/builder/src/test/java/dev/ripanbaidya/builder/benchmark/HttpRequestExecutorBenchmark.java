@@ -0,0 +1,75 @@
+package dev.ripanbaidya.builder.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import dev.ripanbaidya.builder.HttpRequest;
+import dev.ripanbaidya.builder.HttpRequestExecutor;
+import dev.ripanbaidya.builder.HttpResponse;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of {@link HttpRequestExecutor}: 10k requests submitted at once to a loopback
+ * echo server, reporting latency percentiles and throughput.
+ *
+ * Latency runs from submitting a request to its response, so it includes the time spent
+ * waiting for one of the pooled connections. Not a JMH benchmark: the figures of interest
+ * are those of one burst of concurrent requests.
+ *
+ * Usage, from the module directory after mvn test-compile:
+ * <pre>
+ *     java -cp target/classes:target/test-classes \
+ *         dev.ripanbaidya.builder.benchmark.HttpRequestExecutorBenchmark [requests]
+ * </pre>
+ */
+public class HttpRequestExecutorBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        // The JDK server writes headers and body separately, with Nagle enabled every
+        // keep-alive response would stall on the client's delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/echo", exchange -> {
+            byte[] body = exchange.getRequestURI().toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/echo";
+
+        try (HttpRequestExecutor executor = new HttpRequestExecutor()) {
+            long[] latencies = new long[count];
+            List<CompletableFuture<HttpResponse>> futures = new ArrayList<>(count);
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                long submitted = System.nanoTime();
+                HttpRequest req = new HttpRequest.Builder(url).param("i", String.valueOf(i)).build();
+                futures.add(executor.executeAsync(req)
+                        .whenComplete((r, e) -> latencies[index] = System.nanoTime() - submitted));
+            }
+            for (CompletableFuture<HttpResponse> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            System.out.printf("HttpRequestExecutor: %d requests, p50=%.1f ms, p99=%.1f ms, %.0f req/s%n",
+                    count,
+                    latencies[count / 2] / 1e6,
+                    latencies[count * 99 / 100] / 1e6,
+                    count / (elapsed / 1e9));
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package dev.ripanbaidya.builder.benchmark;
+
+import dev.ripanbaidya.builder.HttpHeaderNames;
+import dev.ripanbaidya.builder.HttpMethod;
+import dev.ripanbaidya.builder.HttpRequest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntFunction;
+
+/**
+ * Retained heap of 1M requests whose method and header names arrive as free-form
+ * strings, as a parser or a config file hands them over, against the same requests with
+ * the names canonicalized through {@link HttpMethod} and {@link HttpHeaderNames}.
+ *
+ * Every request decodes its names from bytes, so the free-form requests each keep their
+ * own copies while the canonicalized ones share the registry constants. The first two
+ * rows hold the same flat request shape and differ only in the name strings, the third
+ * holds real {@link HttpRequest}s from the builder, which canonicalizes on its own.
+ *
+ * Retained heap is the used heap after a full GC with the requests reachable, minus the
+ * same figure before building them, read from the {@link MemoryMXBean}. It includes the
+ * array slot holding each request. The harness needs about 1 GB of heap and is only as
+ * exact as System.gc(), so run it with a fixed heap and a collector that honours
+ * explicit GCs:
+ * <pre>
+ *     java -Xms2g -Xmx2g -XX:+UseSerialGC -cp target/classes:target/test-classes \
+ *         dev.ripanbaidya.builder.benchmark.RequestHeapFootprint [requests]
+ * </pre>
+ */
+public class RequestHeapFootprint {
+
+    private static final String URL = "http://api.example.com/v1/orders";
+    private static final byte[] METHOD = "POST".getBytes(StandardCharsets.ISO_8859_1);
+    // Names as they come off the wire, lower case like HTTP/2 sends them
+    private static final byte[][] NAMES = encode("host", "user-agent", "accept", "accept-encoding",
+            "content-type", "x-request-id");
+    private static final String[] VALUES = {"api.example.com", "example-client/1.0", "application/json",
+            "gzip", "application/json"};
+
+    /**
+     * The fields a request keeps, without anything else of {@link HttpRequest}
+     */
+    private record FlatRequest(String url, String method, HttpMethod httpMethod, String[] names, String[] values) {
+    }
+
+    public static void main(String[] args) {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        report("free-form names", requests, RequestHeapFootprint::freeForm);
+        report("canonicalized names", requests, RequestHeapFootprint::canonicalized);
+        report("HttpRequest.Builder", requests, RequestHeapFootprint::built);
+    }
+
+    private static FlatRequest freeForm(int i) {
+        String[] names = new String[NAMES.length];
+        for (int h = 0; h < names.length; h++) {
+            names[h] = decode(NAMES[h]);
+        }
+        return new FlatRequest(URL, decode(METHOD), null, names, values(i));
+    }
+
+    private static FlatRequest canonicalized(int i) {
+        String[] names = new String[NAMES.length];
+        for (int h = 0; h < names.length; h++) {
+            names[h] = HttpHeaderNames.canonicalize(decode(NAMES[h]));
+        }
+        HttpMethod method = HttpMethod.lookup(decode(METHOD));
+        return new FlatRequest(URL, method.name(), method, names, values(i));
+    }
+
+    private static HttpRequest built(int i) {
+        HttpRequest.Builder builder = new HttpRequest.Builder(URL).method(decode(METHOD));
+        String[] values = values(i);
+        for (int h = 0; h < NAMES.length; h++) {
+            builder.header(decode(NAMES[h]), values[h]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Shared values and a request id of the request's own, the same in every mode
+     */
+    private static String[] values(int i) {
+        String[] values = new String[NAMES.length];
+        System.arraycopy(VALUES, 0, values, 0, VALUES.length);
+        values[NAMES.length - 1] = Integer.toString(i);
+        return values;
+    }
+
+    private static void report(String mode, int requests, IntFunction<Object> request) {
+        long before = usedAfterGc();
+        Object[] held = new Object[requests];
+        for (int i = 0; i < requests; i++) {
+            held[i] = request.apply(i);
+        }
+        long retained = usedAfterGc() - before;
+        Reference.reachabilityFence(held);
+        System.out.printf("%-20s %,6d MB retained, %,4d bytes per request%n",
+                mode, retained / (1024 * 1024), retained / requests);
+    }
+
+    private static long usedAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static String decode(byte[] bytes) {
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[][] encode(String... names) {
+        byte[][] encoded = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            encoded[i] = names[i].getBytes(StandardCharsets.ISO_8859_1);
+        }
+        return encoded;
+    }
+}
@@ -0,0 +1,207 @@
+package dev.ripanbaidya.factory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Delivers notifications asynchronously, one bounded queue and one virtual-thread
+ * worker per {@link NotificationChannel}.
+ *
+ * Callers get a {@link CompletableFuture} per message instead of blocking for the
+ * transport. Because every channel has its own queue and worker, a slow Email
+ * transport only backs up Email messages, Push delivery keeps flowing.
+ *
+ * When a channel's queue is full the {@link OverflowPolicy} decides what happens:
+ * <ul>
+ *     <li>BLOCK - the caller waits for space in the queue</li>
+ *     <li>DROP - the message is rejected, its future fails with RejectedExecutionException</li>
+ *     <li>CALLER_RUNS - the caller delivers the message itself, which slows producers
+ *     down to the channel's pace</li>
+ * </ul>
+ *
+ * Every message accepted before {@link #close()} is delivered, the ones sent after it
+ * are rejected: a send checks for close and enqueues under a read lock, close flips the
+ * flag under the write lock, so the stop marker always lands behind the last accepted
+ * message.
+ */
+public class AsyncNotificationDispatcher implements AutoCloseable {
+
+    public enum OverflowPolicy {
+        BLOCK,
+        DROP,
+        CALLER_RUNS
+    }
+
+    private final NotificationRegistry registry;
+    private final OverflowPolicy overflowPolicy;
+    private final ChannelWorker[] workers = new ChannelWorker[NotificationChannel.values().length];
+    // Held for reading while a message is enqueued, for writing while closing
+    private final ReadWriteLock lifecycle = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    public AsyncNotificationDispatcher(NotificationRegistry registry, int queueCapacity, OverflowPolicy overflowPolicy) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity must be positive");
+        }
+        this.registry = registry;
+        this.overflowPolicy = overflowPolicy;
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            if (registry.isRegistered(channel)) {
+                workers[channel.ordinal()] = new ChannelWorker(channel, queueCapacity);
+            }
+        }
+    }
+
+    /**
+     * Queues the message for delivery on its channel
+     *
+     * @return future completed once the channel has sent the message
+     */
+    public CompletableFuture<Void> send(NotificationChannel channel, String message) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        ChannelWorker worker = workers[channel.ordinal()];
+        if (worker == null) {
+            future.completeExceptionally(new IllegalArgumentException("No provider registered for channel " + channel));
+            return future;
+        }
+
+        Task task = new Task(message, future);
+        lifecycle.readLock().lock();
+        try {
+            if (closed) {
+                future.completeExceptionally(new RejectedExecutionException("Dispatcher is closed"));
+                return future;
+            }
+            if (worker.queue.offer(task)) {
+                return future;
+            }
+            switch (overflowPolicy) {
+                case BLOCK -> {
+                    // The worker is not stopped while we hold the lock, so there will be space
+                    try {
+                        worker.queue.put(task);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        future.completeExceptionally(e);
+                    }
+                    return future;
+                }
+                case DROP -> {
+                    future.completeExceptionally(new RejectedExecutionException("Queue for " + channel + " is full"));
+                    return future;
+                }
+                case CALLER_RUNS -> {
+                    // Delivered below, outside the lock, so it does not hold up close
+                }
+            }
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+        worker.deliver(task);
+        return future;
+    }
+
+    /**
+     * Messages waiting in the channel's queue
+     */
+    public int queueDepth(NotificationChannel channel) {
+        ChannelWorker worker = workers[channel.ordinal()];
+        return worker == null ? 0 : worker.queue.size();
+    }
+
+    /**
+     * Stops accepting messages, then waits for the queued ones to be delivered
+     */
+    @Override
+    public void close() {
+        boolean wasClosed;
+        lifecycle.writeLock().lock();
+        try {
+            wasClosed = closed;
+            closed = true;
+        } finally {
+            lifecycle.writeLock().unlock();
+        }
+        // No send is between its check and its enqueue anymore, the stop marker goes last
+        if (!wasClosed) {
+            for (ChannelWorker worker : workers) {
+                if (worker != null) {
+                    worker.stop();
+                }
+            }
+        }
+        for (ChannelWorker worker : workers) {
+            if (worker != null) {
+                worker.join();
+            }
+        }
+    }
+
+    private record Task(String message, CompletableFuture<Void> future) {
+    }
+
+    /**
+     * Marks the end of a queue
+     */
+    private static final Task STOP = new Task(null, null);
+
+    private final class ChannelWorker {
+        private final NotificationChannel channel;
+        private final BlockingQueue<Task> queue;
+        private final Thread thread;
+
+        ChannelWorker(NotificationChannel channel, int queueCapacity) {
+            this.channel = channel;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = Thread.ofVirtual().name("notification-" + channel.name().toLowerCase()).start(this::run);
+        }
+
+        private void run() {
+            try {
+                for (Task task = queue.take(); task != STOP; task = queue.take()) {
+                    deliver(task);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // Only left over if the worker was interrupted, nothing is enqueued after the stop marker
+            for (Task task = queue.poll(); task != null; task = queue.poll()) {
+                task.future.completeExceptionally(new RejectedExecutionException("Dispatcher is closed"));
+            }
+        }
+
+        /**
+         * Any failure, Errors included, goes to the message's future: letting one escape
+         * would end the worker and leave every future behind it pending forever
+         */
+        void deliver(Task task) {
+            try {
+                registry.get(channel).send(task.message);
+                task.future.complete(null);
+            } catch (Throwable e) {
+                task.future.completeExceptionally(e);
+            }
+        }
+
+        void stop() {
+            try {
+                queue.put(STOP);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                thread.interrupt();
+            }
+        }
+
+        void join() {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
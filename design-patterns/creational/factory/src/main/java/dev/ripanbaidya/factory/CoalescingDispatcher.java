@@ -0,0 +1,208 @@
+package dev.ripanbaidya.factory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces individual messages into batches for {@link Notification#sendBatch(List)}.
+ *
+ * A batch is flushed as soon as it reaches {@code maxBatchSize} messages, or when its
+ * oldest message has waited {@code maxLatency}, whichever comes first. Larger batches
+ * mean fewer round-trips to the transport, the deadline caps how long a message may
+ * sit in a half-full batch.
+ *
+ * Batches are delivered on a single flusher thread, so they reach the channel in the
+ * order their messages were submitted.
+ *
+ * Every submit returns the future of the batch the message went into. It completes once
+ * the batch has been sent, or exceptionally with the transport's error, so a failed
+ * batch is seen by the callers whose messages were in it.
+ *
+ * Usage:
+ * <pre>
+ *     try (CoalescingDispatcher dispatcher =
+ *              new CoalescingDispatcher(new EmailNotificationFactory(), 100, Duration.ofMillis(50))) {
+ *         dispatcher.submit("Welcome").whenComplete((ignored, failure) -> ...);
+ *     }
+ * </pre>
+ */
+public class CoalescingDispatcher implements AutoCloseable {
+
+    private final NotificationFactory factory;
+    private final int maxBatchSize;
+    private final long maxLatencyNanos;
+    private final ScheduledExecutorService flusher;
+    private final DispatcherMetrics metrics = new DispatcherMetrics();
+
+    // Guarded by this
+    private Batch batch;
+    private ScheduledFuture<?> deadline;
+    // Batches handed to the flusher that it has not started to send yet
+    private final Set<Batch> queued = new LinkedHashSet<>();
+    private boolean closed;
+
+    public CoalescingDispatcher(NotificationFactory factory, int maxBatchSize, Duration maxLatency) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        if (maxLatency.isNegative() || maxLatency.isZero()) {
+            throw new IllegalArgumentException("maxLatency must be positive");
+        }
+        this.factory = factory;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLatencyNanos = maxLatency.toNanos();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds the message to the current batch
+     *
+     * @return future of the batch the message is sent in, completed exceptionally if
+     * sending the batch failed or the dispatcher was closed before it got to it
+     * @throws IllegalStateException if the dispatcher has been closed
+     */
+    public synchronized CompletableFuture<Void> submit(String message) {
+        if (closed) {
+            throw new IllegalStateException("Dispatcher is closed");
+        }
+        if (batch == null) {
+            Batch current = new Batch(new ArrayList<>(maxBatchSize), System.nanoTime(), new CompletableFuture<>());
+            batch = current;
+            deadline = flusher.schedule(() -> flushIfCurrent(current), maxLatencyNanos, TimeUnit.NANOSECONDS);
+        }
+        CompletableFuture<Void> sent = batch.sent();
+        batch.messages().add(message);
+        if (batch.messages().size() >= maxBatchSize) {
+            deadline.cancel(false);
+            enqueue(batch, DispatcherMetrics.FlushReason.SIZE);
+            batch = null;
+        }
+        return sent;
+    }
+
+    public DispatcherMetrics.Snapshot metrics() {
+        return metrics.snapshot();
+    }
+
+    /**
+     * Flushes the pending batch and waits up to a minute for every batch to be delivered,
+     * see {@link #close(Duration)}
+     */
+    @Override
+    public void close() {
+        close(Duration.ofMinutes(1));
+    }
+
+    /**
+     * Flushes the pending batch and waits for every batch to be delivered. Batches the
+     * flusher has not started on when the timeout runs out (or the caller is interrupted)
+     * are not sent: their futures fail with RejectedExecutionException and their messages
+     * are returned, so the caller can send them some other way.
+     *
+     * @return the messages that were not sent, in submission order, empty if all were
+     */
+    public List<String> close(Duration timeout) {
+        synchronized (this) {
+            if (!closed) {
+                closed = true;
+                if (batch != null) {
+                    deadline.cancel(false);
+                    enqueue(batch, DispatcherMetrics.FlushReason.CLOSE);
+                    batch = null;
+                }
+            }
+        }
+        flusher.shutdown();
+        try {
+            if (flusher.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                return List.of();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Batch> abandoned;
+        synchronized (this) {
+            abandoned = new ArrayList<>(queued);
+            queued.clear();
+        }
+        // Interrupt the batch being sent, if any, its own future reports how that went
+        flusher.shutdownNow();
+        List<String> unsent = new ArrayList<>();
+        for (Batch pending : abandoned) {
+            unsent.addAll(pending.messages());
+            pending.sent().completeExceptionally(
+                    new RejectedExecutionException("Dispatcher closed before the batch was sent"));
+        }
+        return unsent;
+    }
+
+    /**
+     * A batch of messages and the future its submitters wait on
+     */
+    private record Batch(List<String> messages, long startNanos, CompletableFuture<Void> sent) {
+    }
+
+    /**
+     * Hands a closed batch to the flusher. Caller holds the lock.
+     */
+    private void enqueue(Batch full, DispatcherMetrics.FlushReason reason) {
+        recordFlush(full, reason);
+        queued.add(full);
+        flusher.execute(() -> {
+            synchronized (this) {
+                if (!queued.remove(full)) {
+                    // Given up on by close
+                    return;
+                }
+            }
+            deliver(full);
+        });
+    }
+
+    /**
+     * Deadline task: only flushes if its batch has not already been flushed by size
+     */
+    private void flushIfCurrent(Batch scheduled) {
+        synchronized (this) {
+            if (batch != scheduled) {
+                return;
+            }
+            batch = null;
+        }
+        recordFlush(scheduled, DispatcherMetrics.FlushReason.DEADLINE);
+        deliver(scheduled);
+    }
+
+    private void recordFlush(Batch full, DispatcherMetrics.FlushReason reason) {
+        metrics.recordFlush(reason, full.messages().size(), System.nanoTime() - full.startNanos());
+    }
+
+    private void deliver(Batch full) {
+        Throwable failure = null;
+        try {
+            factory.sendBatch(full.messages());
+        } catch (Throwable e) {
+            failure = e;
+        }
+        metrics.recordDelivery(full.messages().size(), failure != null);
+        if (failure == null) {
+            full.sent().complete(null);
+        } else {
+            full.sent().completeExceptionally(failure);
+        }
+    }
+}
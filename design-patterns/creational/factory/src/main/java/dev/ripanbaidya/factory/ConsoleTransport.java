@@ -0,0 +1,21 @@
+package dev.ripanbaidya.factory;
+
+/**
+ * Transport that prints messages to stdout, used when no real transport is configured
+ */
+public class ConsoleTransport implements NotificationTransport {
+
+    private final String prefix;
+
+    /**
+     * @param prefix printed in front of every message, e.g. "Sending Email: "
+     */
+    public ConsoleTransport(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public void deliver(String message) {
+        System.out.println(prefix + message);
+    }
+}
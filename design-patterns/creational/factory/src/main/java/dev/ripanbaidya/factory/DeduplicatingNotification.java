@@ -0,0 +1,160 @@
+package dev.ripanbaidya.factory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Decorator that drops messages already sent within a time window, so upstream
+ * retries do not notify the same user twice.
+ *
+ * A seen-set that only grows would eventually exhaust the heap. Instead every message
+ * is first checked against a {@link RotatingBloomFilter} of fixed size: most messages
+ * are new, and for those the filter answers "definitely not seen" with a few array reads.
+ * Only when the filter says "maybe" is the answer confirmed against a small exact LRU
+ * of recent messages, so a Bloom false positive never suppresses a real notification.
+ * A genuine duplicate that has already been evicted from the LRU is sent again, the
+ * trade-off for bounded memory.
+ *
+ * Usage:
+ * <pre>
+ *     Notification email = new DeduplicatingNotification(
+ *             new EmailNotification(), 1_000_000, 0.01, Duration.ofMinutes(10), 10_000);
+ *     email.send("Your order has shipped");
+ *     email.send("Your order has shipped"); // suppressed
+ * </pre>
+ */
+public class DeduplicatingNotification implements Notification {
+
+    private static final int GENERATIONS = 3;
+
+    private final Notification delegate;
+    private final RotatingBloomFilter filter;
+    private final LinkedHashMap<String, Long> recent;
+    private final long windowNanos;
+    private final LongSupplier clock;
+
+    // Guarded by this
+    private long checks;
+    private long duplicates;
+    private long falsePositives;
+
+    /**
+     * @param expectedMessagesPerWindow distinct messages per window the filter is sized for
+     * @param falsePositiveRate         target false positive rate of each filter generation
+     * @param window                    how long a sent message is remembered
+     * @param exactCapacity             entries in the exact LRU that confirms filter hits
+     */
+    public DeduplicatingNotification(Notification delegate, int expectedMessagesPerWindow,
+                                     double falsePositiveRate, Duration window, int exactCapacity) {
+        this(delegate, expectedMessagesPerWindow, falsePositiveRate, window, exactCapacity, System::nanoTime);
+    }
+
+    DeduplicatingNotification(Notification delegate, int expectedMessagesPerWindow, double falsePositiveRate,
+                              Duration window, int exactCapacity, LongSupplier clock) {
+        if (exactCapacity <= 0) {
+            throw new IllegalArgumentException("exactCapacity must be positive");
+        }
+        this.delegate = delegate;
+        this.windowNanos = window.toNanos();
+        this.clock = clock;
+        // Each generation covers half the window, so a message stays in the filter for at least one window
+        this.filter = new RotatingBloomFilter(Math.max(1, expectedMessagesPerWindow / (GENERATIONS - 1)),
+                falsePositiveRate, GENERATIONS, windowNanos / (GENERATIONS - 1), clock);
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > exactCapacity;
+            }
+        };
+    }
+
+    @Override
+    public void send(String message) {
+        if (!tryRecord(message)) {
+            return;
+        }
+        try {
+            delegate.send(message);
+        } catch (RuntimeException e) {
+            forget(message);
+            throw e;
+        }
+    }
+
+    @Override
+    public void sendBatch(List<String> messages) {
+        List<String> fresh = new ArrayList<>(messages.size());
+        for (String message : messages) {
+            if (tryRecord(message)) {
+                fresh.add(message);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+        try {
+            delegate.sendBatch(fresh);
+        } catch (RuntimeException e) {
+            fresh.forEach(this::forget);
+            throw e;
+        }
+    }
+
+    /**
+     * Records the message as sent
+     *
+     * @return false if it is a duplicate that must not be sent again
+     */
+    synchronized boolean tryRecord(String message) {
+        checks++;
+        long now = clock.getAsLong();
+        if (filter.mightContain(message)) {
+            Long sentAt = recent.get(message);
+            if (sentAt != null && now - sentAt < windowNanos) {
+                duplicates++;
+                return false;
+            }
+            falsePositives += sentAt == null ? 1 : 0;
+        }
+        filter.put(message);
+        recent.put(message, now);
+        return true;
+    }
+
+    /**
+     * Lets a message whose send failed be retried. The filter bits stay set, the LRU
+     * miss is enough for the next attempt to go through.
+     */
+    private synchronized void forget(String message) {
+        recent.remove(message);
+    }
+
+    /**
+     * Fixed memory of the Bloom filter in bytes, the LRU comes on top
+     */
+    public long filterMemoryBytes() {
+        return filter.memoryBytes();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(checks, duplicates, falsePositives);
+    }
+
+    /**
+     * Counters since creation
+     *
+     * @param falsePositives filter hits the LRU did not confirm: Bloom false positives,
+     *                       or duplicates already evicted from the LRU
+     */
+    public record Stats(long checks, long duplicates, long falsePositives) {
+
+        public double falsePositiveRate() {
+            long unique = checks - duplicates;
+            return unique == 0 ? 0 : (double) falsePositives / unique;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package dev.ripanbaidya.factory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters kept by {@link CoalescingDispatcher}.
+ *
+ * Flush latency is measured from the moment the first message of a batch is accepted
+ * until the batch is closed and handed to the flusher, i.e. the longest any message
+ * waited for its batch to fill up or time out. Once closed, the time a batch spends
+ * behind earlier batches and in the transport is not part of it. Together with the average batch size it shows
+ * whether the size or the deadline knob is the one that needs tuning.
+ *
+ * Flushes are counted by {@link FlushReason}. The final flush on close is counted
+ * apart, so it does not pass for a deadline that expired.
+ */
+public class DispatcherMetrics {
+
+    /**
+     * Why a batch was closed
+     */
+    public enum FlushReason {
+        SIZE,
+        DEADLINE,
+        CLOSE
+    }
+
+    private final long startNanos = System.nanoTime();
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder failedMessages = new LongAdder();
+    private final LongAdder sizeFlushes = new LongAdder();
+    private final LongAdder deadlineFlushes = new LongAdder();
+    private final LongAdder closeFlushes = new LongAdder();
+    private final LongAdder flushedMessages = new LongAdder();
+    private final LongAdder totalFlushLatencyNanos = new LongAdder();
+    private final AtomicLong maxFlushLatencyNanos = new AtomicLong();
+
+    /**
+     * A batch was closed and handed to the flusher
+     */
+    void recordFlush(FlushReason reason, int batchSize, long latencyNanos) {
+        switch (reason) {
+            case SIZE -> sizeFlushes.increment();
+            case DEADLINE -> deadlineFlushes.increment();
+            case CLOSE -> closeFlushes.increment();
+        }
+        flushedMessages.add(batchSize);
+        totalFlushLatencyNanos.add(latencyNanos);
+        maxFlushLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    /**
+     * The flusher has sent a batch, or failed to
+     */
+    void recordDelivery(int batchSize, boolean failed) {
+        messages.add(batchSize);
+        if (failed) {
+            failedMessages.add(batchSize);
+        }
+    }
+
+    public Snapshot snapshot() {
+        long flushes = sizeFlushes.sum() + deadlineFlushes.sum() + closeFlushes.sum();
+        long sent = messages.sum();
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        return new Snapshot(
+                sent,
+                failedMessages.sum(),
+                sizeFlushes.sum(),
+                deadlineFlushes.sum(),
+                closeFlushes.sum(),
+                flushes == 0 ? 0 : (double) flushedMessages.sum() / flushes,
+                flushes == 0 ? 0 : totalFlushLatencyNanos.sum() / 1e6 / flushes,
+                TimeUnit.NANOSECONDS.toMillis(maxFlushLatencyNanos.get()),
+                elapsedSeconds == 0 ? 0 : sent / elapsedSeconds);
+    }
+
+    /**
+     * Point-in-time view of the counters
+     */
+    public record Snapshot(long messages,
+                           long failedMessages,
+                           long sizeFlushes,
+                           long deadlineFlushes,
+                           long closeFlushes,
+                           double averageBatchSize,
+                           double averageFlushLatencyMillis,
+                           long maxFlushLatencyMillis,
+                           double messagesPerSecond) {
+    }
+}
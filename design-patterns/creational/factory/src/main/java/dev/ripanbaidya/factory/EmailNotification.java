@@ -1,13 +1,43 @@
 package dev.ripanbaidya.factory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
 /**
  * Email notification implementation
  * Concrete Product of Product (Notification)
+ *
+ * Messages are handed to a {@link NotificationTransport}, e.g. a pooled
+ * {@link SmtpTransport}. Without one they are printed to the console.
  */
 public class EmailNotification implements Notification{
 
+    private final NotificationTransport transport;
+
+    public EmailNotification() {
+        this(new ConsoleTransport("Sending Email: "));
+    }
+
+    public EmailNotification(NotificationTransport transport) {
+        this.transport = transport;
+    }
+
     @Override
     public void send(String message) {
-        System.out.println("Sending Email: " + message);
+        try {
+            transport.deliver(message);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Email delivery failed", e);
+        }
+    }
+
+    @Override
+    public void sendBatch(List<String> messages) {
+        try {
+            transport.deliverAll(messages);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Email delivery failed", e);
+        }
     }
 }
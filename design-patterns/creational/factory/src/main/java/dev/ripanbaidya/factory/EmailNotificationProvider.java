@@ -0,0 +1,17 @@
+package dev.ripanbaidya.factory;
+
+/**
+ * Provider for {@link EmailNotification}
+ */
+public class EmailNotificationProvider implements NotificationProvider {
+
+    @Override
+    public NotificationChannel channel() {
+        return NotificationChannel.EMAIL;
+    }
+
+    @Override
+    public Notification create() {
+        return new EmailNotification();
+    }
+}
@@ -0,0 +1,100 @@
+package dev.ripanbaidya.factory;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decorator that records how long each send takes and whether it succeeded.
+ *
+ * Meters, per channel:
+ * <ul>
+ *     <li>notification.send - Timer tagged with outcome=success|failure. Its count is the
+ *     success/failure counter, and it publishes a percentile histogram so p50/p99 can be
+ *     aggregated across instances in the monitoring backend</li>
+ *     <li>notification.send.batch - the same for sendBatch calls, one sample per batch.
+ *     Kept apart from notification.send so a batch does not show up as one very slow
+ *     message in its percentiles</li>
+ *     <li>notification.batch.size - messages per sendBatch call</li>
+ * </ul>
+ *
+ * The meters are looked up once in the constructor, so recording a send is two
+ * System.nanoTime() calls and an update of pre-allocated histogram buckets: no tag
+ * lookup and no allocation on the hot path.
+ *
+ * Usage:
+ * <pre>
+ *     Notification email = new InstrumentedNotification(
+ *             new EmailNotification(), NotificationChannel.EMAIL, meterRegistry);
+ * </pre>
+ */
+public class InstrumentedNotification implements Notification {
+
+    static final String SEND_TIMER = "notification.send";
+    static final String SEND_BATCH_TIMER = "notification.send.batch";
+
+    private final Notification delegate;
+    private final Timer success;
+    private final Timer failure;
+    private final Timer batchSuccess;
+    private final Timer batchFailure;
+    private final DistributionSummary batchSize;
+
+    public InstrumentedNotification(Notification delegate, NotificationChannel channel, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.success = timer(SEND_TIMER, "Time spent handing notifications to the channel's transport",
+                channel, "success", meterRegistry);
+        this.failure = timer(SEND_TIMER, "Time spent handing notifications to the channel's transport",
+                channel, "failure", meterRegistry);
+        this.batchSuccess = timer(SEND_BATCH_TIMER, "Time spent handing batches to the channel's transport",
+                channel, "success", meterRegistry);
+        this.batchFailure = timer(SEND_BATCH_TIMER, "Time spent handing batches to the channel's transport",
+                channel, "failure", meterRegistry);
+        this.batchSize = DistributionSummary.builder("notification.batch.size")
+                .description("Messages per sendBatch call")
+                .tag("channel", tagValue(channel))
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void send(String message) {
+        long start = System.nanoTime();
+        try {
+            delegate.send(message);
+            success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            failure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    @Override
+    public void sendBatch(List<String> messages) {
+        long start = System.nanoTime();
+        batchSize.record(messages.size());
+        try {
+            delegate.sendBatch(messages);
+            batchSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            batchFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private static Timer timer(String name, String description, NotificationChannel channel, String outcome,
+                               MeterRegistry meterRegistry) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("channel", tagValue(channel))
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    static String tagValue(NotificationChannel channel) {
+        return channel.name().toLowerCase();
+    }
+}
@@ -1,5 +1,7 @@
 package dev.ripanbaidya.factory;
 
+import java.util.List;
+
 /**
  * Product: An interface or abstract class for the objects the factory method creates.
  * Notification is the product in this example.
@@ -10,4 +12,15 @@ public interface Notification {
      * Send notification
      */
     void send(String message);
+
+    /**
+     * Send several notifications at once. Channels whose transport supports batching
+     * should override this to deliver the whole batch in one round-trip, by default
+     * the messages are sent one by one.
+     */
+    default void sendBatch(List<String> messages) {
+        for (String message : messages) {
+            send(message);
+        }
+    }
 }
@@ -0,0 +1,10 @@
+package dev.ripanbaidya.factory;
+
+/**
+ * Channels a notification can be delivered through.
+ * The ordinal doubles as the slot index in {@link NotificationRegistry}.
+ */
+public enum NotificationChannel {
+    EMAIL,
+    PUSH
+}
@@ -1,10 +1,15 @@
 package dev.ripanbaidya.factory;
 
+import java.util.List;
+
 /**
  * Creator: A class that has a factory method for creating objects.
  */
 public abstract class NotificationFactory {
 
+    // Created on first send and reused, notifications are stateless
+    private volatile Notification notification;
+
     /**
      * Factory method
      */
@@ -12,7 +17,23 @@ public abstract class NotificationFactory {
 
     // Common logic using factory method
     public void send(String message) {
-        Notification notification = createNotification();
-        notification.send(message);
+        getNotification().send(message);
+    }
+
+    public void sendBatch(List<String> messages) {
+        getNotification().sendBatch(messages);
+    }
+
+    /**
+     * Product created by the factory method, created once and then reused
+     */
+    protected Notification getNotification() {
+        Notification current = notification;
+        if (current == null) {
+            // A racing thread may create a second instance, which is harmless
+            current = createNotification();
+            notification = current;
+        }
+        return current;
     }
 }
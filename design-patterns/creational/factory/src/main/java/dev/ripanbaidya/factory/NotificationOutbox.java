@@ -0,0 +1,496 @@
+package dev.ripanbaidya.factory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable, append-only journal of outgoing notifications backed by memory-mapped files.
+ *
+ * Every message is appended before it is handed to its channel and acknowledged once
+ * the channel has sent it. If the process dies in between, the message is still in the
+ * journal and {@link #replay(NotificationChannel, RecordHandler)} delivers it again on
+ * restart (at-least-once delivery).
+ *
+ * Layout on disk:
+ * <ul>
+ *     <li>segments named after the global offset of their first byte, e.g.
+ *     outbox-00000000000067108864.log. When a record no longer fits, a new segment is
+ *     started (segment rolling)</li>
+ *     <li>records: [int length][int crc32c][byte channel][message as UTF-8]. A zero length
+ *     marks the end of the data, a bad checksum a torn write that is ignored</li>
+ *     <li>offsets.chk: per-channel checkpoint of the acknowledged offset</li>
+ * </ul>
+ *
+ * How appends are made durable is chosen by the {@link FsyncPolicy}. With GROUP_COMMIT
+ * an appender waits for a background flusher, which forces everything written so far
+ * in one call, so N concurrent appenders share one fsync instead of paying for N.
+ */
+public class NotificationOutbox implements AutoCloseable {
+
+    public enum FsyncPolicy {
+        /**
+         * Leave flushing to the OS. Fastest, survives a process crash but not a power loss.
+         */
+        NONE,
+        /**
+         * Appenders wait for a shared background fsync covering their record
+         */
+        GROUP_COMMIT,
+        /**
+         * Every append forces its own record to disk before returning
+         */
+        EVERY_APPEND
+    }
+
+    /**
+     * Receives replayed records
+     */
+    @FunctionalInterface
+    public interface RecordHandler {
+        void onRecord(long offset, NotificationChannel channel, String message);
+    }
+
+    private static final String SEGMENT_PREFIX = "outbox-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "offsets.chk";
+    private static final int RECORD_HEADER = Integer.BYTES + Integer.BYTES + 1;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final List<Segment> segments = new ArrayList<>();
+    private final MappedByteBuffer checkpoint;
+    private final FileChannel checkpointChannel;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingWrites = lock.newCondition();
+    private final Condition durableAdvanced = lock.newCondition();
+    private final Thread flusher;
+
+    // Guarded by lock
+    private Segment active;
+    private long durableOffset;
+    private int durablePosition;
+    private boolean closed;
+
+    private NotificationOutbox(Path directory, int segmentSize, FsyncPolicy fsyncPolicy) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(NotificationOutbox::isSegment).sorted().toList()) {
+                segments.add(Segment.open(file, baseOffset(file), segmentSize));
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.add(Segment.open(segmentPath(0), 0, segmentSize));
+        }
+        this.active = segments.get(segments.size() - 1);
+        this.durableOffset = active.endOffset();
+        this.durablePosition = active.position;
+
+        this.checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.checkpoint = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                (long) Long.BYTES * NotificationChannel.values().length);
+
+        this.flusher = fsyncPolicy == FsyncPolicy.GROUP_COMMIT
+                ? Thread.ofPlatform().name("outbox-flusher").daemon().start(this::flushLoop)
+                : null;
+    }
+
+    /**
+     * Opens the journal in the directory, recovering existing segments and checkpoints
+     *
+     * @param segmentSize size of each memory-mapped segment file in bytes
+     */
+    public static NotificationOutbox open(Path directory, int segmentSize, FsyncPolicy fsyncPolicy) throws IOException {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("segmentSize must be at least 1 KiB");
+        }
+        return new NotificationOutbox(directory, segmentSize, fsyncPolicy);
+    }
+
+    /**
+     * Appends the message, returning once it is as durable as the fsync policy promises
+     *
+     * @return offset identifying the record, pass it to {@link #acknowledge(NotificationChannel, long)}
+     */
+    public long append(NotificationChannel channel, String message) throws IOException {
+        byte[] payload = message.getBytes(StandardCharsets.UTF_8);
+        int recordSize = RECORD_HEADER + payload.length;
+        if (recordSize + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException("Message of " + payload.length + " bytes does not fit in a segment");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(channel.ordinal());
+        crc.update(payload);
+
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Outbox is closed");
+            }
+            // Keep room for the zero length that terminates the segment
+            if (active.position + recordSize + Integer.BYTES > segmentSize) {
+                roll();
+            }
+            long offset = active.endOffset();
+            MappedByteBuffer buffer = active.buffer;
+            int position = active.position;
+            buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+            buffer.put(position + 2 * Integer.BYTES, (byte) channel.ordinal());
+            buffer.put(position + RECORD_HEADER, payload);
+            // Length last: a record only becomes visible to recovery once it is complete
+            buffer.putInt(position, payload.length + 1);
+            active.position += recordSize;
+            active.lastRecord[channel.ordinal()] = offset;
+            long end = active.endOffset();
+
+            switch (fsyncPolicy) {
+                case NONE -> {
+                }
+                case EVERY_APPEND -> {
+                    buffer.force(position, recordSize);
+                    durableOffset = end;
+                    durablePosition = active.position;
+                }
+                case GROUP_COMMIT -> {
+                    pendingWrites.signal();
+                    while (durableOffset < end && !closed) {
+                        durableAdvanced.awaitUninterruptibly();
+                    }
+                }
+            }
+            return offset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the record at the offset, and every earlier record of the channel, as delivered
+     */
+    public void acknowledge(NotificationChannel channel, long offset) {
+        int index = channel.ordinal() * Long.BYTES;
+        synchronized (checkpoint) {
+            if (offset + 1 > checkpoint.getLong(index)) {
+                checkpoint.putLong(index, offset + 1);
+            }
+        }
+    }
+
+    /**
+     * Offset from which records of the channel have not been acknowledged yet
+     */
+    public long acknowledgedOffset(NotificationChannel channel) {
+        synchronized (checkpoint) {
+            return checkpoint.getLong(channel.ordinal() * Long.BYTES);
+        }
+    }
+
+    /**
+     * Forces the acknowledged offsets to disk
+     */
+    public void checkpoint() {
+        synchronized (checkpoint) {
+            checkpoint.force();
+        }
+    }
+
+    /**
+     * Hands every unacknowledged record of the channel to the handler, oldest first.
+     * Records are not acknowledged by replaying them.
+     *
+     * @return number of records replayed
+     */
+    public int replay(NotificationChannel channel, RecordHandler handler) {
+        long from = acknowledgedOffset(channel);
+        List<Segment> snapshot;
+        int[] limits;
+        lock.lock();
+        try {
+            snapshot = List.copyOf(segments);
+            limits = snapshot.stream().mapToInt(segment -> segment.position).toArray();
+        } finally {
+            lock.unlock();
+        }
+
+        int replayed = 0;
+        for (int i = 0; i < snapshot.size(); i++) {
+            Segment segment = snapshot.get(i);
+            if (segment.baseOffset + limits[i] <= from) {
+                continue;
+            }
+            int position = 0;
+            while (position < limits[i]) {
+                int length = segment.buffer.getInt(position);
+                long offset = segment.baseOffset + position;
+                if (offset >= from && segment.buffer.get(position + 2 * Integer.BYTES) == channel.ordinal()) {
+                    byte[] payload = new byte[length - 1];
+                    segment.buffer.get(position + RECORD_HEADER, payload);
+                    handler.onRecord(offset, channel, new String(payload, StandardCharsets.UTF_8));
+                    replayed++;
+                }
+                position += RECORD_HEADER + length - 1;
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Sends every unacknowledged record through the registry and acknowledges it.
+     * Channels without a registered provider are left pending.
+     * Meant to be called once after {@link #open(Path, int, FsyncPolicy)} to finish the
+     * deliveries a previous run did not get to.
+     *
+     * @return number of records delivered
+     */
+    public int redeliver(NotificationRegistry registry) {
+        int delivered = 0;
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            if (!registry.isRegistered(channel)) {
+                continue;
+            }
+            Notification notification = registry.get(channel);
+            delivered += replay(channel, (offset, ch, message) -> {
+                notification.send(message);
+                acknowledge(ch, offset);
+            });
+        }
+        checkpoint();
+        return delivered;
+    }
+
+    /**
+     * Deletes the oldest segments whose records have all been acknowledged. Only the
+     * channels with records in a segment are considered, so a channel without traffic
+     * does not hold on to every segment.
+     *
+     * @return number of segments deleted
+     */
+    public int deleteAcknowledgedSegments() throws IOException {
+        long[] acknowledged = new long[NotificationChannel.values().length];
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            acknowledged[channel.ordinal()] = acknowledgedOffset(channel);
+        }
+        // Make sure a deleted segment can never be needed again after a restart
+        checkpoint();
+
+        int deleted = 0;
+        lock.lock();
+        try {
+            while (segments.size() > 1 && segments.get(0).isAcknowledged(acknowledged)) {
+                Segment segment = segments.remove(0);
+                segment.close();
+                Files.deleteIfExists(segment.path);
+                deleted++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return deleted;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (fsyncPolicy != FsyncPolicy.NONE) {
+                active.buffer.force();
+            }
+            pendingWrites.signalAll();
+            durableAdvanced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        checkpoint();
+        checkpointChannel.close();
+        for (Segment segment : segments) {
+            segment.close();
+        }
+    }
+
+    /**
+     * Seals the active segment and starts a new one. Called with the lock held.
+     */
+    private void roll() throws IOException {
+        if (fsyncPolicy != FsyncPolicy.NONE) {
+            active.buffer.force();
+            durableOffset = active.endOffset();
+        }
+        Segment next = Segment.open(segmentPath(active.endOffset()), active.endOffset(), segmentSize);
+        segments.add(next);
+        active = next;
+        durablePosition = 0;
+    }
+
+    /**
+     * Group commit: force whatever has been written since the last round in one call,
+     * then release every appender whose record it covered.
+     */
+    private void flushLoop() {
+        while (true) {
+            Segment segment;
+            int from;
+            int to;
+            long target;
+            lock.lock();
+            try {
+                while (!closed && active.endOffset() == durableOffset) {
+                    pendingWrites.awaitUninterruptibly();
+                }
+                if (closed) {
+                    return;
+                }
+                segment = active;
+                from = durablePosition;
+                to = segment.position;
+                target = segment.endOffset();
+            } finally {
+                lock.unlock();
+            }
+
+            // Appenders keep writing while the force runs, they join the next round
+            segment.buffer.force(from, to - from);
+
+            lock.lock();
+            try {
+                durableOffset = Math.max(durableOffset, target);
+                if (segment == active) {
+                    durablePosition = Math.max(durablePosition, to);
+                }
+                durableAdvanced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private Path segmentPath(long baseOffset) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%020d", baseOffset) + SEGMENT_SUFFIX);
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long baseOffset(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * One memory-mapped segment file
+     */
+    private static final class Segment {
+        final Path path;
+        final long baseOffset;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        // Offset of the last record of each channel in this segment, -1 if it has none
+        final long[] lastRecord = new long[NotificationChannel.values().length];
+        int position;
+
+        private Segment(Path path, long baseOffset, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.baseOffset = baseOffset;
+            this.channel = channel;
+            this.buffer = buffer;
+            Arrays.fill(lastRecord, -1);
+        }
+
+        /**
+         * Maps the file and finds the end of its valid records
+         */
+        static Segment open(Path path, long baseOffset, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                Segment segment = new Segment(path, baseOffset, channel,
+                        channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size())));
+                segment.recover();
+                return segment;
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Scans records until the end marker or the first torn one
+         */
+        private void recover() {
+            int limit = buffer.capacity();
+            int pos = 0;
+            while (pos + RECORD_HEADER <= limit) {
+                int length = buffer.getInt(pos);
+                if (length <= 0 || pos + RECORD_HEADER + length - 1 > limit) {
+                    break;
+                }
+                CRC32C crc = new CRC32C();
+                crc.update(buffer.get(pos + 2 * Integer.BYTES));
+                crc.update(buffer.slice(pos + RECORD_HEADER, length - 1));
+                if ((int) crc.getValue() != buffer.getInt(pos + Integer.BYTES)) {
+                    break;
+                }
+                int channel = buffer.get(pos + 2 * Integer.BYTES);
+                if (channel >= 0 && channel < lastRecord.length) {
+                    lastRecord[channel] = baseOffset + pos;
+                }
+                pos += RECORD_HEADER + length - 1;
+            }
+            // Clear a torn record so it cannot be mistaken for data later
+            if (pos + Integer.BYTES <= limit) {
+                buffer.putInt(pos, 0);
+            }
+            position = pos;
+        }
+
+        long endOffset() {
+            return baseOffset + position;
+        }
+
+        /**
+         * Whether every record in the segment is below its channel's acknowledged offset
+         */
+        boolean isAcknowledged(long[] acknowledged) {
+            for (int channel = 0; channel < lastRecord.length; channel++) {
+                if (lastRecord[channel] >= acknowledged[channel]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package dev.ripanbaidya.factory;
+
+/**
+ * Service provider interface for notification channels.
+ *
+ * Implementations are discovered through {@link java.util.ServiceLoader}, so a new
+ * channel is added by implementing this interface and listing the class in
+ * META-INF/services/dev.ripanbaidya.factory.NotificationProvider.
+ */
+public interface NotificationProvider {
+
+    /**
+     * Channel served by this provider
+     */
+    NotificationChannel channel();
+
+    /**
+     * Creates the channel's notification. Called at most once per registry,
+     * so implementations must be stateless and thread-safe.
+     */
+    Notification create();
+}
@@ -0,0 +1,64 @@
+package dev.ripanbaidya.factory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes the queue depth of a dispatcher as the notification.queue.depth gauge.
+ *
+ * Gauges are sampled when the registry is scraped, so the dispatchers themselves do no
+ * extra work per message. The gauges only hold a weak reference to the dispatcher and
+ * do not keep a closed one alive.
+ *
+ * Usage:
+ * <pre>
+ *     NotificationQueueMetrics.of(asyncDispatcher).bindTo(meterRegistry);
+ * </pre>
+ */
+public final class NotificationQueueMetrics implements MeterBinder {
+
+    static final String QUEUE_DEPTH = "notification.queue.depth";
+
+    private final AsyncNotificationDispatcher asyncDispatcher;
+    private final RingBufferNotificationDispatcher ringDispatcher;
+
+    private NotificationQueueMetrics(AsyncNotificationDispatcher asyncDispatcher,
+                                     RingBufferNotificationDispatcher ringDispatcher) {
+        this.asyncDispatcher = asyncDispatcher;
+        this.ringDispatcher = ringDispatcher;
+    }
+
+    /**
+     * One gauge per channel, tagged with the channel
+     */
+    public static NotificationQueueMetrics of(AsyncNotificationDispatcher dispatcher) {
+        return new NotificationQueueMetrics(dispatcher, null);
+    }
+
+    /**
+     * One gauge for the shared ring buffer, tagged channel=all
+     */
+    public static NotificationQueueMetrics of(RingBufferNotificationDispatcher dispatcher) {
+        return new NotificationQueueMetrics(null, dispatcher);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (asyncDispatcher != null) {
+            for (NotificationChannel channel : NotificationChannel.values()) {
+                Gauge.builder(QUEUE_DEPTH, asyncDispatcher, dispatcher -> dispatcher.queueDepth(channel))
+                        .description("Notifications waiting to be delivered")
+                        .tag("dispatcher", "async")
+                        .tag("channel", InstrumentedNotification.tagValue(channel))
+                        .register(registry);
+            }
+        } else {
+            Gauge.builder(QUEUE_DEPTH, ringDispatcher, RingBufferNotificationDispatcher::queueDepth)
+                    .description("Notifications waiting to be delivered")
+                    .tag("dispatcher", "ring")
+                    .tag("channel", "all")
+                    .register(registry);
+        }
+    }
+}
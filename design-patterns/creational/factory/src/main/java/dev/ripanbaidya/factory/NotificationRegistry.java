@@ -0,0 +1,79 @@
+package dev.ripanbaidya.factory;
+
+import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Registry holding one shared {@link Notification} per {@link NotificationChannel}.
+ *
+ * Notifications are stateless, so there is no reason to create a new one for every
+ * message. Providers are discovered once, when the registry is created, and each
+ * channel's notification is created lazily on its first use. Lookups index an array
+ * by the channel's ordinal instead of switching on a string.
+ *
+ * Usage:
+ * <pre>
+ *     NotificationRegistry.getDefault().send(NotificationChannel.EMAIL, "Welcome");
+ * </pre>
+ */
+public class NotificationRegistry {
+
+    private final NotificationProvider[] providers = new NotificationProvider[NotificationChannel.values().length];
+    private final AtomicReferenceArray<Notification> instances =
+            new AtomicReferenceArray<>(NotificationChannel.values().length);
+
+    /**
+     * Registry with the providers found on the classpath
+     */
+    public NotificationRegistry() {
+        this(ServiceLoader.load(NotificationProvider.class));
+    }
+
+    public NotificationRegistry(Iterable<? extends NotificationProvider> providers) {
+        for (NotificationProvider provider : providers) {
+            int slot = provider.channel().ordinal();
+            if (this.providers[slot] != null) {
+                throw new IllegalStateException("More than one provider for channel " + provider.channel());
+            }
+            this.providers[slot] = provider;
+        }
+    }
+
+    /**
+     * Lazily initialized shared registry (Bill Pugh holder idiom)
+     */
+    private static class Holder {
+        private static final NotificationRegistry INSTANCE = new NotificationRegistry();
+    }
+
+    public static NotificationRegistry getDefault() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Shared notification for the channel, created on first use
+     */
+    public Notification get(NotificationChannel channel) {
+        int slot = channel.ordinal();
+        Notification notification = instances.get(slot);
+        if (notification != null) {
+            return notification;
+        }
+        NotificationProvider provider = providers[slot];
+        if (provider == null) {
+            throw new IllegalArgumentException("No provider registered for channel " + channel);
+        }
+        // Two threads may race to create it, both get the instance that won
+        Notification created = provider.create();
+        Notification existing = instances.compareAndExchange(slot, null, created);
+        return existing != null ? existing : created;
+    }
+
+    public boolean isRegistered(NotificationChannel channel) {
+        return providers[channel.ordinal()] != null;
+    }
+
+    public void send(NotificationChannel channel, String message) {
+        get(channel).send(message);
+    }
+}
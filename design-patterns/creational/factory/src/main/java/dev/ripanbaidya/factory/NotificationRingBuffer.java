@@ -0,0 +1,209 @@
+package dev.ripanbaidya.factory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Lock-free, bounded, multi-producer/single-consumer ring buffer of notification messages.
+ *
+ * All slots are allocated up front and reused, so enqueueing a message allocates
+ * nothing: a producer claims a slot with a single CAS on the tail, writes the channel
+ * and message into it, and publishes it by bumping the slot's sequence. Each slot's
+ * sequence tells whether it is free for the producer of a given lap or ready for the
+ * consumer (D. Vyukov's bounded queue algorithm).
+ *
+ * The producer and consumer cursors are padded to sit on their own cache lines, so
+ * producers CASing the tail do not keep invalidating the line the consumer reads.
+ */
+public class NotificationRingBuffer {
+
+    /**
+     * Receives messages on the consumer thread
+     */
+    @FunctionalInterface
+    public interface MessageHandler {
+        void onMessage(NotificationChannel channel, String message);
+    }
+
+    private static final VarHandle TAIL;
+    private static final VarHandle HEAD;
+    private static final VarHandle SEQUENCE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TAIL = lookup.findVarHandle(TailCursor.class, "tail", long.class);
+            HEAD = lookup.findVarHandle(HeadCursor.class, "head", long.class);
+            SEQUENCE = lookup.findVarHandle(Slot.class, "sequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final PaddedCursors cursors = new PaddedCursors();
+    private volatile boolean closed;
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     */
+    public NotificationRingBuffer(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 2 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(i);
+        }
+        this.mask = size - 1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Enqueues the message if there is a free slot. Safe to call from any thread.
+     *
+     * @return false if the buffer is full
+     */
+    public boolean offer(NotificationChannel channel, String message) {
+        while (true) {
+            long tail = (long) TAIL.getVolatile(cursors);
+            Slot slot = slots[(int) tail & mask];
+            long sequence = (long) SEQUENCE.getAcquire(slot);
+            if (sequence == tail) {
+                if (TAIL.compareAndSet(cursors, tail, tail + 1)) {
+                    slot.channel = channel;
+                    slot.message = message;
+                    SEQUENCE.setRelease(slot, tail + 1);
+                    return true;
+                }
+            } else if (sequence < tail) {
+                // The consumer has not freed this slot from the previous lap yet
+                return false;
+            }
+            // Otherwise another producer claimed the slot first, retry with the new tail
+        }
+    }
+
+    /**
+     * Enqueues the message, waiting with the buffer's {@link WaitStrategy} while it is full
+     *
+     * @throws IllegalStateException if the buffer is closed while waiting for a free slot
+     */
+    public void put(NotificationChannel channel, String message) {
+        while (!offer(channel, message)) {
+            if (closed) {
+                // Nobody may be draining anymore, the slot might never free up
+                throw new IllegalStateException("Ring buffer is closed");
+            }
+            waitStrategy.idle();
+        }
+    }
+
+    /**
+     * Makes producers waiting in {@link #put} give up. Messages already in the buffer
+     * can still be drained.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Hands up to {@code limit} messages to the handler. Must only be called from the
+     * single consumer thread.
+     *
+     * @return number of messages consumed, 0 if the buffer was empty
+     */
+    public int drain(MessageHandler handler, int limit) {
+        long head = cursors.head;
+        int consumed = 0;
+        while (consumed < limit) {
+            Slot slot = slots[(int) head & mask];
+            if ((long) SEQUENCE.getAcquire(slot) != head + 1) {
+                break;
+            }
+            NotificationChannel channel = slot.channel;
+            String message = slot.message;
+            // Drop references before releasing the slot so messages can be collected
+            slot.channel = null;
+            slot.message = null;
+            SEQUENCE.setRelease(slot, head + slots.length);
+            head++;
+            consumed++;
+            HEAD.setRelease(cursors, head);
+            handler.onMessage(channel, message);
+        }
+        return consumed;
+    }
+
+    /**
+     * Waits with the buffer's {@link WaitStrategy} until at least one message is available,
+     * then drains like {@link #drain(MessageHandler, int)}. Consumer thread only.
+     */
+    public int take(MessageHandler handler, int limit) {
+        int consumed;
+        while ((consumed = drain(handler, limit)) == 0) {
+            if (Thread.currentThread().isInterrupted()) {
+                return 0;
+            }
+            waitStrategy.idle();
+        }
+        return consumed;
+    }
+
+    /**
+     * Approximate number of queued messages
+     */
+    public int size() {
+        long head = (long) HEAD.getVolatile(cursors);
+        long tail = (long) TAIL.getVolatile(cursors);
+        return (int) Math.max(0, Math.min(slots.length, tail - head));
+    }
+
+    private static final class Slot {
+        private long sequence;
+        private NotificationChannel channel;
+        private String message;
+
+        Slot(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * The two hot cursors, each surrounded by 56 bytes of padding so they never share a
+     * 64-byte cache line with each other or with neighbouring objects. The JVM keeps
+     * field declaration order within a class hierarchy level but may reorder fields in
+     * a single class, hence padding through inheritance.
+     */
+    @SuppressWarnings("unused")
+    private static class LeftPadding {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    @SuppressWarnings("unused")
+    private static class TailCursor extends LeftPadding {
+        volatile long tail;
+    }
+
+    @SuppressWarnings("unused")
+    private static class MiddlePadding extends TailCursor {
+        long p11, p12, p13, p14, p15, p16, p17;
+    }
+
+    @SuppressWarnings("unused")
+    private static class HeadCursor extends MiddlePadding {
+        volatile long head;
+    }
+
+    @SuppressWarnings("unused")
+    private static final class PaddedCursors extends HeadCursor {
+        long p21, p22, p23, p24, p25, p26, p27;
+    }
+}
@@ -0,0 +1,33 @@
+package dev.ripanbaidya.factory;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Wire-level delivery used by a {@link Notification}.
+ *
+ * The notification decides what a channel's messages look like, the transport how they
+ * leave the process: printed to the console, sent over SMTP, and so on. Transports are
+ * shared by every thread sending on the channel, so implementations must be thread-safe.
+ */
+public interface NotificationTransport extends AutoCloseable {
+
+    void deliver(String message) throws IOException;
+
+    /**
+     * Delivers several messages. Transports that can reuse a connection or round-trip
+     * for the whole batch should override this, by default messages go one by one.
+     */
+    default void deliverAll(List<String> messages) throws IOException {
+        for (String message : messages) {
+            deliver(message);
+        }
+    }
+
+    /**
+     * Releases connections held by the transport
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
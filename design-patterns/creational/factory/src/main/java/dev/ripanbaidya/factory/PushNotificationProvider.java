@@ -0,0 +1,17 @@
+package dev.ripanbaidya.factory;
+
+/**
+ * Provider for {@link PushNotification}
+ */
+public class PushNotificationProvider implements NotificationProvider {
+
+    @Override
+    public NotificationChannel channel() {
+        return NotificationChannel.PUSH;
+    }
+
+    @Override
+    public Notification create() {
+        return new PushNotification();
+    }
+}
@@ -0,0 +1,139 @@
+package dev.ripanbaidya.factory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers notifications queued on a {@link NotificationRingBuffer}.
+ *
+ * Request threads enqueue with {@link #send(NotificationChannel, String)}, which never
+ * allocates and never takes a lock. A single consumer thread drains the buffer in
+ * batches and hands each message to the channel's shared {@link Notification}.
+ *
+ * Every message accepted before {@link #close()} is delivered: a send counts itself in
+ * flight before it checks for close, and close waits for the count to drop to zero
+ * before the consumer's final drain. A send waiting for room when close starts is
+ * rejected instead of waiting for a consumer that is about to stop.
+ *
+ * Sends happen long after {@code send} has returned, so a message that fails is handed
+ * to the {@link FailureHandler}, on the consumer thread, to be retried or recorded.
+ */
+public class RingBufferNotificationDispatcher implements AutoCloseable {
+
+    /**
+     * Receives the messages that could not be sent, on the consumer thread. It must not
+     * block for long or throw, the consumer delivers nothing else while it runs.
+     */
+    @FunctionalInterface
+    public interface FailureHandler {
+        void onFailure(NotificationChannel channel, String message, RuntimeException failure);
+    }
+
+    private static final int DRAIN_BATCH = 256;
+
+    private final NotificationRegistry registry;
+    private final FailureHandler failureHandler;
+    private final NotificationRingBuffer buffer;
+    private final Thread consumer;
+    // Sends that passed the closed check and may still publish
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean closed;
+    private volatile boolean running = true;
+
+    /**
+     * A dispatcher that logs failed messages to System.err
+     */
+    public RingBufferNotificationDispatcher(NotificationRegistry registry, int capacity, WaitStrategy waitStrategy) {
+        this(registry, capacity, waitStrategy, (channel, message, failure) -> System.err.println(
+                "RingBufferNotificationDispatcher: " + channel + " delivery failed: " + failure.getMessage()));
+    }
+
+    public RingBufferNotificationDispatcher(NotificationRegistry registry, int capacity, WaitStrategy waitStrategy,
+                                            FailureHandler failureHandler) {
+        this.registry = registry;
+        this.failureHandler = failureHandler;
+        this.buffer = new NotificationRingBuffer(capacity, waitStrategy);
+        // A platform thread: spinning wait strategies would pin a virtual thread's carrier anyway
+        this.consumer = Thread.ofPlatform().name("notification-ring-consumer").daemon().start(this::consume);
+    }
+
+    /**
+     * Enqueues the message, waiting while the buffer is full
+     *
+     * @throws IllegalStateException if the dispatcher is closed, also while waiting
+     */
+    public void send(NotificationChannel channel, String message) {
+        inFlight.incrementAndGet();
+        try {
+            checkOpen();
+            buffer.put(channel, message);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Enqueues the message if there is room
+     *
+     * @return false if the buffer is full
+     */
+    public boolean trySend(NotificationChannel channel, String message) {
+        inFlight.incrementAndGet();
+        try {
+            checkOpen();
+            return buffer.offer(channel, message);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public int queueDepth() {
+        return buffer.size();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Dispatcher is closed");
+        }
+    }
+
+    private void consume() {
+        NotificationRingBuffer.MessageHandler handler = this::deliver;
+        while (running) {
+            buffer.take(handler, DRAIN_BATCH);
+        }
+        // close() interrupts the wait, clear the flag before delivering the rest
+        Thread.interrupted();
+        // Deliver whatever was enqueued before close
+        while (buffer.drain(handler, DRAIN_BATCH) > 0) {
+            // keep draining
+        }
+    }
+
+    private void deliver(NotificationChannel channel, String message) {
+        try {
+            registry.get(channel).send(message);
+        } catch (RuntimeException e) {
+            failureHandler.onFailure(channel, message, e);
+        }
+    }
+
+    /**
+     * Stops accepting messages and waits for the queued ones to be delivered
+     */
+    @Override
+    public void close() {
+        closed = true;
+        buffer.close();
+        // A send either saw closed, or is counted here and finishes before the final drain
+        while (inFlight.get() > 0) {
+            Thread.onSpinWait();
+        }
+        running = false;
+        consumer.interrupt();
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package dev.ripanbaidya.factory;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Bloom filter that forgets: keys are remembered for a time window, after which they
+ * age out, so the filter never fills up however many keys pass through it.
+ *
+ * The filter keeps a few generations of bits. New keys go into the current generation
+ * and lookups check all of them. When the window elapses, or the current generation has
+ * taken its share of insertions, the oldest generation is cleared and becomes the new
+ * current one. Memory is fixed at construction: generations * bits / 8 bytes.
+ *
+ * Not thread-safe, callers synchronize.
+ */
+final class RotatingBloomFilter {
+
+    private final long[][] generations;
+    private final int mask;
+    private final int hashes;
+    private final int insertionsPerGeneration;
+    private final long rotationNanos;
+    private final LongSupplier clock;
+
+    private int current;
+    private int insertions;
+    private long rotateAt;
+
+    /**
+     * @param expectedInsertions keys inserted per generation at the target false positive rate
+     * @param generations        number of generations, at least 2
+     * @param rotationNanos      age of a generation before it is recycled
+     */
+    RotatingBloomFilter(int expectedInsertions, double falsePositiveRate, int generations,
+                        long rotationNanos, LongSupplier clock) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1 || generations < 2) {
+            throw new IllegalArgumentException("Invalid bloom filter parameters");
+        }
+        // Optimal size m = -n ln p / (ln 2)^2, rounded up to a power of two so a mask can replace modulo
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int bits = (int) Math.min(1L << 30, Math.max(64, Long.highestOneBit(optimalBits - 1) << 1));
+        this.mask = bits - 1;
+        // Optimal number of hash functions k = m / n ln 2, for the unrounded m
+        this.hashes = Math.max(1, (int) Math.round((double) optimalBits / expectedInsertions * Math.log(2)));
+        this.generations = new long[generations][bits >>> 6];
+        this.insertionsPerGeneration = expectedInsertions;
+        this.rotationNanos = rotationNanos;
+        this.clock = clock;
+        this.rotateAt = clock.getAsLong() + rotationNanos;
+    }
+
+    boolean mightContain(CharSequence key) {
+        rotateIfDue();
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (long[] generation : generations) {
+            if (contains(generation, h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void put(CharSequence key) {
+        rotateIfDue();
+        if (insertions >= insertionsPerGeneration) {
+            rotate();
+        }
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long[] generation = generations[current];
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & mask;
+            generation[bit >>> 6] |= 1L << bit;
+        }
+        insertions++;
+    }
+
+    long memoryBytes() {
+        return (long) generations.length * generations[0].length * Long.BYTES;
+    }
+
+    int hashFunctions() {
+        return hashes;
+    }
+
+    private boolean contains(long[] generation, int h1, int h2) {
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((generation[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rotateIfDue() {
+        long now = clock.getAsLong();
+        if (now - rotateAt >= 0) {
+            rotate();
+            rotateAt = now + rotationNanos;
+        }
+    }
+
+    private void rotate() {
+        current = (current + 1) % generations.length;
+        Arrays.fill(generations[current], 0L);
+        insertions = 0;
+    }
+
+    /**
+     * 64-bit FNV-1a over the chars, finished with the murmur3 mixer so both halves can
+     * serve as independent hashes for double hashing. Works on the chars in place, no
+     * byte[] is created for the key.
+     */
+    private static long hash(CharSequence key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0, n = key.length(); i < n; i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
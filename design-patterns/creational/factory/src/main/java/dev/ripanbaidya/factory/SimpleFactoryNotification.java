@@ -5,13 +5,22 @@ package dev.ripanbaidya.factory;
  */
 public class SimpleFactoryNotification {
 
+    /**
+     * Returns the shared notification for the type. Notifications are stateless, so
+     * the instances are cached by {@link NotificationRegistry} rather than created
+     * per call. New types are added by registering a {@link NotificationProvider}.
+     */
     public static Notification createNotification(String type) {
-        return switch (type) {
-            case "EMAIL" -> new EmailNotification();
-            case "PUSH" -> new PushNotification();
-            // More notification types can be added here
-            // ...
-            default -> throw new IllegalArgumentException("Invalid notification type");
-        };
+        NotificationChannel channel;
+        try {
+            channel = NotificationChannel.valueOf(type);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid notification type");
+        }
+        return createNotification(channel);
+    }
+
+    public static Notification createNotification(NotificationChannel channel) {
+        return NotificationRegistry.getDefault().get(channel);
     }
 }
@@ -0,0 +1,531 @@
+package dev.ripanbaidya.factory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SMTP transport that keeps authenticated sessions open and reuses them.
+ *
+ * Opening a session costs several round-trips (greeting, EHLO, AUTH) before the first
+ * message, which dominates the latency of a single email. Sessions are therefore pooled:
+ * at most {@code maxConnections} are open at a time, idle ones are reused most recently
+ * used first, and a session is retired after {@code maxMessagesPerSession} messages.
+ *
+ * When the server advertises PIPELINING (RFC 2920) the envelope of a message
+ * (MAIL FROM, RCPT TO, DATA) goes out in one write, and in a batch the end of one
+ * message is pipelined with the envelope of the next, so every message after the first
+ * costs a single round-trip.
+ *
+ * A batch that fails part way throws a {@link PartialDeliveryException} saying how many
+ * messages at its start went out, so the caller can resend only the rest.
+ *
+ * Usage:
+ * <pre>
+ *     SmtpTransport smtp = SmtpTransport.builder("smtp.example.com", 587)
+ *             .credentials("user", "secret")
+ *             .from("noreply@example.com")
+ *             .to("ops@example.com")
+ *             .build();
+ *     Notification email = new EmailNotification(smtp);
+ * </pre>
+ *
+ * TLS (STARTTLS) is out of scope for this example, credentials go over the wire as is.
+ */
+public class SmtpTransport implements NotificationTransport {
+
+    private final InetSocketAddress address;
+    private final String username;
+    private final String password;
+    private final String from;
+    private final List<String> recipients;
+    private final String headers;
+    private final int maxMessagesPerSession;
+    private final int timeoutMillis;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<Session> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicLong sessionsOpened = new AtomicLong();
+    private volatile boolean closed;
+
+    private SmtpTransport(Builder builder) {
+        this.address = new InetSocketAddress(builder.host, builder.port);
+        this.username = builder.username;
+        this.password = builder.password;
+        this.from = Objects.requireNonNull(builder.from, "from");
+        this.recipients = List.copyOf(builder.recipients);
+        this.headers = "From: <" + from + ">\r\n"
+                + "To: <" + String.join(">, <", recipients) + ">\r\n"
+                + "Subject: " + builder.subject + "\r\n"
+                + "Content-Type: text/plain; charset=UTF-8\r\n"
+                + "\r\n";
+        this.maxMessagesPerSession = builder.maxMessagesPerSession;
+        this.timeoutMillis = (int) builder.timeout.toMillis();
+        this.permits = new Semaphore(builder.maxConnections, true);
+        if (recipients.isEmpty()) {
+            throw new IllegalArgumentException("At least one recipient is required");
+        }
+    }
+
+    public static Builder builder(String host, int port) {
+        return new Builder(host, port);
+    }
+
+    @Override
+    public void deliver(String message) throws IOException {
+        deliverAll(List.of(message));
+    }
+
+    /**
+     * Sends the messages on as few sessions as possible, in order
+     *
+     * @throws PartialDeliveryException if some messages were delivered before the failure
+     */
+    @Override
+    public void deliverAll(List<String> messages) throws IOException {
+        int next = 0;
+        while (next < messages.size()) {
+            Session session = null;
+            try {
+                session = acquire(false);
+                try {
+                    next += send(session, messages, next);
+                } catch (IOException e) {
+                    // An idle session may have been dropped by the server, retry once on a fresh
+                    // one. Not once message content went out: the server may have queued it and
+                    // died before its reply, and a resend would deliver it twice.
+                    if (!session.reused || session.contentWritten || e instanceof SmtpReplyException) {
+                        throw e;
+                    }
+                    session = acquire(true);
+                    next += send(session, messages, next);
+                }
+            } catch (IOException e) {
+                // A failed session is aborted, not pooled, so its count is still ours to read
+                int delivered = next + (session == null ? 0 : session.sent);
+                if (delivered == 0) {
+                    throw e;
+                }
+                throw new PartialDeliveryException(delivered, messages.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Number of sessions opened so far
+     */
+    public long sessionsOpened() {
+        return sessionsOpened.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Session session;
+        while ((session = idle.pollFirst()) != null) {
+            session.quit();
+        }
+    }
+
+    private Session acquire(boolean fresh) throws IOException {
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SocketTimeoutException("Timed out waiting for an SMTP session to " + address);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for an SMTP session", e);
+        }
+        try {
+            if (closed) {
+                throw new IOException("SMTP transport is closed");
+            }
+            Session session;
+            while (!fresh && (session = idle.pollFirst()) != null) {
+                if (!session.socket.isClosed()) {
+                    session.reused = true;
+                    session.sent = 0;
+                    session.contentWritten = false;
+                    return session;
+                }
+            }
+            return open();
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Sends messages starting at {@code start} until the batch or the session's budget is
+     * exhausted, then releases the session.
+     *
+     * @return number of messages sent
+     */
+    private int send(Session session, List<String> messages, int start) throws IOException {
+        boolean reusable = false;
+        try {
+            int count = Math.min(messages.size() - start, maxMessagesPerSession - session.total);
+            if (session.pipelining) {
+                sendPipelined(session, messages.subList(start, start + count));
+            } else {
+                for (String message : messages.subList(start, start + count)) {
+                    sendSequential(session, message);
+                }
+            }
+            reusable = session.total < maxMessagesPerSession;
+            return count;
+        } finally {
+            release(session, reusable);
+        }
+    }
+
+    private void sendSequential(Session session, String message) throws IOException {
+        session.command("MAIL FROM:<" + from + ">", 250);
+        for (String recipient : recipients) {
+            session.command("RCPT TO:<" + recipient + ">", 250);
+        }
+        session.command("DATA", 354);
+        session.writeContent(content(message));
+        session.flush();
+        session.expect(250, "end of data");
+        session.sent++;
+        session.total++;
+    }
+
+    /**
+     * Envelope of the first message in one write, then each message's content pipelined
+     * with the next envelope: one round-trip per message.
+     */
+    private void sendPipelined(Session session, List<String> messages) throws IOException {
+        writeEnvelope(session);
+        session.flush();
+        readEnvelopeReplies(session);
+        for (int i = 0; i < messages.size(); i++) {
+            session.writeContent(content(messages.get(i)));
+            boolean more = i + 1 < messages.size();
+            if (more) {
+                writeEnvelope(session);
+            }
+            session.flush();
+            session.expect(250, "end of data");
+            session.sent++;
+            session.total++;
+            if (more) {
+                readEnvelopeReplies(session);
+            }
+        }
+    }
+
+    private void writeEnvelope(Session session) throws IOException {
+        session.write("MAIL FROM:<" + from + ">");
+        for (String recipient : recipients) {
+            session.write("RCPT TO:<" + recipient + ">");
+        }
+        session.write("DATA");
+    }
+
+    private void readEnvelopeReplies(Session session) throws IOException {
+        session.expect(250, "MAIL FROM");
+        for (String recipient : recipients) {
+            session.expect(250, "RCPT TO " + recipient);
+        }
+        session.expect(354, "DATA");
+    }
+
+    private String content(String message) {
+        return headers + message;
+    }
+
+    private void release(Session session, boolean reusable) {
+        if (reusable && !closed) {
+            idle.offerFirst(session);
+        } else if (reusable || session.total >= maxMessagesPerSession) {
+            session.quit();
+        } else {
+            session.abort();
+        }
+        permits.release();
+    }
+
+    private Session open() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(address, timeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            Session session = new Session(socket);
+            session.expect(220, "greeting");
+            List<String> capabilities = session.command("EHLO " + localName(socket), 250);
+            session.pipelining = capabilities.stream().anyMatch(line -> line.equalsIgnoreCase("PIPELINING"));
+            if (username != null) {
+                String token = Base64.getEncoder().encodeToString(
+                        ("\0" + username + "\0" + password).getBytes(StandardCharsets.UTF_8));
+                session.command("AUTH PLAIN " + token, 235);
+            }
+            sessionsOpened.incrementAndGet();
+            return session;
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private static String localName(Socket socket) {
+        return "[" + socket.getLocalAddress().getHostAddress() + "]";
+    }
+
+    /**
+     * Reply with an unexpected status code. Unlike a broken connection it is the
+     * server's final answer, so the message is not retried on another session.
+     */
+    static final class SmtpReplyException extends IOException {
+        SmtpReplyException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * A batch failed after its first {@link #delivered()} messages went out. The message
+     * after them may or may not have reached the server, the rest did not.
+     */
+    public static final class PartialDeliveryException extends IOException {
+        private final int delivered;
+
+        PartialDeliveryException(int delivered, int batchSize, IOException cause) {
+            super("Delivered " + delivered + " of " + batchSize + " messages: " + cause.getMessage(), cause);
+            this.delivered = delivered;
+        }
+
+        public int delivered() {
+            return delivered;
+        }
+    }
+
+    /**
+     * One authenticated SMTP connection
+     */
+    private static final class Session {
+        private static final int MAX_LINE_LENGTH = 4096;
+
+        final Socket socket;
+        final InputStream in;
+        final OutputStream out;
+        boolean pipelining;
+        boolean reused;
+        // Messages sent since the session was last acquired, and over its lifetime
+        int sent;
+        int total;
+        // Whether message content was written since the session was last acquired
+        boolean contentWritten;
+
+        Session(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        /**
+         * Sends a command and waits for its reply
+         *
+         * @return text of every reply line, without the status code
+         */
+        List<String> command(String command, int expected) throws IOException {
+            write(command);
+            flush();
+            return expect(expected, command.startsWith("AUTH") ? "AUTH" : command);
+        }
+
+        void write(String line) throws IOException {
+            out.write((line + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Writes the message content with dot-stuffing and the terminating "."
+         */
+        void writeContent(String content) throws IOException {
+            StringBuilder data = new StringBuilder(content.length() + 16);
+            for (String line : content.split("\r\n|\n|\r", -1)) {
+                if (line.startsWith(".")) {
+                    data.append('.');
+                }
+                data.append(line).append("\r\n");
+            }
+            data.append(".\r\n");
+            contentWritten = true;
+            out.write(data.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+
+        /**
+         * Reads a possibly multi-line reply ("250-..." lines ending with "250 ...")
+         */
+        List<String> expect(int expected, String context) throws IOException {
+            List<String> lines = new ArrayList<>();
+            String line;
+            do {
+                line = readLine();
+                if (line.length() < 3) {
+                    throw new IOException("Malformed SMTP reply to " + context + ": " + line);
+                }
+                lines.add(line.length() > 4 ? line.substring(4) : "");
+            } while (line.length() > 3 && line.charAt(3) == '-');
+
+            int code;
+            try {
+                code = Integer.parseInt(line, 0, 3, 10);
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed SMTP reply to " + context + ": " + line, e);
+            }
+            if (code != expected) {
+                throw new SmtpReplyException("SMTP " + context + " failed: " + line);
+            }
+            return lines;
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b < 0) {
+                    throw new EOFException("SMTP server closed the connection");
+                }
+                if (b != '\r') {
+                    if (line.length() == MAX_LINE_LENGTH) {
+                        throw new IOException("SMTP reply line too long");
+                    }
+                    line.append((char) b);
+                }
+            }
+            return line.toString();
+        }
+
+        /**
+         * Polite close, the server gets to finish the session
+         */
+        void quit() {
+            try {
+                command("QUIT", 221);
+            } catch (IOException ignored) {
+                // Closing anyway
+            }
+            abort();
+        }
+
+        void abort() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Nothing useful to do, the session is being discarded anyway
+            }
+        }
+    }
+
+    public static final class Builder {
+        private final String host;
+        private final int port;
+        private String username;
+        private String password;
+        private String from;
+        private final List<String> recipients = new ArrayList<>();
+        private String subject = "Notification";
+        private int maxConnections = 4;
+        private int maxMessagesPerSession = 100;
+        private Duration timeout = Duration.ofSeconds(30);
+
+        private Builder(String host, int port) {
+            this.host = Objects.requireNonNull(host, "host");
+            this.port = port;
+        }
+
+        /**
+         * Authenticate with AUTH PLAIN after EHLO
+         */
+        public Builder credentials(String username, String password) {
+            this.username = Objects.requireNonNull(username, "username");
+            this.password = Objects.requireNonNull(password, "password");
+            return this;
+        }
+
+        public Builder from(String from) {
+            this.from = checkNoControlCharacters("from", from);
+            return this;
+        }
+
+        public Builder to(String recipient) {
+            recipients.add(checkNoControlCharacters("recipient", recipient));
+            return this;
+        }
+
+        public Builder subject(String subject) {
+            this.subject = checkNoControlCharacters("subject", subject);
+            return this;
+        }
+
+        public Builder maxConnections(int maxConnections) {
+            if (maxConnections <= 0) {
+                throw new IllegalArgumentException("maxConnections must be positive");
+            }
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * Messages sent on a session before it is closed and replaced. 1 means a new
+         * connection per message.
+         */
+        public Builder maxMessagesPerSession(int maxMessagesPerSession) {
+            if (maxMessagesPerSession <= 0) {
+                throw new IllegalArgumentException("maxMessagesPerSession must be positive");
+            }
+            this.maxMessagesPerSession = maxMessagesPerSession;
+            return this;
+        }
+
+        /**
+         * Bounds waiting for a session, connecting, and every read
+         */
+        public Builder timeout(Duration timeout) {
+            this.timeout = Objects.requireNonNull(timeout, "timeout");
+            return this;
+        }
+
+        public SmtpTransport build() {
+            return new SmtpTransport(this);
+        }
+
+        /**
+         * Addresses and the subject go into SMTP commands and headers as is, a line break
+         * in them would inject a command or a header
+         */
+        private static String checkNoControlCharacters(String what, String s) {
+            Objects.requireNonNull(s, what);
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '\r' || c == '\n' || c == '\0') {
+                    throw new IllegalArgumentException(what + " must not contain CR, LF or NUL: "
+                            + s.replace("\r", "\\r").replace("\n", "\\n").replace("\0", "\\0"));
+                }
+            }
+            return s;
+        }
+    }
+}
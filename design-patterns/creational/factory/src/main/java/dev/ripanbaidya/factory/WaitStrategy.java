@@ -0,0 +1,47 @@
+package dev.ripanbaidya.factory;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a thread waits on {@link NotificationRingBuffer} when it cannot make progress
+ * (the consumer on an empty buffer, a producer on a full one).
+ *
+ * The strategies trade CPU for latency: BUSY_SPIN reacts within nanoseconds but burns a
+ * core, PARK frees the core but adds tens of microseconds of wake-up latency.
+ */
+public enum WaitStrategy {
+
+    /**
+     * Spin on the CPU, lowest latency. Only use with a core to spare per waiting thread.
+     */
+    BUSY_SPIN {
+        @Override
+        void idle() {
+            Thread.onSpinWait();
+        }
+    },
+
+    /**
+     * Give the CPU to other runnable threads between checks
+     */
+    YIELD {
+        @Override
+        void idle() {
+            Thread.yield();
+        }
+    },
+
+    /**
+     * Sleep briefly between checks, cheapest on CPU
+     */
+    PARK {
+        @Override
+        void idle() {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    };
+
+    private static final long PARK_NANOS = 50_000;
+
+    abstract void idle();
+}
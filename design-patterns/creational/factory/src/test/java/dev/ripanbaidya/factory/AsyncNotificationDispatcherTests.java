@@ -0,0 +1,232 @@
+package dev.ripanbaidya.factory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncNotificationDispatcherTests {
+
+    /**
+     * Stand-in channel with a fixed per-message latency
+     */
+    private static NotificationProvider channel(NotificationChannel channel, long delayMillis, AtomicInteger sent) {
+        return new NotificationProvider() {
+            @Override
+            public NotificationChannel channel() {
+                return channel;
+            }
+
+            @Override
+            public Notification create() {
+                return message -> {
+                    try {
+                        Thread.sleep(delayMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    sent.incrementAndGet();
+                };
+            }
+        };
+    }
+
+    @Test
+    void slowChannelDoesNotHoldUpOtherChannels() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger pushes = new AtomicInteger();
+        NotificationRegistry registry = new NotificationRegistry(List.of(
+                new EmailNotificationProvider() {
+                    @Override
+                    public Notification create() {
+                        return message -> {
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        };
+                    }
+                },
+                channel(NotificationChannel.PUSH, 0, pushes)));
+
+        try (AsyncNotificationDispatcher dispatcher =
+                     new AsyncNotificationDispatcher(registry, 1000, AsyncNotificationDispatcher.OverflowPolicy.BLOCK)) {
+            List<CompletableFuture<Void>> emailFutures = new ArrayList<>();
+            List<CompletableFuture<Void>> pushFutures = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                emailFutures.add(dispatcher.send(NotificationChannel.EMAIL, "email " + i));
+                for (int j = 0; j < 25; j++) {
+                    pushFutures.add(dispatcher.send(NotificationChannel.PUSH, "push " + i + "/" + j));
+                }
+            }
+
+            // Email is stuck on its first message, push must get through regardless
+            CompletableFuture.allOf(pushFutures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+            assertThat(pushes).hasValue(1000);
+            assertThat(emailFutures).noneMatch(CompletableFuture::isDone);
+
+            release.countDown();
+            CompletableFuture.allOf(emailFutures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void errorFromTheChannelFailsItsMessageAndTheWorkerCarriesOn() throws Exception {
+        NotificationRegistry registry = new NotificationRegistry(List.of(new PushNotificationProvider() {
+            @Override
+            public Notification create() {
+                return message -> {
+                    if (message.equals("boom")) {
+                        throw new StackOverflowError("boom");
+                    }
+                };
+            }
+        }));
+
+        try (AsyncNotificationDispatcher dispatcher =
+                     new AsyncNotificationDispatcher(registry, 10, AsyncNotificationDispatcher.OverflowPolicy.BLOCK)) {
+            CompletableFuture<Void> failed = dispatcher.send(NotificationChannel.PUSH, "boom");
+            CompletableFuture<Void> next = dispatcher.send(NotificationChannel.PUSH, "next");
+
+            assertThat(failed).failsWithin(5, TimeUnit.SECONDS)
+                    .withThrowableOfType(ExecutionException.class)
+                    .withCauseInstanceOf(StackOverflowError.class);
+            assertThat(next).succeedsWithin(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void dropPolicyRejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        NotificationRegistry registry = new NotificationRegistry(List.of(new EmailNotificationProvider() {
+            @Override
+            public Notification create() {
+                return message -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                };
+            }
+        }));
+
+        try (AsyncNotificationDispatcher dispatcher =
+                     new AsyncNotificationDispatcher(registry, 1, AsyncNotificationDispatcher.OverflowPolicy.DROP)) {
+            CompletableFuture<Void> inFlight = dispatcher.send(NotificationChannel.EMAIL, "1");
+            // Wait for the worker to take the first message so the queue is empty again
+            while (dispatcher.queueDepth(NotificationChannel.EMAIL) > 0) {
+                Thread.onSpinWait();
+            }
+            CompletableFuture<Void> queued = dispatcher.send(NotificationChannel.EMAIL, "2");
+            CompletableFuture<Void> dropped = dispatcher.send(NotificationChannel.EMAIL, "3");
+
+            assertThatThrownBy(dropped::join).hasCauseInstanceOf(RejectedExecutionException.class);
+            release.countDown();
+            inFlight.get(5, TimeUnit.SECONDS);
+            queued.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void callerRunsPolicyDeliversOnCallingThread() {
+        List<String> threads = new ArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        NotificationRegistry registry = new NotificationRegistry(List.of(new PushNotificationProvider() {
+            @Override
+            public Notification create() {
+                return message -> {
+                    if (message.equals("block")) {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    synchronized (threads) {
+                        threads.add(message + "@" + Thread.currentThread().getName());
+                    }
+                };
+            }
+        }));
+
+        try (AsyncNotificationDispatcher dispatcher =
+                     new AsyncNotificationDispatcher(registry, 1, AsyncNotificationDispatcher.OverflowPolicy.CALLER_RUNS)) {
+            dispatcher.send(NotificationChannel.PUSH, "block");
+            while (dispatcher.queueDepth(NotificationChannel.PUSH) > 0) {
+                Thread.onSpinWait();
+            }
+            dispatcher.send(NotificationChannel.PUSH, "queued");
+            dispatcher.send(NotificationChannel.PUSH, "overflow").join();
+
+            assertThat(threads).containsExactly("overflow@" + Thread.currentThread().getName());
+            release.countDown();
+        }
+    }
+
+    @Test
+    void rejectsAfterClose() {
+        NotificationRegistry registry = new NotificationRegistry(List.of(new PushNotificationProvider()));
+        AsyncNotificationDispatcher dispatcher =
+                new AsyncNotificationDispatcher(registry, 10, AsyncNotificationDispatcher.OverflowPolicy.BLOCK);
+        dispatcher.close();
+
+        assertThatThrownBy(() -> dispatcher.send(NotificationChannel.PUSH, "late").join())
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThatThrownBy(() -> dispatcher.send(NotificationChannel.EMAIL, "unknown").join())
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void everySendRacingCloseIsDeliveredOrRejected() throws Exception {
+        AtomicInteger sent = new AtomicInteger();
+        NotificationRegistry registry = new NotificationRegistry(List.of(
+                channel(NotificationChannel.PUSH, 0, sent)));
+
+        for (int round = 0; round < 50; round++) {
+            AsyncNotificationDispatcher dispatcher =
+                    new AsyncNotificationDispatcher(registry, 2, AsyncNotificationDispatcher.OverflowPolicy.BLOCK);
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> senders = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                senders.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < 50; i++) {
+                        CompletableFuture<Void> future = dispatcher.send(NotificationChannel.PUSH, "push " + i);
+                        synchronized (futures) {
+                            futures.add(future);
+                        }
+                    }
+                }));
+            }
+            start.countDown();
+            dispatcher.close();
+            for (Thread sender : senders) {
+                sender.join();
+            }
+
+            // A message accepted just before close must not be stranded behind the stop marker
+            for (CompletableFuture<Void> future : futures) {
+                assertThat(future.handle((ignored, failure) -> failure == null
+                        || failure instanceof RejectedExecutionException))
+                        .succeedsWithin(5, TimeUnit.SECONDS)
+                        .isEqualTo(true);
+            }
+        }
+    }
+}
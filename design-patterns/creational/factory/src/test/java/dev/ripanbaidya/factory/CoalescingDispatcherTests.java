@@ -0,0 +1,205 @@
+package dev.ripanbaidya.factory;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class CoalescingDispatcherTests {
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    private final NotificationFactory recordingFactory = new NotificationFactory() {
+        @Override
+        public Notification createNotification() {
+            return new Notification() {
+                @Override
+                public void send(String message) {
+                    batches.add(List.of(message));
+                }
+
+                @Override
+                public void sendBatch(List<String> messages) {
+                    batches.add(new ArrayList<>(messages));
+                }
+            };
+        }
+    };
+
+    @Test
+    void flushesWhenBatchIsFull() {
+        try (CoalescingDispatcher dispatcher = new CoalescingDispatcher(recordingFactory, 3, Duration.ofMinutes(1))) {
+            for (int i = 0; i < 7; i++) {
+                dispatcher.submit("m" + i);
+            }
+            await().until(() -> batches.size() == 2);
+
+            assertThat(batches).containsExactly(List.of("m0", "m1", "m2"), List.of("m3", "m4", "m5"));
+        }
+        // Closing flushes the partial batch
+        assertThat(batches).last().isEqualTo(List.of("m6"));
+    }
+
+    @Test
+    void flushesWhenDeadlineExpires() {
+        try (CoalescingDispatcher dispatcher = new CoalescingDispatcher(recordingFactory, 100, Duration.ofMillis(50))) {
+            dispatcher.submit("a");
+            dispatcher.submit("b");
+
+            await().atMost(Duration.ofSeconds(2)).until(() -> batches.size() == 1);
+
+            assertThat(batches.get(0)).containsExactly("a", "b");
+            DispatcherMetrics.Snapshot metrics = dispatcher.metrics();
+            assertThat(metrics.deadlineFlushes()).isEqualTo(1);
+            assertThat(metrics.sizeFlushes()).isZero();
+            assertThat(metrics.maxFlushLatencyMillis()).isGreaterThanOrEqualTo(40);
+        }
+    }
+
+    @Test
+    void recordsThroughputMetrics() {
+        CoalescingDispatcher dispatcher = new CoalescingDispatcher(recordingFactory, 10, Duration.ofMillis(20));
+        for (int i = 0; i < 1000; i++) {
+            dispatcher.submit("m" + i);
+        }
+        dispatcher.close();
+
+        DispatcherMetrics.Snapshot metrics = dispatcher.metrics();
+        assertThat(metrics.messages()).isEqualTo(1000);
+        assertThat(metrics.sizeFlushes()).isEqualTo(100);
+        assertThat(metrics.averageBatchSize()).isEqualTo(10.0);
+        assertThat(metrics.messagesPerSecond()).isPositive();
+        assertThat(batches.stream().flatMap(List::stream)).hasSize(1000).startsWith("m0", "m1").endsWith("m999");
+    }
+
+    @Test
+    void closeFlushIsCountedApartFromDeadlines() {
+        CoalescingDispatcher dispatcher = new CoalescingDispatcher(recordingFactory, 100, Duration.ofMinutes(1));
+        dispatcher.submit("a");
+        dispatcher.close();
+
+        DispatcherMetrics.Snapshot metrics = dispatcher.metrics();
+        assertThat(batches).containsExactly(List.of("a"));
+        assertThat(metrics.closeFlushes()).isEqualTo(1);
+        assertThat(metrics.deadlineFlushes()).isZero();
+        assertThat(metrics.sizeFlushes()).isZero();
+    }
+
+    @Test
+    void flushLatencyDoesNotIncludeSending() {
+        NotificationFactory slow = new NotificationFactory() {
+            @Override
+            public Notification createNotification() {
+                return new Notification() {
+                    @Override
+                    public void send(String message) {
+                    }
+
+                    @Override
+                    public void sendBatch(List<String> messages) {
+                        try {
+                            Thread.sleep(200);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                };
+            }
+        };
+
+        CoalescingDispatcher dispatcher = new CoalescingDispatcher(slow, 1, Duration.ofMinutes(1));
+        for (int i = 0; i < 3; i++) {
+            dispatcher.submit("m" + i);
+        }
+        dispatcher.close();
+
+        DispatcherMetrics.Snapshot metrics = dispatcher.metrics();
+        assertThat(metrics.messages()).isEqualTo(3);
+        assertThat(metrics.sizeFlushes()).isEqualTo(3);
+        // Full on its first message, 0.6 s of sending is not the batch's flush latency
+        assertThat(metrics.maxFlushLatencyMillis()).isLessThan(100);
+    }
+
+    @Test
+    void failedBatchFailsTheFuturesOfItsMessages() {
+        NotificationFactory failing = new NotificationFactory() {
+            @Override
+            public Notification createNotification() {
+                return new Notification() {
+                    @Override
+                    public void send(String message) {
+                        throw new IllegalStateException("transport down");
+                    }
+
+                    @Override
+                    public void sendBatch(List<String> messages) {
+                        throw new IllegalStateException("transport down");
+                    }
+                };
+            }
+        };
+
+        try (CoalescingDispatcher dispatcher = new CoalescingDispatcher(failing, 2, Duration.ofMinutes(1))) {
+            CompletableFuture<Void> first = dispatcher.submit("a");
+            CompletableFuture<Void> second = dispatcher.submit("b");
+
+            assertThat(first).failsWithin(2, TimeUnit.SECONDS)
+                    .withThrowableOfType(ExecutionException.class)
+                    .withCauseInstanceOf(IllegalStateException.class)
+                    .withMessageContaining("transport down");
+            assertThat(second).isSameAs(first);
+            assertThat(dispatcher.metrics().failedMessages()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void closeReturnsTheMessagesItCouldNotSendInTime() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        NotificationFactory stalling = new NotificationFactory() {
+            @Override
+            public Notification createNotification() {
+                return new Notification() {
+                    @Override
+                    public void send(String message) {
+                    }
+
+                    @Override
+                    public void sendBatch(List<String> messages) {
+                        sending.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new IllegalStateException("interrupted", e);
+                        }
+                    }
+                };
+            }
+        };
+
+        CoalescingDispatcher dispatcher = new CoalescingDispatcher(stalling, 1, Duration.ofMinutes(1));
+        CompletableFuture<Void> stalled = dispatcher.submit("a");
+        sending.await(2, TimeUnit.SECONDS);
+        CompletableFuture<Void> queued = dispatcher.submit("b");
+
+        List<String> unsent = dispatcher.close(Duration.ofMillis(100));
+
+        assertThat(unsent).containsExactly("b");
+        assertThat(queued).isCompletedExceptionally();
+        assertThatThrownBy(queued::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        // The batch that was being sent is interrupted and reports that itself
+        assertThat(stalled).failsWithin(2, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,82 @@
+package dev.ripanbaidya.factory;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeduplicatingNotificationTests {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<String> sent = new ArrayList<>();
+
+    @Test
+    void suppressesDuplicatesWithinTheWindow() {
+        DeduplicatingNotification notification = newNotification(sent::add);
+
+        notification.send("a");
+        notification.send("b");
+        notification.send("a");
+        notification.sendBatch(List.of("b", "c", "c"));
+
+        assertThat(sent).containsExactly("a", "b", "c");
+        assertThat(notification.stats().duplicates()).isEqualTo(3);
+    }
+
+    @Test
+    void sendsAgainOnceTheWindowHasPassed() {
+        DeduplicatingNotification notification = newNotification(sent::add);
+
+        notification.send("a");
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(30));
+        notification.send("a");
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(61));
+        notification.send("a");
+
+        assertThat(sent).containsExactly("a", "a");
+    }
+
+    @Test
+    void failedSendCanBeRetried() {
+        DeduplicatingNotification notification = newNotification(message -> {
+            if (sent.isEmpty() && message.equals("flaky")) {
+                sent.add("failed");
+                throw new IllegalStateException("transport down");
+            }
+            sent.add(message);
+        });
+
+        assertThatThrownBy(() -> notification.send("flaky")).isInstanceOf(IllegalStateException.class);
+        notification.send("flaky");
+
+        assertThat(sent).containsExactly("failed", "flaky");
+    }
+
+    @Test
+    void keepsFalsePositivesNearTheTargetRateWithFixedMemory() {
+        DeduplicatingNotification notification = new DeduplicatingNotification(
+                message -> {
+                }, 100_000, 0.01, Duration.ofHours(1), 1_000, clock::get);
+        long memory = notification.filterMemoryBytes();
+
+        for (int i = 0; i < 500_000; i++) {
+            notification.send("user-" + i);
+        }
+
+        DeduplicatingNotification.Stats stats = notification.stats();
+        assertThat(stats.duplicates()).isZero();
+        // Lookups check every generation, so the rate is bounded by a few times the per-generation target
+        assertThat(stats.falsePositiveRate()).isLessThan(0.05);
+        assertThat(notification.filterMemoryBytes()).isEqualTo(memory);
+    }
+
+    private DeduplicatingNotification newNotification(Notification delegate) {
+        return new DeduplicatingNotification(delegate, 1_000, 0.01, Duration.ofHours(1), 100, clock::get);
+    }
+}
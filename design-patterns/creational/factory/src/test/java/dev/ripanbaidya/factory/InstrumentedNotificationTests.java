@@ -0,0 +1,75 @@
+package dev.ripanbaidya.factory;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InstrumentedNotificationTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void recordsLatencyAndOutcomePerChannel() {
+        Notification notification = new InstrumentedNotification(message -> {
+            if (message.equals("fail")) {
+                throw new IllegalStateException("transport down");
+            }
+        }, NotificationChannel.PUSH, meterRegistry);
+
+        notification.send("ok");
+        notification.sendBatch(List.of("a", "b", "c"));
+        assertThatThrownBy(() -> notification.send("fail")).isInstanceOf(IllegalStateException.class);
+
+        Timer success = meterRegistry.get(InstrumentedNotification.SEND_TIMER)
+                .tags("channel", "push", "outcome", "success").timer();
+        Timer failure = meterRegistry.get(InstrumentedNotification.SEND_TIMER)
+                .tags("channel", "push", "outcome", "failure").timer();
+        // The batch is timed on its own timer, not as one slow message
+        assertThat(success.count()).isEqualTo(1);
+        assertThat(failure.count()).isEqualTo(1);
+        assertThat(success.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(meterRegistry.get(InstrumentedNotification.SEND_BATCH_TIMER)
+                .tags("channel", "push", "outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("notification.batch.size").summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void exposesQueueDepthOfAsyncDispatcher() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        NotificationRegistry registry = new NotificationRegistry(List.of(new EmailNotificationProvider() {
+            @Override
+            public Notification create() {
+                return message -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                };
+            }
+        }));
+
+        try (AsyncNotificationDispatcher dispatcher = new AsyncNotificationDispatcher(
+                registry, 16, AsyncNotificationDispatcher.OverflowPolicy.DROP)) {
+            NotificationQueueMetrics.of(dispatcher).bindTo(meterRegistry);
+            for (int i = 0; i < 5; i++) {
+                dispatcher.send(NotificationChannel.EMAIL, "m" + i);
+            }
+
+            // The worker holds one message while blocked, the rest wait in the queue
+            double depth = meterRegistry.get(NotificationQueueMetrics.QUEUE_DEPTH)
+                    .tags("channel", "email").gauge().value();
+            assertThat(depth).isBetween(4.0, 5.0);
+            assertThat(meterRegistry.get(NotificationQueueMetrics.QUEUE_DEPTH)
+                    .tags("channel", "push").gauge().value()).isZero();
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package dev.ripanbaidya.factory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationOutboxTests {
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(NotificationOutbox.FsyncPolicy.class)
+    void replaysUnacknowledgedRecordsAfterReopening(NotificationOutbox.FsyncPolicy policy) throws IOException {
+        try (NotificationOutbox outbox = NotificationOutbox.open(directory, 4096, policy)) {
+            for (int i = 0; i < 200; i++) {
+                long offset = outbox.append(i % 2 == 0 ? NotificationChannel.EMAIL : NotificationChannel.PUSH, "m" + i);
+                if (i < 100 && i % 2 == 0) {
+                    outbox.acknowledge(NotificationChannel.EMAIL, offset);
+                }
+            }
+        }
+
+        try (NotificationOutbox outbox = NotificationOutbox.open(directory, 4096, policy)) {
+            List<String> email = new ArrayList<>();
+            List<String> push = new ArrayList<>();
+            outbox.replay(NotificationChannel.EMAIL, (offset, channel, message) -> email.add(message));
+            outbox.replay(NotificationChannel.PUSH, (offset, channel, message) -> push.add(message));
+
+            assertThat(email).hasSize(50).startsWith("m100").endsWith("m198");
+            assertThat(push).hasSize(100).startsWith("m1").endsWith("m199");
+
+            // New appends continue after the recovered records
+            outbox.append(NotificationChannel.PUSH, "after restart");
+            List<String> replayed = new ArrayList<>();
+            outbox.replay(NotificationChannel.PUSH, (offset, channel, message) -> replayed.add(message));
+            assertThat(replayed).hasSize(101).endsWith("after restart");
+        }
+    }
+
+    @Test
+    void rollsSegmentsAndDeletesFullyAcknowledgedOnes() throws IOException {
+        try (NotificationOutbox outbox = NotificationOutbox.open(directory, 1024, NotificationOutbox.FsyncPolicy.NONE)) {
+            long last = 0;
+            for (int i = 0; i < 100; i++) {
+                last = outbox.append(NotificationChannel.EMAIL, "message number " + i);
+            }
+            assertThat(segmentCount()).isGreaterThan(2);
+
+            // PUSH never had traffic and must not hold on to the segments
+            outbox.acknowledge(NotificationChannel.EMAIL, last);
+            assertThat(outbox.deleteAcknowledgedSegments()).isPositive();
+            // The active segment is always kept
+            assertThat(segmentCount()).isEqualTo(1);
+            assertThat(outbox.replay(NotificationChannel.EMAIL, (offset, channel, message) -> {
+            })).isZero();
+        }
+    }
+
+    @Test
+    void keepsSegmentsWithUnacknowledgedRecordsOfAnyChannel() throws IOException {
+        try (NotificationOutbox outbox = NotificationOutbox.open(directory, 1024, NotificationOutbox.FsyncPolicy.NONE)) {
+            long push = outbox.append(NotificationChannel.PUSH, "pending push");
+            long last = 0;
+            for (int i = 0; i < 100; i++) {
+                last = outbox.append(NotificationChannel.EMAIL, "message number " + i);
+            }
+            long segments = segmentCount();
+            outbox.acknowledge(NotificationChannel.EMAIL, last);
+
+            // Only the first segment holds the push, everything after it can go once it is acknowledged
+            assertThat(outbox.deleteAcknowledgedSegments()).isZero();
+            assertThat(segmentCount()).isEqualTo(segments);
+
+            outbox.acknowledge(NotificationChannel.PUSH, push);
+            assertThat(outbox.deleteAcknowledgedSegments()).isEqualTo(segments - 1);
+        }
+
+        // The per-segment bookkeeping is rebuilt on recovery
+        try (NotificationOutbox outbox = NotificationOutbox.open(directory, 1024, NotificationOutbox.FsyncPolicy.NONE)) {
+            long last = 0;
+            for (int i = 0; i < 100; i++) {
+                last = outbox.append(NotificationChannel.PUSH, "message number " + i);
+            }
+            assertThat(outbox.deleteAcknowledgedSegments()).isZero();
+            outbox.acknowledge(NotificationChannel.PUSH, last);
+            assertThat(outbox.deleteAcknowledgedSegments()).isPositive();
+        }
+    }
+
+    @Test
+    void ignoresTornRecordAtTheEndOfTheJournal() throws IOException {
+        long torn;
+        try (NotificationOutbox outbox = NotificationOutbox.open(directory, 4096, NotificationOutbox.FsyncPolicy.EVERY_APPEND)) {
+            outbox.append(NotificationChannel.PUSH, "complete");
+            torn = outbox.append(NotificationChannel.PUSH, "torn");
+        }
+        // Corrupt the payload of the last record, as if the write was cut off by a crash
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), torn + 9);
+        }
+
+        try (NotificationOutbox outbox = NotificationOutbox.open(directory, 4096, NotificationOutbox.FsyncPolicy.EVERY_APPEND)) {
+            outbox.append(NotificationChannel.PUSH, "next");
+            List<String> replayed = new ArrayList<>();
+            outbox.replay(NotificationChannel.PUSH, (offset, channel, message) -> replayed.add(message));
+            assertThat(replayed).containsExactly("complete", "next");
+        }
+    }
+
+    @Test
+    void redeliversPendingRecordsThroughTheRegistry() throws IOException {
+        List<String> sent = new CopyOnWriteArrayList<>();
+        NotificationRegistry registry = new NotificationRegistry(List.of(new PushNotificationProvider() {
+            @Override
+            public Notification create() {
+                return sent::add;
+            }
+        }));
+
+        try (NotificationOutbox outbox = NotificationOutbox.open(directory, 4096, NotificationOutbox.FsyncPolicy.GROUP_COMMIT)) {
+            outbox.append(NotificationChannel.PUSH, "one");
+            outbox.append(NotificationChannel.PUSH, "two");
+        }
+        try (NotificationOutbox outbox = NotificationOutbox.open(directory, 4096, NotificationOutbox.FsyncPolicy.GROUP_COMMIT)) {
+            assertThat(outbox.redeliver(registry)).isEqualTo(2);
+        }
+        try (NotificationOutbox outbox = NotificationOutbox.open(directory, 4096, NotificationOutbox.FsyncPolicy.GROUP_COMMIT)) {
+            assertThat(outbox.redeliver(registry)).isZero();
+        }
+        assertThat(sent).containsExactly("one", "two");
+    }
+
+    @Test
+    void groupCommitReleasesConcurrentAppenders() throws Exception {
+        try (NotificationOutbox outbox = NotificationOutbox.open(directory, 1 << 20, NotificationOutbox.FsyncPolicy.GROUP_COMMIT)) {
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                threads.add(Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        try {
+                            outbox.append(NotificationChannel.EMAIL, "concurrent");
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertThat(outbox.replay(NotificationChannel.EMAIL, (offset, channel, message) -> {
+            })).isEqualTo(400);
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        return segments().size();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package dev.ripanbaidya.factory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NotificationRegistryTests {
+
+    @Test
+    void discoversProvidersThroughServiceLoader() {
+        NotificationRegistry registry = new NotificationRegistry();
+
+        assertThat(registry.get(NotificationChannel.EMAIL)).isInstanceOf(EmailNotification.class);
+        assertThat(registry.get(NotificationChannel.PUSH)).isInstanceOf(PushNotification.class);
+    }
+
+    @Test
+    void createsEachNotificationOnceAndOnlyWhenUsed() {
+        AtomicInteger created = new AtomicInteger();
+        NotificationRegistry registry = new NotificationRegistry(List.of(new EmailNotificationProvider() {
+            @Override
+            public Notification create() {
+                created.incrementAndGet();
+                return super.create();
+            }
+        }));
+
+        assertThat(created).hasValue(0);
+        Notification first = registry.get(NotificationChannel.EMAIL);
+        assertThat(registry.get(NotificationChannel.EMAIL)).isSameAs(first);
+        assertThat(created).hasValue(1);
+        assertThat(registry.isRegistered(NotificationChannel.PUSH)).isFalse();
+        assertThatThrownBy(() -> registry.get(NotificationChannel.PUSH))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void simpleFactoryReturnsCachedInstances() {
+        assertThat(SimpleFactoryNotification.createNotification("PUSH"))
+                .isSameAs(SimpleFactoryNotification.createNotification(NotificationChannel.PUSH));
+        assertThatThrownBy(() -> SimpleFactoryNotification.createNotification("SMS"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid notification type");
+    }
+}
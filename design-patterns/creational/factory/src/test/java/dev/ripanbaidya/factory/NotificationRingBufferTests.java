@@ -0,0 +1,179 @@
+package dev.ripanbaidya.factory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NotificationRingBufferTests {
+
+    @Test
+    void roundsCapacityAndRejectsWhenFull() {
+        NotificationRingBuffer buffer = new NotificationRingBuffer(3, WaitStrategy.BUSY_SPIN);
+        assertThat(buffer.capacity()).isEqualTo(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(NotificationChannel.EMAIL, "m" + i)).isTrue();
+        }
+        assertThat(buffer.offer(NotificationChannel.EMAIL, "overflow")).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        List<String> drained = new ArrayList<>();
+        assertThat(buffer.drain((channel, message) -> drained.add(message), 2)).isEqualTo(2);
+        assertThat(buffer.offer(NotificationChannel.PUSH, "m4")).isTrue();
+        buffer.drain((channel, message) -> drained.add(message), Integer.MAX_VALUE);
+
+        assertThat(drained).containsExactly("m0", "m1", "m2", "m3", "m4");
+        assertThatThrownBy(() -> new NotificationRingBuffer(1, WaitStrategy.PARK))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    void deliversEveryMessageFromConcurrentProducers(WaitStrategy waitStrategy) throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        NotificationRingBuffer buffer = new NotificationRingBuffer(64, waitStrategy);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String prefix = "p" + p + "-";
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.put(NotificationChannel.PUSH, prefix + i);
+                }
+            }));
+        }
+
+        // Per producer, messages must arrive complete and in order
+        ConcurrentHashMap<String, AtomicInteger> next = new ConcurrentHashMap<>();
+        AtomicInteger received = new AtomicInteger();
+        List<String> errors = new ArrayList<>();
+        start.countDown();
+        while (received.get() < producers * perProducer) {
+            buffer.take((channel, message) -> {
+                int dash = message.indexOf('-');
+                int expected = next.computeIfAbsent(message.substring(0, dash), k -> new AtomicInteger()).getAndIncrement();
+                if (Integer.parseInt(message.substring(dash + 1)) != expected) {
+                    errors.add(message);
+                }
+                received.incrementAndGet();
+            }, 128);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(errors).isEmpty();
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void dispatcherDeliversQueuedMessagesOnClose() {
+        List<String> delivered = new ArrayList<>();
+        NotificationRegistry registry = new NotificationRegistry(List.of(new EmailNotificationProvider() {
+            @Override
+            public Notification create() {
+                return delivered::add;
+            }
+        }));
+
+        try (RingBufferNotificationDispatcher dispatcher =
+                     new RingBufferNotificationDispatcher(registry, 1024, WaitStrategy.PARK)) {
+            for (int i = 0; i < 500; i++) {
+                dispatcher.send(NotificationChannel.EMAIL, "m" + i);
+            }
+        }
+
+        assertThat(delivered).hasSize(500).startsWith("m0").endsWith("m499");
+    }
+
+    @Test
+    void dispatcherHandsFailedMessagesToTheFailureHandler() {
+        List<String> failed = new CopyOnWriteArrayList<>();
+        NotificationRegistry registry = new NotificationRegistry(List.of(new EmailNotificationProvider() {
+            @Override
+            public Notification create() {
+                return message -> {
+                    if (message.startsWith("bad")) {
+                        throw new IllegalStateException("rejected " + message);
+                    }
+                };
+            }
+        }));
+
+        try (RingBufferNotificationDispatcher dispatcher = new RingBufferNotificationDispatcher(registry, 64,
+                WaitStrategy.PARK, (channel, message, failure) -> failed.add(channel + "/" + failure.getMessage()))) {
+            dispatcher.send(NotificationChannel.EMAIL, "good");
+            dispatcher.send(NotificationChannel.EMAIL, "bad 1");
+            dispatcher.send(NotificationChannel.EMAIL, "bad 2");
+        }
+
+        assertThat(failed).containsExactly("EMAIL/rejected bad 1", "EMAIL/rejected bad 2");
+    }
+
+    @Test
+    void closeRejectsAProducerWaitingOnAFullBuffer() throws Exception {
+        CountDownLatch delivering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        NotificationRegistry registry = new NotificationRegistry(List.of(new EmailNotificationProvider() {
+            @Override
+            public Notification create() {
+                return message -> {
+                    delivering.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    delivered.add(message);
+                };
+            }
+        }));
+        RingBufferNotificationDispatcher dispatcher =
+                new RingBufferNotificationDispatcher(registry, 2, WaitStrategy.PARK);
+
+        // The consumer holds the first message, the next two fill the buffer
+        dispatcher.send(NotificationChannel.EMAIL, "m0");
+        delivering.await();
+        dispatcher.send(NotificationChannel.EMAIL, "m1");
+        dispatcher.send(NotificationChannel.EMAIL, "m2");
+        List<Throwable> producerFailure = new CopyOnWriteArrayList<>();
+        Thread producer = Thread.ofPlatform().start(() -> {
+            try {
+                dispatcher.send(NotificationChannel.EMAIL, "blocked");
+            } catch (IllegalStateException e) {
+                producerFailure.add(e);
+            }
+        });
+        while (producer.getState() == Thread.State.RUNNABLE) {
+            Thread.onSpinWait();
+        }
+
+        Thread closer = Thread.ofPlatform().start(dispatcher::close);
+        producer.join(5_000);
+        assertThat(producer.isAlive()).isFalse();
+        assertThat(producerFailure).singleElement().isInstanceOf(IllegalStateException.class);
+
+        release.countDown();
+        closer.join(5_000);
+        assertThat(closer.isAlive()).isFalse();
+        // Everything accepted before close is still delivered
+        assertThat(delivered).containsExactly("m0", "m1", "m2");
+    }
+}
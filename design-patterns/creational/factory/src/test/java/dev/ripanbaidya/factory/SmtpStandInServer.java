@@ -0,0 +1,142 @@
+package dev.ripanbaidya.factory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal SMTP server on loopback for tests: EHLO, AUTH PLAIN, MAIL, RCPT, DATA, RSET,
+ * NOOP and QUIT, one virtual thread per connection. Received message bodies are kept
+ * in memory.
+ *
+ * {@code sessionSetupMillis} delays the greeting of every connection, standing in for
+ * the TCP and TLS handshakes and the server-side setup a real relay costs.
+ * {@link #dropAtMessage} makes the server die once, after receiving the given message
+ * and before acknowledging it.
+ *
+ * Public so the benchmark harnesses can use it as well.
+ */
+public class SmtpStandInServer implements AutoCloseable {
+
+    public static final String USERNAME = "user";
+    public static final String PASSWORD = "secret";
+
+    private final ServerSocket serverSocket;
+    private final boolean pipelining;
+    private final long sessionSetupMillis;
+    private final Thread acceptor;
+    public final List<String> messages = new CopyOnWriteArrayList<>();
+    public final AtomicInteger connections = new AtomicInteger();
+    // 1-based number of the message after which the connection is dropped, 0 for never
+    final AtomicInteger dropAtMessage = new AtomicInteger();
+
+    public SmtpStandInServer(boolean pipelining, long sessionSetupMillis) throws IOException {
+        this.serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        this.pipelining = pipelining;
+        this.sessionSetupMillis = sessionSetupMillis;
+        this.acceptor = Thread.ofPlatform().daemon().start(this::accept);
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                Thread.ofVirtual().start(() -> serve(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            OutputStream out = socket.getOutputStream();
+            Thread.sleep(sessionSetupMillis);
+            reply(out, "220 localhost ESMTP stand-in");
+            boolean authenticated = false;
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() < 4 ? line.toUpperCase() : line.substring(0, 4).toUpperCase();
+                switch (command) {
+                    case "EHLO" -> reply(out, "250-localhost\r\n"
+                            + (pipelining ? "250-PIPELINING\r\n" : "")
+                            + "250 AUTH PLAIN");
+                    case "AUTH" -> {
+                        String expected = Base64.getEncoder().encodeToString(
+                                ("\0" + USERNAME + "\0" + PASSWORD).getBytes(StandardCharsets.UTF_8));
+                        authenticated = line.equals("AUTH PLAIN " + expected);
+                        reply(out, authenticated ? "235 Authentication successful" : "535 Authentication failed");
+                    }
+                    case "MAIL", "RCPT" -> reply(out, authenticated ? "250 OK" : "530 Authentication required");
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        messages.add(readData(in));
+                        if (dropAtMessage.compareAndSet(messages.size(), 0)) {
+                            return;
+                        }
+                        reply(out, "250 OK queued");
+                    }
+                    case "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "500 Unrecognised command");
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            // Connection dropped or server closing
+        }
+    }
+
+    /**
+     * Body of the message after the headers, with dot-stuffing undone
+     */
+    private static String readData(BufferedReader in) throws IOException {
+        StringBuilder body = new StringBuilder();
+        boolean inHeaders = true;
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(".")) {
+            if (inHeaders) {
+                inHeaders = !line.isEmpty();
+                continue;
+            }
+            if (!body.isEmpty()) {
+                body.append('\n');
+            }
+            body.append(line.startsWith(".") ? line.substring(1) : line);
+        }
+        return body.toString();
+    }
+
+    private static void reply(OutputStream out, String reply) throws IOException {
+        out.write((reply + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        try {
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
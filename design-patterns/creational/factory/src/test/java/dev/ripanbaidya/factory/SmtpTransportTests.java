@@ -0,0 +1,153 @@
+package dev.ripanbaidya.factory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SmtpTransportTests {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void sendsSeveralMessagesPerAuthenticatedSession(boolean pipelining) throws Exception {
+        try (SmtpStandInServer server = new SmtpStandInServer(pipelining, 0);
+             SmtpTransport smtp = transport(server, 10)) {
+            Notification email = new EmailNotification(smtp);
+
+            email.send("Welcome");
+            email.sendBatch(List.of("first", ".starts with a dot", "multi\nline"));
+            for (int i = 0; i < 20; i++) {
+                email.send("message " + i);
+            }
+
+            assertThat(server.messages).hasSize(24)
+                    .startsWith("Welcome", "first", ".starts with a dot", "multi\nline");
+            // 24 messages, at most 10 per session
+            assertThat(server.connections).hasValue(3);
+            assertThat(smtp.sessionsOpened()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void rejectedCredentialsFailTheSend() throws Exception {
+        try (SmtpStandInServer server = new SmtpStandInServer(true, 0);
+             SmtpTransport smtp = SmtpTransport.builder("127.0.0.1", server.port())
+                     .credentials(SmtpStandInServer.USERNAME, "wrong")
+                     .from("noreply@example.com")
+                     .to("ops@example.com")
+                     .build()) {
+            Notification email = new EmailNotification(smtp);
+
+            assertThatThrownBy(() -> email.send("hello"))
+                    .isInstanceOf(UncheckedIOException.class)
+                    .hasRootCauseMessage("SMTP AUTH failed: 535 Authentication failed");
+            assertThat(server.messages).isEmpty();
+        }
+    }
+
+    @Test
+    void concurrentBatchesShareThePooledSessions() throws Exception {
+        int messages = 400;
+        try (SmtpStandInServer server = new SmtpStandInServer(true, 0)) {
+            try (SmtpTransport smtp = transport(server, 1)) {
+                sendConcurrently(new EmailNotification(smtp), messages);
+            }
+            int connectionsPerMessage = server.connections.get();
+
+            try (SmtpTransport smtp = transport(server, 100)) {
+                sendConcurrently(new EmailNotification(smtp), messages);
+            }
+            int pooledConnections = server.connections.get() - connectionsPerMessage;
+
+            assertThat(server.messages).hasSize(2 * messages);
+            assertThat(connectionsPerMessage).isEqualTo(messages);
+            assertThat(pooledConnections).isLessThanOrEqualTo(4 + messages / 100);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void doesNotResendAMessageTheServerMayHaveQueued(boolean pipelining) throws Exception {
+        try (SmtpStandInServer server = new SmtpStandInServer(pipelining, 0);
+             SmtpTransport smtp = transport(server, 10)) {
+            smtp.deliver("first");
+            // The pooled session dies after the content of the next message, before its 250
+            server.dropAtMessage.set(2);
+
+            assertThatThrownBy(() -> smtp.deliver("second")).isInstanceOf(IOException.class);
+            assertThat(server.messages).containsExactly("first", "second");
+            assertThat(smtp.sessionsOpened()).isEqualTo(1);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void batchFailingPartWayReportsHowManyMessagesWentOut(boolean pipelining) throws Exception {
+        try (SmtpStandInServer server = new SmtpStandInServer(pipelining, 0);
+             SmtpTransport smtp = transport(server, 10)) {
+            server.dropAtMessage.set(3);
+
+            assertThatThrownBy(() -> smtp.deliverAll(List.of("a", "b", "c", "d")))
+                    .isInstanceOfSatisfying(SmtpTransport.PartialDeliveryException.class,
+                            e -> assertThat(e.delivered()).isEqualTo(2))
+                    .hasMessageStartingWith("Delivered 2 of 4 messages");
+        }
+    }
+
+    @Test
+    void rejectsLineBreaksInAddressesAndSubject() {
+        SmtpTransport.Builder builder = SmtpTransport.builder("127.0.0.1", 25);
+
+        assertThatThrownBy(() -> builder.from("noreply@example.com>\r\nRCPT TO:<victim@example.com"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("from must not contain CR, LF or NUL");
+        assertThatThrownBy(() -> builder.to("ops@example.com\n"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder.subject("Hello\r\nBcc: victim@example.com"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder.subject("Hello\0"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder.from(null))
+                .isInstanceOf(NullPointerException.class)
+                .hasMessage("from");
+    }
+
+    /**
+     * Sends from 4 threads, each in batches of 10
+     */
+    private static void sendConcurrently(Notification email, int messages) throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int batch = 0; batch < messages / 10; batch++) {
+                List<String> contents = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    contents.add("batch " + batch + " message " + i);
+                }
+                futures.add(executor.submit(() -> email.sendBatch(contents)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+
+    private static SmtpTransport transport(SmtpStandInServer server, int maxMessagesPerSession) {
+        return SmtpTransport.builder("127.0.0.1", server.port())
+                .credentials(SmtpStandInServer.USERNAME, SmtpStandInServer.PASSWORD)
+                .from("noreply@example.com")
+                .to("ops@example.com")
+                .maxConnections(4)
+                .maxMessagesPerSession(maxMessagesPerSession)
+                .build();
+    }
+}
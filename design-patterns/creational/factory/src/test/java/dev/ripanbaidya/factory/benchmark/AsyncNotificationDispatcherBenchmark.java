@@ -0,0 +1,78 @@
+package dev.ripanbaidya.factory.benchmark;
+
+import dev.ripanbaidya.factory.AsyncNotificationDispatcher;
+import dev.ripanbaidya.factory.Notification;
+import dev.ripanbaidya.factory.NotificationChannel;
+import dev.ripanbaidya.factory.NotificationProvider;
+import dev.ripanbaidya.factory.NotificationRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long fast Push messages take to go out through {@link AsyncNotificationDispatcher}
+ * while the Email channel is slow: 40 emails at 50 ms each interleaved with 1000 pushes
+ * that cost nothing to deliver.
+ *
+ * With a queue and worker per channel the pushes finish in a few milliseconds, long
+ * before the 2 s the emails need. Not a JMH benchmark: the figure of interest is the
+ * wall time of one mixed burst.
+ */
+public class AsyncNotificationDispatcherBenchmark {
+
+    private static final int EMAILS = 40;
+    private static final int PUSHES_PER_EMAIL = 25;
+    private static final long EMAIL_MILLIS = 50;
+
+    public static void main(String[] args) throws Exception {
+        NotificationRegistry registry = new NotificationRegistry(List.of(
+                channel(NotificationChannel.EMAIL, EMAIL_MILLIS),
+                channel(NotificationChannel.PUSH, 0)));
+
+        try (AsyncNotificationDispatcher dispatcher =
+                     new AsyncNotificationDispatcher(registry, 1000, AsyncNotificationDispatcher.OverflowPolicy.BLOCK)) {
+            List<CompletableFuture<Void>> emailFutures = new ArrayList<>();
+            List<CompletableFuture<Void>> pushFutures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < EMAILS; i++) {
+                emailFutures.add(dispatcher.send(NotificationChannel.EMAIL, "email " + i));
+                for (int j = 0; j < PUSHES_PER_EMAIL; j++) {
+                    pushFutures.add(dispatcher.send(NotificationChannel.PUSH, "push " + i + "/" + j));
+                }
+            }
+
+            CompletableFuture.allOf(pushFutures.toArray(CompletableFuture[]::new)).join();
+            long pushMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            CompletableFuture.allOf(emailFutures.toArray(CompletableFuture[]::new)).join();
+            long emailMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            System.out.printf("AsyncNotificationDispatcher: %d push in %d ms, %d slow email (%d ms each) in %d ms%n",
+                    pushFutures.size(), pushMillis, emailFutures.size(), EMAIL_MILLIS, emailMillis);
+        }
+    }
+
+    /**
+     * Stand-in channel with a fixed per-message latency
+     */
+    private static NotificationProvider channel(NotificationChannel channel, long delayMillis) {
+        return new NotificationProvider() {
+            @Override
+            public NotificationChannel channel() {
+                return channel;
+            }
+
+            @Override
+            public Notification create() {
+                return message -> {
+                    try {
+                        Thread.sleep(delayMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                };
+            }
+        };
+    }
+}
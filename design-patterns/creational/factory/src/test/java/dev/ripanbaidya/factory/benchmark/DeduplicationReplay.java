@@ -0,0 +1,58 @@
+package dev.ripanbaidya.factory.benchmark;
+
+import dev.ripanbaidya.factory.DeduplicatingNotification;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Replays 10M messages through {@link DeduplicatingNotification}, one in ten of them a
+ * retry of a recent message, and reports the false positive rate and per-check latency.
+ *
+ * Not a JMH benchmark: the point is the behaviour of a long, realistic stream, which
+ * JMH's repeated invocations of a small operation cannot show. Latency is sampled on
+ * every 64th check to keep the timer out of the measurement.
+ */
+public class DeduplicationReplay {
+
+    private static final int MESSAGES = 10_000_000;
+    private static final int SAMPLE_EVERY = 64;
+
+    public static void main(String[] args) {
+        long[] sent = new long[1];
+        DeduplicatingNotification notification = new DeduplicatingNotification(
+                message -> sent[0]++, 1_000_000, 0.01, Duration.ofMinutes(10), 10_000);
+
+        SplittableRandom random = new SplittableRandom(42);
+        long[] samples = new long[MESSAGES / SAMPLE_EVERY];
+        int sampled = 0;
+        int next = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+            // 10% retries of one of the last 1000 messages, which the LRU still holds
+            String message = random.nextInt(10) == 0 && next > 1000
+                    ? "order-" + (next - 1 - random.nextInt(1000))
+                    : "order-" + next++;
+            if (i % SAMPLE_EVERY == 0) {
+                long t0 = System.nanoTime();
+                notification.send(message);
+                samples[sampled++] = System.nanoTime() - t0;
+            } else {
+                notification.send(message);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(samples, 0, sampled);
+        DeduplicatingNotification.Stats stats = notification.stats();
+        System.out.printf("messages:            %,d%n", stats.checks());
+        System.out.printf("sent:                %,d%n", sent[0]);
+        System.out.printf("duplicates dropped:  %,d%n", stats.duplicates());
+        System.out.printf("false positives:     %,d (%.4f%%)%n", stats.falsePositives(), stats.falsePositiveRate() * 100);
+        System.out.printf("filter memory:       %,d bytes%n", notification.filterMemoryBytes());
+        System.out.printf("mean per check:      %.1f ns%n", (double) elapsed / MESSAGES);
+        System.out.printf("p50 / p99 / p99.9:   %d / %d / %d ns%n",
+                samples[sampled / 2], samples[(int) (sampled * 0.99)], samples[(int) (sampled * 0.999)]);
+    }
+}
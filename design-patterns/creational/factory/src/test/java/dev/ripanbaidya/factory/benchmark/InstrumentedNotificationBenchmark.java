@@ -0,0 +1,65 @@
+package dev.ripanbaidya.factory.benchmark;
+
+import dev.ripanbaidya.factory.InstrumentedNotification;
+import dev.ripanbaidya.factory.Notification;
+import dev.ripanbaidya.factory.NotificationChannel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link InstrumentedNotification} on top of a send that does nothing, i.e.
+ * the worst case where the instrumentation is all there is. Run main() with -prof gc
+ * to confirm the recording path allocates nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstrumentedNotificationBenchmark {
+
+    private static final String MESSAGE = "benchmark";
+
+    private Blackhole blackhole;
+    private Notification plain;
+    private Notification instrumented;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        plain = message -> this.blackhole.consume(message);
+        instrumented = new InstrumentedNotification(plain, NotificationChannel.PUSH, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public void plain() {
+        plain.send(MESSAGE);
+    }
+
+    @Benchmark
+    public void instrumented() {
+        instrumented.send(MESSAGE);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(InstrumentedNotificationBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,79 @@
+package dev.ripanbaidya.factory.benchmark;
+
+import dev.ripanbaidya.factory.NotificationChannel;
+import dev.ripanbaidya.factory.NotificationOutbox;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Appends per second to {@link NotificationOutbox} for each fsync policy. main() runs
+ * the suite at 1 and 16 threads: with GROUP_COMMIT the extra appenders share fsyncs,
+ * so throughput should grow with the thread count while EVERY_APPEND stays flat.
+ * Results depend heavily on the disk, run it on the machine you deploy to.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotificationOutboxBenchmark {
+
+    private static final String MESSAGE = "Your order #1234 has been shipped";
+
+    @Param({"NONE", "GROUP_COMMIT", "EVERY_APPEND"})
+    public NotificationOutbox.FsyncPolicy fsyncPolicy;
+
+    private Path directory;
+    private NotificationOutbox outbox;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("outbox-benchmark");
+        outbox = NotificationOutbox.open(directory, 64 * 1024 * 1024, fsyncPolicy);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        outbox.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public long append() throws IOException {
+        return outbox.append(NotificationChannel.EMAIL, MESSAGE);
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int threads : new int[]{1, 16}) {
+            new Runner(new OptionsBuilder()
+                    .include(NotificationOutboxBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+}
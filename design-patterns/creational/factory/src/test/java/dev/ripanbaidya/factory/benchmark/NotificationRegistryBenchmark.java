@@ -0,0 +1,89 @@
+package dev.ripanbaidya.factory.benchmark;
+
+import dev.ripanbaidya.factory.EmailNotificationFactory;
+import dev.ripanbaidya.factory.Notification;
+import dev.ripanbaidya.factory.NotificationChannel;
+import dev.ripanbaidya.factory.NotificationFactory;
+import dev.ripanbaidya.factory.NotificationRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Send throughput of the cached registry against the old allocate-per-message path.
+ * stdout is swallowed so the benchmark measures dispatch rather than console I/O.
+ * Run through main() on the test classpath (mvn test-compile first).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotificationRegistryBenchmark {
+
+    private PrintStream stdout;
+    private NotificationRegistry registry;
+    private NotificationFactory factory;
+    private String type;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        registry = NotificationRegistry.getDefault();
+        factory = new EmailNotificationFactory();
+        type = "EMAIL";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    /**
+     * Previous behavior: string switch and a new notification per message
+     */
+    @Benchmark
+    public void allocatePerMessage(Blackhole blackhole) {
+        Notification notification = switch (type) {
+            case "EMAIL" -> new dev.ripanbaidya.factory.EmailNotification();
+            case "PUSH" -> new dev.ripanbaidya.factory.PushNotification();
+            default -> throw new IllegalArgumentException("Invalid notification type");
+        };
+        notification.send("benchmark");
+        blackhole.consume(notification);
+    }
+
+    @Benchmark
+    public void registry() {
+        registry.send(NotificationChannel.EMAIL, "benchmark");
+    }
+
+    @Benchmark
+    public void factoryMethod() {
+        factory.send("benchmark");
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(NotificationRegistryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
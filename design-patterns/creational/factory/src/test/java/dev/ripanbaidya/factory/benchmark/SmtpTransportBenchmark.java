@@ -0,0 +1,80 @@
+package dev.ripanbaidya.factory.benchmark;
+
+import dev.ripanbaidya.factory.EmailNotification;
+import dev.ripanbaidya.factory.Notification;
+import dev.ripanbaidya.factory.SmtpStandInServer;
+import dev.ripanbaidya.factory.SmtpTransport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Throughput of {@link SmtpTransport} with a connection per message against pooled,
+ * pipelined sessions, sending to a loopback {@link SmtpStandInServer} from 4 threads in
+ * batches of 10.
+ *
+ * Every session costs 5 ms of setup on the server, roughly a TLS handshake on a nearby
+ * relay, so the numbers show how much of a message's cost is the session rather than
+ * the message. Not a JMH benchmark: one run sends a few hundred messages over real
+ * sockets and the interesting figure is messages per second.
+ *
+ * Usage, from the module directory after mvn test-compile:
+ * <pre>
+ *     java -cp target/classes:target/test-classes:&lt;test classpath&gt; \
+ *         dev.ripanbaidya.factory.benchmark.SmtpTransportBenchmark [messages]
+ * </pre>
+ */
+public class SmtpTransportBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        try (SmtpStandInServer server = new SmtpStandInServer(true, 5)) {
+            // Warm-up, so class loading and JIT do not land on the first mode
+            run(server, 100, messages);
+
+            int before = server.connections.get();
+            double perMessage = run(server, 1, messages);
+            int connectionsPerMessage = server.connections.get() - before;
+
+            before = server.connections.get();
+            double pooled = run(server, 100, messages);
+            int pooledConnections = server.connections.get() - before;
+
+            System.out.printf("SMTP connection-per-message: %,8.0f msg/s over %d connections%n", perMessage, connectionsPerMessage);
+            System.out.printf("SMTP pooled + pipelined:     %,8.0f msg/s over %d connections%n", pooled, pooledConnections);
+        }
+    }
+
+    /**
+     * @return messages per second
+     */
+    private static double run(SmtpStandInServer server, int maxMessagesPerSession, int messages) throws Exception {
+        try (SmtpTransport smtp = SmtpTransport.builder("127.0.0.1", server.port())
+                .credentials(SmtpStandInServer.USERNAME, SmtpStandInServer.PASSWORD)
+                .from("noreply@example.com")
+                .to("ops@example.com")
+                .maxConnections(4)
+                .maxMessagesPerSession(maxMessagesPerSession)
+                .build()) {
+            Notification email = new EmailNotification(smtp);
+            long start = System.nanoTime();
+            try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int batch = 0; batch < messages / 10; batch++) {
+                    List<String> contents = new ArrayList<>();
+                    for (int i = 0; i < 10; i++) {
+                        contents.add("batch " + batch + " message " + i);
+                    }
+                    futures.add(executor.submit(() -> email.sendBatch(contents)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+            return messages / ((System.nanoTime() - start) / 1e9);
+        }
+    }
+}
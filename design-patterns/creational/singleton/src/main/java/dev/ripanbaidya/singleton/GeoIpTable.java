@@ -0,0 +1,182 @@
+package dev.ripanbaidya.singleton;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * An expensive singleton: a table mapping IPv4 address ranges to country codes, the
+ * kind of lookup table that takes a noticeable time to build at every startup.
+ *
+ * Instead of rebuilding it, the table can be saved with {@link #saveSnapshot(Path)} at
+ * shutdown and brought back with {@link #restore(Path)} at startup.
+ *
+ * Restoring keeps the singleton guarantee the same way {@link BreakSingletonPattern}
+ * fixes deserialization: the decoded table goes through readResolve(), which installs
+ * it only if no instance exists yet and otherwise returns the existing one. Java
+ * serialization of the table goes through the very same readResolve().
+ *
+ * Usage:
+ * <pre>
+ *     GeoIpTable table = GeoIpTable.restoreOrBuild(snapshot);
+ *     int country = table.countryOf(address);
+ *     ...
+ *     table.saveSnapshot(snapshot);
+ * </pre>
+ */
+public final class GeoIpTable implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final int RANGES = 1 << 20;
+    private static final int COUNTRIES = 250;
+
+    private static final SingletonSnapshot.Codec<GeoIpTable> CODEC = new SingletonSnapshot.Codec<>() {
+        @Override
+        public long size(GeoIpTable table) {
+            return Integer.BYTES + (long) table.starts.length * (Integer.BYTES + Short.BYTES);
+        }
+
+        @Override
+        public void encode(GeoIpTable table, ByteBuffer out) {
+            out.putInt(table.starts.length);
+            out.asIntBuffer().put(table.starts);
+            out.position(out.position() + table.starts.length * Integer.BYTES);
+            out.asShortBuffer().put(table.countries);
+            out.position(out.position() + table.countries.length * Short.BYTES);
+        }
+
+        @Override
+        public GeoIpTable decode(ByteBuffer in) {
+            int length = in.getInt();
+            // The CRC only proves the payload is what was written, not that the count fits it.
+            // An empty table has no range for countryOf() to fall back on, so it is malformed too
+            if (length <= 0 || (long) length * (Integer.BYTES + Short.BYTES) != in.remaining()) {
+                throw new IllegalArgumentException("Payload of " + (Integer.BYTES + in.remaining())
+                        + " bytes does not hold " + length + " ranges");
+            }
+            int[] starts = new int[length];
+            short[] countries = new short[length];
+            // Bulk copies straight out of the mapped pages
+            in.asIntBuffer().get(starts);
+            in.position(in.position() + length * Integer.BYTES);
+            in.asShortBuffer().get(countries);
+            return new GeoIpTable(starts, countries);
+        }
+    };
+
+    private static volatile GeoIpTable instance;
+
+    // Sorted range start addresses, as unsigned ints, and the country of each range
+    private final int[] starts;
+    private final short[] countries;
+
+    private GeoIpTable(int[] starts, short[] countries) {
+        this.starts = starts;
+        this.countries = countries;
+    }
+
+    public static GeoIpTable getInstance() {
+        GeoIpTable current = instance;
+        if (current == null) {
+            synchronized (GeoIpTable.class) {
+                current = instance;
+                if (current == null) {
+                    current = build();
+                    instance = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Restores the table from a snapshot. If an instance already exists it is returned
+     * and the snapshot is not used.
+     */
+    public static GeoIpTable restore(Path snapshot) throws IOException {
+        return (GeoIpTable) SingletonSnapshot.read(snapshot, CODEC).readResolve();
+    }
+
+    /**
+     * Restores from the snapshot if there is a usable one, builds the table otherwise
+     */
+    public static GeoIpTable restoreOrBuild(Path snapshot) {
+        if (Files.exists(snapshot)) {
+            try {
+                return restore(snapshot);
+            } catch (IOException | RuntimeException e) {
+                // Whatever is wrong with the snapshot, the table can still be built
+                System.err.println("GeoIpTable: ignoring snapshot " + snapshot + ": " + e);
+            }
+        }
+        return getInstance();
+    }
+
+    public void saveSnapshot(Path snapshot) throws IOException {
+        SingletonSnapshot.write(snapshot, this, CODEC);
+    }
+
+    /**
+     * Country code of the range containing the address
+     */
+    public int countryOf(int address) {
+        // Last range starting at or before the address, comparing as unsigned
+        int low = 0;
+        int high = starts.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (Integer.compareUnsigned(starts[mid], address) <= 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return countries[low];
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    /**
+     * Makes a restored or deserialized table the instance, unless there already is one
+     */
+    @Serial
+    private Object readResolve() {
+        synchronized (GeoIpTable.class) {
+            if (instance == null) {
+                instance = this;
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Stands in for loading and parsing a vendor database
+     */
+    private static GeoIpTable build() {
+        SplittableRandom random = new SplittableRandom(42);
+        // Starts are generated with the sign bit flipped, which turns unsigned order into
+        // signed order so a plain sort works. MIN_VALUE becomes address 0, so every
+        // address falls into some range.
+        int[] starts = new int[RANGES];
+        starts[0] = Integer.MIN_VALUE;
+        for (int i = 1; i < RANGES; i++) {
+            starts[i] = random.nextInt();
+        }
+        Arrays.sort(starts);
+        short[] countries = new short[RANGES];
+        for (int i = 0; i < RANGES; i++) {
+            starts[i] ^= Integer.MIN_VALUE;
+            countries[i] = (short) random.nextInt(COUNTRIES);
+        }
+        return new GeoIpTable(starts, countries);
+    }
+}
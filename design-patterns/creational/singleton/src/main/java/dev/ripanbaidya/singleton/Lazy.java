@@ -0,0 +1,80 @@
+package dev.ripanbaidya.singleton;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Reusable double-checked lazy holder, so classes do not have to copy
+ * {@link DoubleCheckedSingleton} to get a lazily created shared instance.
+ *
+ * Once the value exists, get() is a single acquire read: it pairs with the release
+ * write that published the value, which is exactly the ordering double-checked locking
+ * needs, and on x86 it is as cheap as a plain load. Unlike a volatile field it does not
+ * also order every later read and write.
+ *
+ * The first callers serialize on a lock while the initializer runs. If the initializer
+ * throws, nothing is cached and the next call runs it again.
+ *
+ * Usage:
+ * <pre>
+ *     private static final Lazy&lt;ExpensiveClient&gt; CLIENT = Lazy.of(ExpensiveClient::new);
+ *     CLIENT.get().call();
+ * </pre>
+ */
+public final class Lazy<T> implements Supplier<T> {
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(Lazy.class, "value", Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Supplier<? extends T> initializer;
+    // A ReentrantLock rather than synchronized, so a virtual thread waiting here does not pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    // Only accessed through VALUE
+    @SuppressWarnings("unused")
+    private Object value;
+
+    private Lazy(Supplier<? extends T> initializer) {
+        this.initializer = Objects.requireNonNull(initializer, "initializer");
+    }
+
+    public static <T> Lazy<T> of(Supplier<? extends T> initializer) {
+        return new Lazy<>(initializer);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get() {
+        Object current = VALUE.getAcquire(this);
+        return current != null ? (T) current : initialize();
+    }
+
+    public boolean isInitialized() {
+        return VALUE.getAcquire(this) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T initialize() {
+        lock.lock();
+        try {
+            // The lock orders this read after any earlier initialization, a plain read is enough
+            Object current = VALUE.get(this);
+            if (current == null) {
+                current = Objects.requireNonNull(initializer.get(), "initializer returned null");
+                VALUE.setRelease(this, current);
+            }
+            return (T) current;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
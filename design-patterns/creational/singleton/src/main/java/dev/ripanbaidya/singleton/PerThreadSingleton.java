@@ -0,0 +1,80 @@
+package dev.ripanbaidya.singleton;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * One instance per thread, for mutable scratch state that would otherwise sit behind
+ * a lock like {@link ThreadSafeSingleton}: every thread works on its own instance, so
+ * nothing is shared and nothing is locked on the way in.
+ *
+ * Reads across threads go through {@link #aggregate()}, which merges all instances the
+ * way LongAdder.sum() adds up its cells. Instances of threads that have ended are kept
+ * and still counted. Like sum(), the result is not an atomic snapshot while threads keep
+ * writing, and fields the merge function reads should be volatile or atomic so that
+ * other threads' writes are visible.
+ *
+ * Meant for a bounded set of platform threads, such as a pool. Every virtual thread
+ * would get, and leave behind, an instance of its own: use {@link ScopedSingleton} or
+ * {@link StripedSingleton} there.
+ *
+ * Usage:
+ * <pre>
+ *     private static final PerThreadSingleton&lt;Stats&gt; STATS = PerThreadSingleton.of(Stats::new, Stats::merge);
+ *     STATS.get().record(latency);
+ *     Stats total = STATS.aggregate();
+ * </pre>
+ */
+public final class PerThreadSingleton<T> {
+
+    private final Supplier<? extends T> factory;
+    private final BinaryOperator<T> merge;
+    private final Queue<T> instances = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<T> current;
+
+    private PerThreadSingleton(Supplier<? extends T> factory, BinaryOperator<T> merge) {
+        this.factory = Objects.requireNonNull(factory, "factory");
+        this.merge = Objects.requireNonNull(merge, "merge");
+        this.current = ThreadLocal.withInitial(() -> {
+            T instance = Objects.requireNonNull(factory.get(), "factory returned null");
+            instances.add(instance);
+            return instance;
+        });
+    }
+
+    /**
+     * @param merge combines two instances into one, it may update and return its first
+     *              argument but must not change the second
+     */
+    public static <T> PerThreadSingleton<T> of(Supplier<? extends T> factory, BinaryOperator<T> merge) {
+        return new PerThreadSingleton<>(factory, merge);
+    }
+
+    /**
+     * The calling thread's instance, created on its first call
+     */
+    public T get() {
+        return current.get();
+    }
+
+    /**
+     * All instances merged into a new one
+     */
+    public T aggregate() {
+        T result = factory.get();
+        for (T instance : instances) {
+            result = merge.apply(result, instance);
+        }
+        return result;
+    }
+
+    /**
+     * Number of instances created so far, one per thread that called get()
+     */
+    public int instances() {
+        return instances.size();
+    }
+}
@@ -0,0 +1,116 @@
+package dev.ripanbaidya.singleton;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * An instance bound to a scope rather than to a thread: {@link #run(Runnable)} creates
+ * a fresh instance, and everything the task calls on that thread sees it through
+ * {@link #get()} until the task returns. This is the shape of Java's ScopedValue, which
+ * is still a preview API on Java 21, with a binding that is restored on the way out.
+ *
+ * Unlike {@link PerThreadSingleton} nothing outlives the scope, so it suits virtual
+ * threads, one per task: the thread's binding is removed when its outermost scope
+ * ends. A nested run() binds its own instance and the outer one comes back after it.
+ * Threads started inside the scope do not see the binding.
+ *
+ * When a scope ends its instance is merged into a running total. The totals are a
+ * {@link StripedSingleton}, so scopes ending on different threads do not all queue on
+ * one lock. {@link #aggregate()} merges the totals, so it covers finished scopes only,
+ * and no instance is read while its scope still writes to it.
+ *
+ * Usage:
+ * <pre>
+ *     private static final ScopedSingleton&lt;Stats&gt; STATS = ScopedSingleton.of(Stats::new, Stats::merge);
+ *     executor.submit(() -&gt; STATS.run(this::handleRequest)); // handleRequest calls STATS.get()
+ *     Stats total = STATS.aggregate();
+ * </pre>
+ */
+public final class ScopedSingleton<T> {
+
+    private final Supplier<? extends T> factory;
+    private final ThreadLocal<T> bound = new ThreadLocal<>();
+    private final StripedSingleton<T> totals;
+
+    private ScopedSingleton(Supplier<? extends T> factory, BinaryOperator<T> merge) {
+        this.factory = Objects.requireNonNull(factory, "factory");
+        this.totals = StripedSingleton.of(Runtime.getRuntime().availableProcessors(), factory, merge);
+    }
+
+    /**
+     * @param merge combines two instances into one, it may update and return its first
+     *              argument but must not change the second
+     */
+    public static <T> ScopedSingleton<T> of(Supplier<? extends T> factory, BinaryOperator<T> merge) {
+        return new ScopedSingleton<>(factory, merge);
+    }
+
+    /**
+     * Runs the task with a fresh instance bound
+     */
+    public void run(Runnable task) {
+        Objects.requireNonNull(task, "task");
+        T outer = bound.get();
+        T instance = newInstance();
+        bound.set(instance);
+        try {
+            task.run();
+        } finally {
+            close(outer, instance);
+        }
+    }
+
+    /**
+     * Calls the task with a fresh instance bound and returns its result
+     */
+    public <R> R call(Callable<? extends R> task) throws Exception {
+        Objects.requireNonNull(task, "task");
+        T outer = bound.get();
+        T instance = newInstance();
+        bound.set(instance);
+        try {
+            return task.call();
+        } finally {
+            close(outer, instance);
+        }
+    }
+
+    /**
+     * The instance of the innermost enclosing scope
+     *
+     * @throws IllegalStateException if called outside of run() or call()
+     */
+    public T get() {
+        T instance = bound.get();
+        if (instance == null) {
+            throw new IllegalStateException("No instance bound, call get() inside run() or call()");
+        }
+        return instance;
+    }
+
+    public boolean isBound() {
+        return bound.get() != null;
+    }
+
+    /**
+     * The instances of all finished scopes merged into a new one
+     */
+    public T aggregate() {
+        return totals.aggregate();
+    }
+
+    private void close(T outer, T instance) {
+        if (outer == null) {
+            bound.remove();
+        } else {
+            bound.set(outer);
+        }
+        totals.mergeIn(instance);
+    }
+
+    private T newInstance() {
+        return Objects.requireNonNull(factory.get(), "factory returned null");
+    }
+}
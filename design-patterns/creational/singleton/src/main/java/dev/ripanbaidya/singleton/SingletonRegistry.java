@@ -0,0 +1,68 @@
+package dev.ripanbaidya.singleton;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Lazily created singletons looked up by type.
+ *
+ * Every type gets its own {@link Lazy}, and with it its own initialization lock: a
+ * slow constructor only blocks callers of that same type, lookups of every other type
+ * go on. Reading an already created instance takes no lock at all, a ConcurrentHashMap
+ * get followed by the acquire read in {@link Lazy#get()}.
+ *
+ * Usage:
+ * <pre>
+ *     SingletonRegistry registry = new SingletonRegistry();
+ *     registry.register(PaymentClient.class, PaymentClient::new);
+ *     PaymentClient client = registry.get(PaymentClient.class); // created on first use
+ * </pre>
+ */
+public class SingletonRegistry {
+
+    private final ConcurrentMap<Class<?>, Lazy<?>> holders = new ConcurrentHashMap<>();
+
+    /**
+     * Registers how to create the type's instance, which happens on the first get()
+     *
+     * @throws IllegalStateException if the type is already registered
+     */
+    public <T> void register(Class<T> type, Supplier<? extends T> initializer) {
+        Objects.requireNonNull(type, "type");
+        if (holders.putIfAbsent(type, Lazy.of(initializer)) != null) {
+            throw new IllegalStateException(type.getName() + " is already registered");
+        }
+    }
+
+    /**
+     * The type's instance, created on first use
+     *
+     * @throws IllegalArgumentException if the type has not been registered
+     */
+    public <T> T get(Class<T> type) {
+        Lazy<?> holder = holders.get(type);
+        if (holder == null) {
+            throw new IllegalArgumentException(type.getName() + " is not registered");
+        }
+        return type.cast(holder.get());
+    }
+
+    /**
+     * The type's instance, registering the initializer first if the type is unknown.
+     * Only the cheap holder is created inside the map, the initializer runs outside of it.
+     */
+    public <T> T getOrCreate(Class<T> type, Supplier<? extends T> initializer) {
+        Lazy<?> holder = holders.get(type);
+        if (holder == null) {
+            holder = holders.computeIfAbsent(type, key -> Lazy.of(initializer));
+        }
+        return type.cast(holder.get());
+    }
+
+    public boolean isInitialized(Class<?> type) {
+        Lazy<?> holder = holders.get(type);
+        return holder != null && holder.isInitialized();
+    }
+}
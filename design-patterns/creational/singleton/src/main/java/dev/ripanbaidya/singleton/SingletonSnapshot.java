@@ -0,0 +1,139 @@
+package dev.ripanbaidya.singleton;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact binary snapshots of singleton state, written at shutdown and read back at
+ * startup through a memory-mapped file.
+ *
+ * Compared to ObjectOutputStream there are no class descriptors, field names or object
+ * handles in the file, only the raw data laid out by a {@link Codec}, and reading it is
+ * a bulk copy out of the page cache. Layout:
+ * <pre>
+ *     int  magic
+ *     int  format version
+ *     long payload length
+ *     int  CRC32C of the payload
+ *     ...  payload, little-endian
+ * </pre>
+ *
+ * A snapshot is written to a uniquely named temporary file next to it and moved into place
+ * atomically, so a crash during shutdown leaves the previous snapshot intact instead of a
+ * truncated one, and two processes saving at once cannot write into each other's file.
+ *
+ * Decoding only creates a candidate instance. Like readResolve() after Java
+ * deserialization, the singleton decides whether the candidate becomes the instance,
+ * see {@link GeoIpTable#restore(Path)}.
+ */
+public final class SingletonSnapshot {
+
+    /**
+     * Converts one singleton's state to and from its binary form
+     */
+    public interface Codec<T> {
+
+        /**
+         * Exact number of payload bytes {@link #encode} will write
+         */
+        long size(T value);
+
+        void encode(T value, ByteBuffer out);
+
+        /**
+         * Reads the payload back. The payload passed the CRC check, but a codec must still
+         * check it against itself, e.g. that a length field matches the bytes that follow.
+         *
+         * @throws RuntimeException if the payload is not a valid encoding
+         */
+        T decode(ByteBuffer in);
+    }
+
+    private static final int MAGIC = 0x534E4150; // "SNAP"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private SingletonSnapshot() {
+    }
+
+    public static <T> void write(Path file, T value, Codec<T> codec) throws IOException {
+        long size = codec.size(value);
+        if (size > Integer.MAX_VALUE - HEADER_SIZE) {
+            throw new IOException("Snapshot of " + size + " bytes is too large");
+        }
+        // Same directory as the snapshot, or the move could not be atomic
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        boolean moved = false;
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + size);
+                mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+                ByteBuffer payload = mapped.slice(HEADER_SIZE, (int) size).order(ByteOrder.LITTLE_ENDIAN);
+                codec.encode(value, payload);
+                if (payload.hasRemaining()) {
+                    throw new IOException("Codec wrote " + payload.position() + " of the " + size + " bytes it announced");
+                }
+                CRC32C crc = new CRC32C();
+                crc.update(payload.flip());
+
+                mapped.putInt(0, MAGIC)
+                        .putInt(4, FORMAT_VERSION)
+                        .putLong(8, size)
+                        .putInt(16, (int) crc.getValue());
+                mapped.force();
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            moved = true;
+        } finally {
+            if (!moved) {
+                // Do not leave a half written file behind for every failed attempt
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Maps the snapshot, checks it and decodes a candidate instance
+     *
+     * @throws IOException if the file is not a snapshot, is truncated or corrupted, or the
+     *                     codec cannot decode its payload
+     */
+    public static <T> T read(Path file, Codec<T> codec) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException("Not a snapshot: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Not a snapshot, or written by an incompatible version: " + file);
+            }
+            long size = mapped.getLong(8);
+            if (size != fileSize - HEADER_SIZE) {
+                throw new IOException("Truncated snapshot: " + file);
+            }
+
+            ByteBuffer payload = mapped.slice(HEADER_SIZE, (int) size).order(ByteOrder.LITTLE_ENDIAN);
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != mapped.getInt(16)) {
+                throw new IOException("Corrupted snapshot: " + file);
+            }
+            try {
+                return codec.decode(payload);
+            } catch (RuntimeException e) {
+                throw new IOException("Malformed snapshot: " + file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package dev.ripanbaidya.singleton;
+
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A fixed pool of N instances with a lock each, in place of one instance behind one
+ * lock like {@link ThreadSafeSingleton}. Callers still get exclusive use of an
+ * instance, so its state needs no synchronization of its own, but they only contend
+ * with the callers that hash to the same stripe.
+ *
+ * A caller starts at the stripe its thread id hashes to. If that one is busy it tries
+ * the others once without waiting, and only then waits for its own. Works the same for
+ * platform and virtual threads, and the number of instances stays N however many
+ * threads there are. The locks are ReentrantLocks, so a waiting virtual thread does not
+ * pin its carrier.
+ *
+ * {@link #aggregate()} merges the stripes one at a time under their locks, the same
+ * way LongAdder.sum() adds up its cells: every stripe is read consistently, the total
+ * is not an atomic snapshot.
+ *
+ * Usage:
+ * <pre>
+ *     private static final StripedSingleton&lt;Stats&gt; STATS = StripedSingleton.of(8, Stats::new, Stats::merge);
+ *     STATS.with(stats -&gt; stats.record(latency));
+ *     Stats total = STATS.aggregate();
+ * </pre>
+ */
+public final class StripedSingleton<T> {
+
+    private final Supplier<? extends T> factory;
+    private final BinaryOperator<T> merge;
+    private final Object[] instances;
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    private StripedSingleton(int stripes, Supplier<? extends T> factory, BinaryOperator<T> merge) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes must be at least 1, was " + stripes);
+        }
+        this.factory = Objects.requireNonNull(factory, "factory");
+        this.merge = Objects.requireNonNull(merge, "merge");
+        // A power of two, so a stripe is picked with a mask
+        int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.instances = new Object[size];
+        this.locks = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            instances[i] = Objects.requireNonNull(factory.get(), "factory returned null");
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @param stripes number of instances, rounded up to a power of two
+     * @param merge   combines two instances into one, it may update and return its first
+     *                argument but must not change the second
+     */
+    public static <T> StripedSingleton<T> of(int stripes, Supplier<? extends T> factory, BinaryOperator<T> merge) {
+        return new StripedSingleton<>(stripes, factory, merge);
+    }
+
+    /**
+     * Runs the action with exclusive use of one of the instances
+     */
+    public void with(Consumer<? super T> action) {
+        apply(instance -> {
+            action.accept(instance);
+            return null;
+        });
+    }
+
+    /**
+     * Applies the function with exclusive use of one of the instances. The instance must
+     * not escape the function.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R apply(Function<? super T, ? extends R> function) {
+        int stripe = lock();
+        try {
+            return function.apply((T) instances[stripe]);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * All instances merged into a new one
+     */
+    @SuppressWarnings("unchecked")
+    public T aggregate() {
+        T result = factory.get();
+        for (int i = 0; i < instances.length; i++) {
+            locks[i].lock();
+            try {
+                result = merge.apply(result, (T) instances[i]);
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Merges the value into one of the instances, replacing it with the merge's result
+     */
+    @SuppressWarnings("unchecked")
+    void mergeIn(T value) {
+        int stripe = lock();
+        try {
+            instances[stripe] = merge.apply((T) instances[stripe], value);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    public int stripes() {
+        return instances.length;
+    }
+
+    /**
+     * Locks a stripe and returns its index
+     */
+    private int lock() {
+        int home = home();
+        for (int i = 0; i <= mask; i++) {
+            int stripe = (home + i) & mask;
+            if (locks[stripe].tryLock()) {
+                return stripe;
+            }
+        }
+        locks[home].lock();
+        return home;
+    }
+
+    private int home() {
+        // Fibonacci hashing spreads sequential thread ids over the stripes
+        long h = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+}
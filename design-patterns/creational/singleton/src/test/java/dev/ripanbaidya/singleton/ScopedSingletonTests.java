@@ -0,0 +1,128 @@
+package dev.ripanbaidya.singleton;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScopedSingletonTests {
+
+    /**
+     * Mutable scratch state, deliberately not thread-safe apart from the volatile read
+     * PerThreadSingleton's aggregate needs
+     */
+    static final class Tally {
+        volatile long count;
+
+        void add() {
+            count++;
+        }
+
+        Tally merge(Tally other) {
+            count += other.count;
+            return this;
+        }
+    }
+
+    @Test
+    void perThreadGivesEachThreadItsOwnInstance() throws Exception {
+        PerThreadSingleton<Tally> tallies = PerThreadSingleton.of(Tally::new, Tally::merge);
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(4)) {
+            List<Future<Tally>> futures = new ArrayList<>();
+            for (int task = 0; task < 8; task++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        tallies.get().add();
+                    }
+                    return tallies.get();
+                }));
+            }
+            for (Future<Tally> future : futures) {
+                future.get();
+            }
+        }
+
+        assertThat(tallies.instances()).isBetween(1, 4);
+        assertThat(tallies.aggregate().count).isEqualTo(80_000);
+        assertThat(tallies.get()).isSameAs(tallies.get());
+    }
+
+    @Test
+    void stripedPoolHandsOutInstancesExclusively() throws Exception {
+        StripedSingleton<Tally> tallies = StripedSingleton.of(3, Tally::new, Tally::merge);
+        assertThat(tallies.stripes()).isEqualTo(4);
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int task = 0; task < 64; task++) {
+                threads.submit(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        tallies.with(Tally::add);
+                    }
+                });
+            }
+        }
+
+        // Plain increments would lose updates if two threads ever shared an instance
+        assertThat(tallies.aggregate().count).isEqualTo(64_000);
+        assertThatThrownBy(() -> StripedSingleton.of(0, Tally::new, Tally::merge))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void scopedInstanceIsVisibleOnlyInsideItsScope() throws Exception {
+        ScopedSingleton<Tally> tallies = ScopedSingleton.of(Tally::new, Tally::merge);
+        assertThat(tallies.isBound()).isFalse();
+        assertThatThrownBy(tallies::get).isInstanceOf(IllegalStateException.class);
+
+        tallies.run(() -> {
+            Tally outer = tallies.get();
+            outer.add();
+            tallies.run(() -> {
+                assertThat(tallies.get()).isNotSameAs(outer);
+                tallies.get().add();
+            });
+            assertThat(tallies.get()).isSameAs(outer);
+        });
+        assertThat(tallies.isBound()).isFalse();
+        assertThat(tallies.call(() -> tallies.get() != null)).isTrue();
+
+        assertThat(tallies.aggregate().count).isEqualTo(2);
+    }
+
+    @Test
+    void scopedInstancesAggregateAcrossVirtualThreads() {
+        ScopedSingleton<Tally> tallies = ScopedSingleton.of(Tally::new, Tally::merge);
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int task = 0; task < 1_000; task++) {
+                threads.submit(() -> tallies.run(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        tallies.get().add();
+                    }
+                }));
+            }
+        }
+
+        assertThat(tallies.aggregate().count).isEqualTo(100_000);
+    }
+
+    @Test
+    void scopeIsClosedWhenTheTaskThrows() {
+        ScopedSingleton<Tally> tallies = ScopedSingleton.of(Tally::new, Tally::merge);
+
+        assertThatThrownBy(() -> tallies.run(() -> {
+            tallies.get().add();
+            throw new IllegalStateException("boom");
+        })).hasMessage("boom");
+
+        assertThat(tallies.isBound()).isFalse();
+        assertThat(tallies.aggregate().count).isEqualTo(1);
+    }
+}
@@ -0,0 +1,102 @@
+package dev.ripanbaidya.singleton;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingletonRegistryTests {
+
+    @Test
+    void createsOneInstanceUnderContention() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        Lazy<Object> lazy = Lazy.of(() -> {
+            created.incrementAndGet();
+            return new Object();
+        });
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Object> seen = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                seen.add(lazy.get());
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(seen).hasSize(1);
+        assertThat(created).hasValue(1);
+    }
+
+    @Test
+    void retriesFailedInitializer() {
+        AtomicInteger attempts = new AtomicInteger();
+        Lazy<String> lazy = Lazy.of(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("backend not ready");
+            }
+            return "ready";
+        });
+
+        assertThatThrownBy(lazy::get).hasMessage("backend not ready");
+        assertThat(lazy.isInitialized()).isFalse();
+        assertThat(lazy.get()).isEqualTo("ready");
+        assertThat(lazy.get()).isEqualTo("ready");
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void slowInitializationDoesNotBlockOtherTypes() throws Exception {
+        SingletonRegistry registry = new SingletonRegistry();
+        CountDownLatch release = new CountDownLatch(1);
+        registry.register(StringBuilder.class, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new StringBuilder("slow");
+        });
+        registry.register(Integer.class, () -> 42);
+
+        Thread slow = Thread.ofPlatform().start(() -> registry.get(StringBuilder.class));
+        Thread fast = Thread.ofPlatform().start(() -> registry.get(Integer.class));
+        fast.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertThat(fast.isAlive()).isFalse();
+        assertThat(registry.isInitialized(Integer.class)).isTrue();
+        assertThat(registry.isInitialized(StringBuilder.class)).isFalse();
+        release.countDown();
+        slow.join();
+        assertThat(registry.get(StringBuilder.class)).hasToString("slow");
+    }
+
+    @Test
+    void rejectsDuplicateAndUnknownTypes() {
+        SingletonRegistry registry = new SingletonRegistry();
+        registry.register(Integer.class, () -> 1);
+
+        assertThatThrownBy(() -> registry.register(Integer.class, () -> 2))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> registry.get(Long.class))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(registry.getOrCreate(Long.class, () -> 7L)).isEqualTo(7L);
+        assertThat(registry.getOrCreate(Long.class, () -> 8L)).isEqualTo(7L);
+    }
+}
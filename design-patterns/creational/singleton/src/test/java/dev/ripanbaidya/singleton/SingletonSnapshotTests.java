@@ -0,0 +1,186 @@
+package dev.ripanbaidya.singleton;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingletonSnapshotTests {
+
+    /**
+     * Snapshot of a plain long[], to test the format without a singleton's static state
+     */
+    private static final SingletonSnapshot.Codec<long[]> LONGS = new SingletonSnapshot.Codec<>() {
+        @Override
+        public long size(long[] value) {
+            return Integer.BYTES + (long) value.length * Long.BYTES;
+        }
+
+        @Override
+        public void encode(long[] value, ByteBuffer out) {
+            out.putInt(value.length);
+            for (long l : value) {
+                out.putLong(l);
+            }
+        }
+
+        @Override
+        public long[] decode(ByteBuffer in) {
+            long[] value = new long[in.getInt()];
+            for (int i = 0; i < value.length; i++) {
+                value[i] = in.getLong();
+            }
+            return value;
+        }
+    };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsThroughMappedFile() throws IOException {
+        Path file = directory.resolve("longs.snapshot");
+        long[] value = {1, -2, Long.MAX_VALUE, 42};
+
+        SingletonSnapshot.write(file, value, LONGS);
+
+        assertThat(SingletonSnapshot.read(file, LONGS)).containsExactly(value);
+        assertThat(Files.size(file)).isEqualTo(20 + 4 + 4 * 8);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).containsExactly(file);
+        }
+    }
+
+    @Test
+    void rejectsCorruptedAndTruncatedSnapshots() throws IOException {
+        Path file = directory.resolve("longs.snapshot");
+        SingletonSnapshot.write(file, new long[]{1, 2, 3}, LONGS);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{9}), 30);
+        }
+        assertThatThrownBy(() -> SingletonSnapshot.read(file, LONGS))
+                .isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Corrupted snapshot");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(25);
+        }
+        assertThatThrownBy(() -> SingletonSnapshot.read(file, LONGS))
+                .isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Truncated snapshot");
+    }
+
+    @Test
+    void restoringKeepsTheSingleInstance() throws Exception {
+        GeoIpTable table = GeoIpTable.getInstance();
+        Path snapshot = directory.resolve("geoip.snapshot");
+        table.saveSnapshot(snapshot);
+
+        assertThat(GeoIpTable.restore(snapshot)).isSameAs(table);
+        assertThat(GeoIpTable.restoreOrBuild(snapshot)).isSameAs(table);
+
+        // Java serialization goes through the same readResolve
+        Path serialized = directory.resolve("geoip.ser");
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(serialized))) {
+            out.writeObject(table);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(Files.newInputStream(serialized))) {
+            assertThat(in.readObject()).isSameAs(table);
+        }
+        // No class descriptors in the snapshot, so it is never larger than the serialized form
+        assertThat(Files.size(snapshot)).isLessThanOrEqualTo(Files.size(serialized));
+    }
+
+    @Test
+    void fallsBackToTheInstanceWhenTheSnapshotIsUnusable() throws IOException {
+        Path snapshot = directory.resolve("broken.snapshot");
+        Files.write(snapshot, new byte[]{1, 2, 3});
+
+        assertThatThrownBy(() -> GeoIpTable.restore(snapshot)).isInstanceOf(IOException.class);
+        GeoIpTable table = GeoIpTable.restoreOrBuild(snapshot);
+        assertThat(table).isSameAs(GeoIpTable.getInstance());
+        assertThat(table.countryOf(0)).isBetween(0, 249);
+        assertThat(table.countryOf(-1)).isBetween(0, 249);
+    }
+
+    @Test
+    void treatsAPayloadThatDoesNotMatchItsLengthAsMalformed() throws IOException {
+        // A well-formed snapshot, CRC and all, whose range count claims more than it holds
+        Path snapshot = directory.resolve("lying.snapshot");
+        SingletonSnapshot.write(snapshot, new long[]{0, 0}, new SingletonSnapshot.Codec<>() {
+            @Override
+            public long size(long[] value) {
+                return Integer.BYTES + (long) value.length * Long.BYTES;
+            }
+
+            @Override
+            public void encode(long[] value, ByteBuffer out) {
+                out.putInt(1 << 20);
+                for (long l : value) {
+                    out.putLong(l);
+                }
+            }
+
+            @Override
+            public long[] decode(ByteBuffer in) {
+                throw new UnsupportedOperationException();
+            }
+        });
+
+        assertThatThrownBy(() -> GeoIpTable.restore(snapshot))
+                .isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Malformed snapshot")
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(GeoIpTable.restoreOrBuild(snapshot)).isSameAs(GeoIpTable.getInstance());
+    }
+
+    @Test
+    void treatsAnEmptyTableAsMalformed() throws IOException {
+        // Payload of a single zero count, the same bytes an empty GeoIpTable would encode to
+        Path snapshot = directory.resolve("empty.snapshot");
+        SingletonSnapshot.write(snapshot, new long[0], LONGS);
+
+        assertThatThrownBy(() -> GeoIpTable.restore(snapshot))
+                .isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Malformed snapshot")
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(GeoIpTable.restoreOrBuild(snapshot).size()).isPositive();
+    }
+
+    @Test
+    void removesTheTemporaryFileWhenEncodingFails() {
+        Path file = directory.resolve("longs.snapshot");
+        SingletonSnapshot.Codec<long[]> failing = new SingletonSnapshot.Codec<>() {
+            @Override
+            public long size(long[] value) {
+                return LONGS.size(value);
+            }
+
+            @Override
+            public void encode(long[] value, ByteBuffer out) {
+                out.putInt(value.length);
+                throw new IllegalStateException("encoder bug");
+            }
+
+            @Override
+            public long[] decode(ByteBuffer in) {
+                return LONGS.decode(in);
+            }
+        };
+
+        assertThatThrownBy(() -> SingletonSnapshot.write(file, new long[]{1, 2}, failing))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(directory).isEmptyDirectory();
+    }
+}
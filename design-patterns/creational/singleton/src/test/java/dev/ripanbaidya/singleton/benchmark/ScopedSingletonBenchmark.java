@@ -0,0 +1,100 @@
+package dev.ripanbaidya.singleton.benchmark;
+
+import dev.ripanbaidya.singleton.PerThreadSingleton;
+import dev.ripanbaidya.singleton.ScopedSingleton;
+import dev.ripanbaidya.singleton.StripedSingleton;
+import dev.ripanbaidya.singleton.ThreadSafeSingleton;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updating mutable scratch state held by a singleton: one instance behind a lock, the
+ * way {@link ThreadSafeSingleton} guards its instance, against
+ * {@link PerThreadSingleton}, {@link StripedSingleton} and {@link ScopedSingleton}.
+ * Every operation is one task of 16 updates. main() runs it at 1, 2, 4 and 8 threads,
+ * up to the core count to see how each variant scales.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScopedSingletonBenchmark {
+
+    private static final int UPDATES = 16;
+
+    /**
+     * Scratch state: a small histogram
+     */
+    static final class Scratch {
+        final long[] buckets = new long[64];
+
+        void update(int i) {
+            buckets[i & 63]++;
+        }
+
+        Scratch merge(Scratch other) {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] += other.buckets[i];
+            }
+            return this;
+        }
+    }
+
+    private final Scratch shared = new Scratch();
+    private final PerThreadSingleton<Scratch> perThread = PerThreadSingleton.of(Scratch::new, Scratch::merge);
+    private final StripedSingleton<Scratch> striped =
+            StripedSingleton.of(Runtime.getRuntime().availableProcessors() * 2, Scratch::new, Scratch::merge);
+    private final ScopedSingleton<Scratch> scoped = ScopedSingleton.of(Scratch::new, Scratch::merge);
+
+    @Benchmark
+    public void synchronizedShared() {
+        synchronized (shared) {
+            task(shared);
+        }
+    }
+
+    @Benchmark
+    public void perThread() {
+        task(perThread.get());
+    }
+
+    @Benchmark
+    public void striped() {
+        striped.with(ScopedSingletonBenchmark::task);
+    }
+
+    @Benchmark
+    public void scoped() {
+        // A scope per task, the way a request handler would bind one
+        scoped.run(() -> task(scoped.get()));
+    }
+
+    private static void task(Scratch scratch) {
+        for (int i = 0; i < UPDATES; i++) {
+            scratch.update(i);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("available processors: " + Runtime.getRuntime().availableProcessors());
+        for (int threads : new int[]{1, 2, 4, 8}) {
+            new Runner(new OptionsBuilder()
+                    .include(ScopedSingletonBenchmark.class.getName() + "\\.")
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+}
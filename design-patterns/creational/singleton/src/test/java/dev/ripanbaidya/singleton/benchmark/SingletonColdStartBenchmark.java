@@ -0,0 +1,76 @@
+package dev.ripanbaidya.singleton.benchmark;
+
+import dev.ripanbaidya.singleton.BillPughSingleton;
+import dev.ripanbaidya.singleton.DoubleCheckedSingleton;
+import dev.ripanbaidya.singleton.EagerSingleton;
+import dev.ripanbaidya.singleton.EnumSingleton;
+import dev.ripanbaidya.singleton.LazySingleton;
+import dev.ripanbaidya.singleton.ThreadSafeSingleton;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the first getInstance() in a fresh JVM: class initialization, construction
+ * and, with several threads, the race to get there first.
+ *
+ * Each measurement is a single call in its own forked JVM, so nothing is loaded or
+ * compiled yet. Many forks are needed to get a stable number out of single shots.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class SingletonColdStartBenchmark {
+
+    @Benchmark
+    public Object eager() {
+        return EagerSingleton.getInstance();
+    }
+
+    @Benchmark
+    public Object lazy() {
+        return LazySingleton.getInstance();
+    }
+
+    @Benchmark
+    public Object threadSafe() {
+        return ThreadSafeSingleton.getInstance();
+    }
+
+    @Benchmark
+    public Object doubleChecked() {
+        return DoubleCheckedSingleton.getInstance();
+    }
+
+    @Benchmark
+    public Object billPugh() {
+        return BillPughSingleton.getInstance();
+    }
+
+    @Benchmark
+    public Object enumInstance() {
+        return EnumSingleton.INSTANCE;
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int threads : new int[]{1, 8, 64}) {
+            new Runner(new OptionsBuilder()
+                    .include(SingletonColdStartBenchmark.class.getName() + "\\.")
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package dev.ripanbaidya.singleton.benchmark;
+
+import dev.ripanbaidya.singleton.DoubleCheckedSingleton;
+import dev.ripanbaidya.singleton.Lazy;
+import dev.ripanbaidya.singleton.SingletonRegistry;
+import dev.ripanbaidya.singleton.ThreadSafeSingleton;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read path of {@link Lazy} and {@link SingletonRegistry} against the synchronized
+ * {@link ThreadSafeSingleton} and the volatile {@link DoubleCheckedSingleton}, once
+ * every instance exists. main() runs it at 1, 4, 16 and 64 threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SingletonRegistryBenchmark {
+
+    private final Lazy<Object> lazy = Lazy.of(Object::new);
+    private final SingletonRegistry registry = new SingletonRegistry();
+
+    @Setup
+    public void setUp() {
+        registry.register(Runnable.class, () -> () -> {
+        });
+        registry.get(Runnable.class);
+        lazy.get();
+    }
+
+    @Benchmark
+    public Object lazy() {
+        return lazy.get();
+    }
+
+    @Benchmark
+    public Object registry() {
+        return registry.get(Runnable.class);
+    }
+
+    @Benchmark
+    public Object threadSafe() {
+        return ThreadSafeSingleton.getInstance();
+    }
+
+    @Benchmark
+    public Object doubleChecked() {
+        return DoubleCheckedSingleton.getInstance();
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int threads : new int[]{1, 4, 16, 64}) {
+            new Runner(new OptionsBuilder()
+                    .include(SingletonRegistryBenchmark.class.getName() + "\\.")
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+}
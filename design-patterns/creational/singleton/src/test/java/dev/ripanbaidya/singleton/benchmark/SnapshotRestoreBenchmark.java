@@ -0,0 +1,80 @@
+package dev.ripanbaidya.singleton.benchmark;
+
+import dev.ripanbaidya.singleton.GeoIpTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of getting the {@link GeoIpTable} singleton: building it, restoring the
+ * binary snapshot, or Java deserialization.
+ *
+ * Each measurement is the first call in a freshly forked JVM, which is the situation
+ * at startup. main() writes the snapshot and the serialized file first and passes
+ * their directory to the forks.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class SnapshotRestoreBenchmark {
+
+    private static final String SNAPSHOT = "geoip.snapshot";
+    private static final String SERIALIZED = "geoip.ser";
+
+    @Param("")
+    public String directory;
+
+    @Benchmark
+    public GeoIpTable build() {
+        return GeoIpTable.getInstance();
+    }
+
+    @Benchmark
+    public GeoIpTable restoreSnapshot() throws IOException {
+        return GeoIpTable.restore(Path.of(directory, SNAPSHOT));
+    }
+
+    @Benchmark
+    public Object javaDeserialization() throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(
+                new BufferedInputStream(Files.newInputStream(Path.of(directory, SERIALIZED))))) {
+            return in.readObject();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("snapshot-benchmark");
+        GeoIpTable table = GeoIpTable.getInstance();
+        table.saveSnapshot(directory.resolve(SNAPSHOT));
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(directory.resolve(SERIALIZED)))) {
+            out.writeObject(table);
+        }
+        System.out.printf("snapshot: %,d bytes, serialized: %,d bytes%n",
+                Files.size(directory.resolve(SNAPSHOT)), Files.size(directory.resolve(SERIALIZED)));
+
+        new Runner(new OptionsBuilder()
+                .include(SnapshotRestoreBenchmark.class.getName() + "\\.")
+                .param("directory", directory.toString())
+                .build()).run();
+    }
+}
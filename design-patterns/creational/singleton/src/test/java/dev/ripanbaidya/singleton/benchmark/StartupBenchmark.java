@@ -0,0 +1,207 @@
+package dev.ripanbaidya.singleton.benchmark;
+
+import dev.ripanbaidya.singleton.DoubleCheckedSingleton;
+import dev.ripanbaidya.singleton.SingletonApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Startup cost of the application in each launch mode: time from starting the JVM to
+ * the first getInstance() once the context is up, and the resident memory at that point.
+ *
+ * Every run is a fresh JVM of {@link Probe}, timed from the outside. CDS only archives
+ * classes from jars, so class directories on the classpath are packed into jars under
+ * target/startup first, and every mode runs from those. Modes:
+ * <pre>
+ *     default    plain SpringApplication.run
+ *     lazy       the "lazy" profile, beans created on first use
+ *     cds        class data sharing archive from a training run
+ *     lazy+cds
+ *     aot        AOT-processed context, needs a prior build with -Paot
+ *     aot+cds
+ * </pre>
+ *
+ * Usage, from the module directory after mvn test-compile (and mvn -Paot package for
+ * the aot modes):
+ * <pre>
+ *     java -cp target/classes:target/test-classes:&lt;test classpath&gt; \
+ *         dev.ripanbaidya.singleton.benchmark.StartupBenchmark [runs]
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    private static final String READY = "STARTUP-READY";
+    private static final Path TARGET = Path.of("target");
+
+    private record Mode(String name, boolean aot, boolean cds, List<String> jvmArgs, List<String> appArgs) {
+    }
+
+    private record Run(long millis, long rssKb, long peakRssKb) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        String classPath = jarredClassPath();
+        boolean aotBuilt = Files.exists(TARGET.resolve(
+                "classes/dev/ripanbaidya/singleton/SingletonApplication__ApplicationContextInitializer.class"));
+
+        List<String> aot = List.of("-Dspring.aot.enabled=true");
+        List<String> lazy = List.of("--spring.profiles.active=lazy");
+        List<Mode> modes = List.of(
+                new Mode("default", false, false, List.of(), List.of()),
+                new Mode("lazy", false, false, List.of(), lazy),
+                new Mode("cds", false, true, List.of(), List.of()),
+                new Mode("lazy+cds", false, true, List.of(), lazy),
+                new Mode("aot", true, false, aot, List.of()),
+                new Mode("aot+cds", true, true, aot, List.of()));
+
+        System.out.printf("%-10s %14s %12s %14s%n", "mode", "first get ms", "RSS MiB", "peak RSS MiB");
+        for (Mode mode : modes) {
+            if (mode.aot() && !aotBuilt) {
+                System.out.printf("%-10s skipped, build with mvn -Paot package first%n", mode.name());
+                continue;
+            }
+            List<String> jvmArgs = new ArrayList<>(mode.jvmArgs());
+            if (mode.cds()) {
+                Path archive = TARGET.resolve("startup/" + mode.name().replace('+', '-') + ".jsa").toAbsolutePath();
+                Files.deleteIfExists(archive);
+                List<String> training = new ArrayList<>(jvmArgs);
+                training.add("-XX:ArchiveClassesAtExit=" + archive);
+                training.add("-Xlog:cds=off");
+                launch(classPath, training, mode.appArgs());
+                jvmArgs.add("-XX:SharedArchiveFile=" + archive);
+                jvmArgs.add("-Xlog:cds=off");
+            }
+            // One untimed run to warm the page cache
+            launch(classPath, jvmArgs, mode.appArgs());
+
+            long[] millis = new long[runs];
+            long[] rss = new long[runs];
+            long[] peak = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                Run run = launch(classPath, jvmArgs, mode.appArgs());
+                millis[i] = run.millis();
+                rss[i] = run.rssKb();
+                peak[i] = run.peakRssKb();
+            }
+            System.out.printf("%-10s %14d %12.1f %14.1f%n",
+                    mode.name(), median(millis), median(rss) / 1024.0, median(peak) / 1024.0);
+        }
+    }
+
+    private static Run launch(String classPath, List<String> jvmArgs, List<String> appArgs)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(classPath);
+        command.add(Probe.class.getName());
+        command.addAll(appArgs);
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Run run = null;
+        Deque<String> lastLines = new ArrayDeque<>();
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                if (lastLines.size() == 20) {
+                    lastLines.removeFirst();
+                }
+                lastLines.addLast(line);
+                if (run == null && line.startsWith(READY)) {
+                    long millis = (System.nanoTime() - start) / 1_000_000;
+                    String[] fields = line.split(" ");
+                    run = new Run(millis, Long.parseLong(fields[1]), Long.parseLong(fields[2]));
+                }
+            }
+        }
+        if (process.waitFor() != 0 || run == null) {
+            throw new IllegalStateException("Startup probe failed with " + jvmArgs + " " + appArgs + ":\n"
+                    + String.join("\n", lastLines));
+        }
+        return run;
+    }
+
+    /**
+     * This JVM's classpath with every directory replaced by a jar of its contents
+     */
+    private static String jarredClassPath() throws IOException {
+        Path jars = Files.createDirectories(TARGET.resolve("startup"));
+        List<String> entries = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            Path path = Path.of(entry);
+            if (!Files.isDirectory(path)) {
+                entries.add(entry);
+                continue;
+            }
+            Path jar = jars.resolve(path.getFileName() + ".jar");
+            try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar));
+                 Stream<Path> files = Files.walk(path)) {
+                for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                    out.putNextEntry(new JarEntry(path.relativize(file).toString().replace('\\', '/')));
+                    try (InputStream in = Files.newInputStream(file)) {
+                        in.transferTo(out);
+                    }
+                    out.closeEntry();
+                }
+            }
+            entries.add(jar.toAbsolutePath().toString());
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * Started in its own JVM: boots the context, takes the first instance and reports
+     * the resident set from /proc/self/status
+     */
+    public static class Probe {
+
+        public static void main(String[] args) throws IOException {
+            SpringApplication application = new SpringApplication(SingletonApplication.class);
+            // AOT mode looks up the generated initializer of the main class
+            application.setMainApplicationClass(SingletonApplication.class);
+            try (ConfigurableApplicationContext context = application.run(args)) {
+                DoubleCheckedSingleton.getInstance();
+                System.out.println(READY + " " + status("VmRSS:") + " " + status("VmHWM:"));
+            }
+        }
+
+        private static long status(String field) throws IOException {
+            Path status = Path.of("/proc/self/status");
+            if (!Files.exists(status)) {
+                return 0;
+            }
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith(field)) {
+                    // e.g. "VmRSS:	  123456 kB"
+                    return Long.parseLong(line.substring(field.length()).replace("kB", "").trim());
+                }
+            }
+            return 0;
+        }
+    }
+}
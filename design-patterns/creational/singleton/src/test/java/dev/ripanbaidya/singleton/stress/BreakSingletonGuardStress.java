@@ -0,0 +1,69 @@
+package dev.ripanbaidya.singleton.stress;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Description;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.III_Result;
+
+import java.util.function.Supplier;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE_INTERESTING;
+
+/**
+ * Two threads call getInstance() on the Singleton of {@code BreakSingletonPattern}, whose
+ * constructor uses a plain static boolean {@code initialized} to detect reflection attacks.
+ *
+ * Neither the instance field nor the guard is volatile or synchronized, so racing
+ * legitimate callers can either both construct an instance (the guard write is not yet
+ * visible) or one of them is rejected as a "reflection attack" it never made.
+ *
+ * Results: r1 / r2 = 1 if actor 1 / actor 2 got the exception, r3 = 1 if both got the
+ * same instance.
+ *
+ * Not verified: these tests have never been run, the only machine available had a single
+ * CPU, too few for jcstress to race two actors. The expected outcomes are what the Java
+ * memory model allows, not what was observed.
+ */
+@JCStressTest
+@Description("Singleton from BreakSingletonPattern with a non-volatile initialized guard")
+@Outcome(id = "0, 0, 1", expect = ACCEPTABLE, desc = "Both threads got the same instance")
+@Outcome(id = "0, 0, 0", expect = ACCEPTABLE_INTERESTING, desc = "Race: two instances, the guard did not see the first")
+@Outcome(id = {"1, 0, 0", "0, 1, 0"}, expect = ACCEPTABLE_INTERESTING, desc = "Race: a legitimate call was rejected as a reflection attack")
+@State
+public class BreakSingletonGuardStress {
+
+    private final Supplier<Object> getInstance = FreshClassLoader.freshGetInstance("dev.ripanbaidya.singleton.Singleton");
+    private Object first;
+    private Object second;
+    private int firstFailed;
+    private int secondFailed;
+
+    @Actor
+    public void actor1() {
+        try {
+            first = getInstance.get();
+        } catch (RuntimeException e) {
+            firstFailed = 1;
+        }
+    }
+
+    @Actor
+    public void actor2() {
+        try {
+            second = getInstance.get();
+        } catch (RuntimeException e) {
+            secondFailed = 1;
+        }
+    }
+
+    @Arbiter
+    public void arbiter(III_Result r) {
+        r.r1 = firstFailed;
+        r.r2 = secondFailed;
+        r.r3 = first != null && first == second ? 1 : 0;
+    }
+}
@@ -0,0 +1,88 @@
+package dev.ripanbaidya.singleton.stress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Loads its own copy of one singleton class, so every stress trial starts from a class
+ * whose static instance field has never been set.
+ *
+ * A singleton keeps its state in static fields that cannot be reset, so after the first
+ * trial every later one would only ever see the already created instance. Defining the
+ * class again in a throwaway loader gives each trial a fresh set of statics. The
+ * bytecode is read once and shared, only defineClass runs per trial.
+ */
+final class FreshClassLoader extends ClassLoader {
+
+    private static final Map<String, byte[]> BYTECODE = new ConcurrentHashMap<>();
+
+    private final String className;
+
+    private FreshClassLoader(String className) {
+        super(FreshClassLoader.class.getClassLoader());
+        this.className = className;
+    }
+
+    /**
+     * getInstance() of a never initialized copy of the class
+     */
+    static Supplier<Object> freshGetInstance(String className) {
+        MethodHandle handle;
+        try {
+            Class<?> type = new FreshClassLoader(className).loadClass(className);
+            Method getInstance = type.getDeclaredMethod("getInstance");
+            // The class may be package-private, and it lives in its own runtime package now
+            getInstance.setAccessible(true);
+            handle = MethodHandles.lookup().unreflect(getInstance).asType(MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot load a fresh copy of " + className, e);
+        }
+        return () -> {
+            try {
+                return handle.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!name.equals(className) && !name.startsWith(className + "$")) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loaded = findLoadedClass(name);
+            if (loaded == null) {
+                byte[] bytecode = BYTECODE.computeIfAbsent(name, FreshClassLoader::read);
+                loaded = defineClass(name, bytecode, 0, bytecode.length);
+            }
+            if (resolve) {
+                resolveClass(loaded);
+            }
+            return loaded;
+        }
+    }
+
+    private static byte[] read(String name) {
+        String resource = name.replace('.', '/') + ".class";
+        try (InputStream in = FreshClassLoader.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Class file not found: " + resource);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package dev.ripanbaidya.singleton.stress;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Description;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.Z_Result;
+
+import java.util.function.Supplier;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE_INTERESTING;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * Two threads call getInstance() on a never initialized singleton at the same time.
+ *
+ * Run with:
+ * <pre>
+ *     java -cp target/test-classes:&lt;test classpath&gt; org.openjdk.jcstress.Main -t dev.ripanbaidya.singleton.stress
+ * </pre>
+ *
+ * Not verified: these tests have never been run, the only machine available had a single
+ * CPU, too few for jcstress to race two actors. The expected outcomes are what the Java
+ * memory model allows, not what was observed.
+ */
+public class LazySingletonStress {
+
+    /**
+     * Both callers can see instance == null and each construct their own instance
+     */
+    @JCStressTest
+    @Description("LazySingleton.getInstance() without synchronization")
+    @Outcome(id = "true", expect = ACCEPTABLE, desc = "Both threads got the same instance")
+    @Outcome(id = "false", expect = ACCEPTABLE_INTERESTING, desc = "Race: two instances were created")
+    @State
+    public static class Lazy {
+        private final Supplier<Object> getInstance = FreshClassLoader.freshGetInstance("dev.ripanbaidya.singleton.LazySingleton");
+        private Object first;
+        private Object second;
+
+        @Actor
+        public void actor1() {
+            first = getInstance.get();
+        }
+
+        @Actor
+        public void actor2() {
+            second = getInstance.get();
+        }
+
+        @Arbiter
+        public void arbiter(Z_Result r) {
+            r.r1 = first == second;
+        }
+    }
+
+    /**
+     * Control: the volatile double-checked variant must never hand out two instances
+     */
+    @JCStressTest
+    @Description("DoubleCheckedSingleton.getInstance(), the control")
+    @Outcome(id = "true", expect = ACCEPTABLE, desc = "Both threads got the same instance")
+    @Outcome(id = "false", expect = FORBIDDEN, desc = "Two instances were created")
+    @State
+    public static class DoubleChecked {
+        private final Supplier<Object> getInstance = FreshClassLoader.freshGetInstance("dev.ripanbaidya.singleton.DoubleCheckedSingleton");
+        private Object first;
+        private Object second;
+
+        @Actor
+        public void actor1() {
+            first = getInstance.get();
+        }
+
+        @Actor
+        public void actor2() {
+            second = getInstance.get();
+        }
+
+        @Arbiter
+        public void arbiter(Z_Result r) {
+            r.r1 = first == second;
+        }
+    }
+}
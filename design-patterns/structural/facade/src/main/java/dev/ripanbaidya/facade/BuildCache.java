@@ -0,0 +1,246 @@
+package dev.ripanbaidya.facade;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Local, content-addressed cache of build artifacts.
+ *
+ * An artifact is stored under the hash of everything that determines it: the source
+ * revision from {@link VersionControlSystem} and the build inputs such as the JDK
+ * version. Building an unchanged revision with unchanged inputs gives the same key, and
+ * the cached artifact is used instead of compiling again.
+ *
+ * Publishing copies the artifact to a temporary file in the cache directory and then
+ * renames it into place atomically, so a reader never sees a half written artifact and
+ * two builds publishing the same key at once both leave a complete file behind.
+ *
+ * The cache is bounded in bytes. When a publish goes over the limit, the least recently
+ * used artifacts are deleted. Recency survives restarts through the files' modification
+ * times, which a hit refreshes. Entries are not pinned while in use: a path returned by
+ * {@link #lookup(String)} stays valid only until a publish evicts it. A hit makes the
+ * artifact the most recently used, so it goes only after a cache's worth of newer
+ * artifacts, but a caller that keeps the path for long should copy or open the file
+ * right away.
+ *
+ * Opening the cache deletes temporary files older than {@link #STALE_TEMP_AGE}, left
+ * behind by builds that died while publishing. Younger ones may belong to another
+ * process publishing into the same directory and are left alone.
+ *
+ * Usage:
+ * <pre>
+ *     BuildCache cache = new BuildCache(Path.of("target/build-cache"), 512 * 1024 * 1024);
+ *     String key = BuildCache.key(revision, inputs);
+ *     Path artifact = cache.lookup(key).orElseGet(() -&gt; cache.publish(key, compile()));
+ * </pre>
+ */
+public class BuildCache {
+
+    /**
+     * Counters since the cache was opened, and its current size
+     */
+    public record Stats(long hits, long misses, long evictions, int entries, long bytes) {
+
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    private static final String SUFFIX = ".jar";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Age after which a temporary file can no longer belong to a publish in progress
+     */
+    static final Duration STALE_TEMP_AGE = Duration.ofHours(1);
+
+    private final Path directory;
+    private final long maxBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Key to artifact size, least recently used first
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Opens the cache in the directory, picking up artifacts already there
+     */
+    public BuildCache(Path directory, long maxBytes) throws IOException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive, was " + maxBytes);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+
+        Map<Path, FileTime> lastUsed = new HashMap<>();
+        List<Path> artifacts = new ArrayList<>();
+        long staleBefore = System.currentTimeMillis() - STALE_TEMP_AGE.toMillis();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SUFFIX)) {
+                    artifacts.add(file);
+                    lastUsed.put(file, Files.getLastModifiedTime(file));
+                } else if (name.endsWith(TEMP_SUFFIX)
+                        && Files.getLastModifiedTime(file).toMillis() < staleBefore) {
+                    // Left behind by a build that died while publishing
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        artifacts.sort((a, b) -> lastUsed.get(a).compareTo(lastUsed.get(b)));
+        for (Path artifact : artifacts) {
+            long size = Files.size(artifact);
+            entries.put(keyOf(artifact), size);
+            bytes += size;
+        }
+    }
+
+    /**
+     * Cache key of a build: SHA-256 over the revision and the inputs in sorted order
+     */
+    public static String key(String revision, Map<String, String> inputs) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(revision.getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<String, String> input : new TreeMap<>(inputs).entrySet()) {
+                digest.update((byte) 0);
+                digest.update(input.getKey().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '=');
+                digest.update(input.getValue().getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * The cached artifact for the key, counted as a hit or a miss. The file is not pinned,
+     * a later publish can evict it (see the class documentation).
+     */
+    public Optional<Path> lookup(String key) {
+        Path artifact = pathOf(key);
+        lock.lock();
+        try {
+            if (entries.get(key) != null && Files.exists(artifact)) {
+                hits++;
+                touch(artifact);
+                return Optional.of(artifact);
+            }
+            // Deleted behind our back, forget it
+            Long size = entries.remove(key);
+            if (size != null) {
+                bytes -= size;
+            }
+            misses++;
+            return Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copies a freshly built artifact into the cache under the key and returns the cached
+     * copy, evicting least recently used artifacts if the cache is over its limit
+     */
+    public Path publish(String key, Path builtArtifact) {
+        Path target = pathOf(key);
+        Path temp = directory.resolve(key + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        try {
+            // Copied outside the lock, only the rename and bookkeeping are serialized
+            Files.copy(builtArtifact, temp);
+            long size = Files.size(temp);
+            lock.lock();
+            try {
+                move(temp, target);
+                Long previous = entries.put(key, size);
+                bytes += size - (previous == null ? 0 : previous);
+                evict(key);
+            } finally {
+                lock.unlock();
+            }
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not publish " + builtArtifact + " to the build cache", e);
+        } finally {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Cleaned up when the cache is opened after it went stale
+            }
+        }
+    }
+
+    public Stats stats() {
+        lock.lock();
+        try {
+            return new Stats(hits, misses, evictions, entries.size(), bytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict(String keep) throws IOException {
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            Files.deleteIfExists(pathOf(entry.getKey()));
+            bytes -= entry.getValue();
+            evictions++;
+            eldest.remove();
+        }
+    }
+
+    private static void move(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void touch(Path artifact) {
+        try {
+            Files.setLastModifiedTime(artifact, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // Recency after a restart is best effort
+        }
+    }
+
+    private Path pathOf(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static String keyOf(Path artifact) {
+        String name = artifact.getFileName().toString();
+        return name.substring(0, name.length() - SUFFIX.length());
+    }
+}
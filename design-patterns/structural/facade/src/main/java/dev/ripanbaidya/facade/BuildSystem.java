@@ -1,35 +1,107 @@
 package dev.ripanbaidya.facade;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * 2. Build System
  * Compiles the codebase, creates an artifact (like a .jar), and returns its location.
+ *
+ * With a {@link BuildCache}, a revision that was built before with the same inputs is
+ * not compiled again, its cached artifact is used.
  */
 class BuildSystem {
 
+    private static final String DEFAULT_ARTIFACT = "target/application-1.0.jar";
+
+    // Everything besides the sources that goes into the artifact
+    private final Map<String, String> inputs = Map.of(
+            "java.version", System.getProperty("java.specification.version"),
+            "profile", "release");
+    private final BuildCache cache;
+    private final Path outputDirectory;
+    private final Map<String, String> artifacts = new ConcurrentHashMap<>();
+
+    BuildSystem() {
+        this(null, null);
+    }
+
     /**
-     * Compile the project
+     * @param cache           cache to look artifacts up in and publish them to
+     * @param outputDirectory where compiled artifacts are written before they are cached
      */
-    public boolean compileProject() {
-        System.out.println("BuildSystem: Compiling project...");
-        simulateDelay();
-        System.out.println("BuildSystem: Build successful.");
+    BuildSystem(BuildCache cache, Path outputDirectory) {
+        this.cache = cache;
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Compile the project at the given revision
+     */
+    public boolean compileProject(String revision) throws InterruptedException {
+        if (cache == null) {
+            compile();
+            artifacts.put(revision, DEFAULT_ARTIFACT);
+            return true;
+        }
+
+        String key = BuildCache.key(revision, inputs);
+        Path cached = cache.lookup(key).orElse(null);
+        if (cached != null) {
+            System.out.println("BuildSystem: Cache hit for " + revision.substring(0, 7) + ", skipping compilation.");
+        } else {
+            compile();
+            // A cancelled build may have stopped halfway, never publish what it left behind
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException("Build of " + revision + " cancelled before publishing");
+            }
+            cached = cache.publish(key, writeArtifact(revision));
+        }
+        artifacts.put(revision, cached.toString());
         return true;
     }
 
     /**
-     * Get the artifact
+     * Get the artifact of a compiled revision
      */
-    public String getArtifactPath() {
-        String path = "target/application-1.0.jar";
+    public String getArtifactPath(String revision) {
+        String path = artifacts.get(revision);
+        if (path == null) {
+            throw new IllegalStateException("Revision " + revision + " has not been compiled");
+        }
         System.out.println("BuildSystem: Artifact located at " + path);
         return path;
     }
 
-    private void simulateDelay() {
+    /**
+     * Runs the compiler. Package-private so tests can stand in for it
+     */
+    void compile() throws InterruptedException {
+        System.out.println("BuildSystem: Compiling project...");
+        simulateDelay();
+        System.out.println("BuildSystem: Build successful.");
+    }
+
+    /**
+     * Stands in for the packaged jar
+     */
+    private Path writeArtifact(String revision) {
         try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            System.out.println(e.getMessage());
+            Files.createDirectories(outputDirectory);
+            Path artifact = outputDirectory.resolve("application-" + revision.substring(0, 7) + ".jar");
+            Files.writeString(artifact, "revision=" + revision + "\n" + inputs, StandardCharsets.UTF_8);
+            return artifact;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the artifact of " + revision, e);
         }
     }
-}
\ No newline at end of file
+
+    private void simulateDelay() throws InterruptedException {
+        Thread.sleep(2000);
+    }
+}
@@ -1,5 +1,18 @@
 package dev.ripanbaidya.facade;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
 /*
  * Implementing Facade Design Pattern
  *
@@ -18,54 +31,258 @@ package dev.ripanbaidya.facade;
  * like deployApplication() that executes the full workflow.
  */
 public class DeploymentFacade {
+    // Pipeline steps
+    private static final String PULL = "pull";
+    private static final String COMPILE = "compile";
+    private static final String UNIT_TESTS = "unitTests";
+    private static final String INTEGRATION_TESTS = "integrationTests";
+    private static final String TRANSFER = "transfer";
+    private static final String ACTIVATE = "activate";
+
     // Subsystems
-    private final VersionControlSystem vcs = new VersionControlSystem();
-    private final BuildSystem buildSystem = new BuildSystem();
-    private final TestingFramework testingFramework = new TestingFramework();
-    private final DeploymentTarget deploymentTarget = new DeploymentTarget();
+    private final VersionControlSystem vcs;
+    private final BuildSystem buildSystem;
+    private final TestingFramework testingFramework;
+    private final DeploymentTarget deploymentTarget;
+
+    public DeploymentFacade() {
+        this(new VersionControlSystem(), new BuildSystem(), new TestingFramework(), new DeploymentTarget());
+    }
+
+    /**
+     * A facade whose builds go through the cache, see {@link BuildCache}
+     *
+     * @param outputDirectory where artifacts are compiled to before they are cached
+     */
+    public DeploymentFacade(BuildCache cache, Path outputDirectory) {
+        this(new VersionControlSystem(), new BuildSystem(cache, outputDirectory),
+                new TestingFramework(), new DeploymentTarget());
+    }
+
+    DeploymentFacade(VersionControlSystem vcs, BuildSystem buildSystem,
+                     TestingFramework testingFramework, DeploymentTarget deploymentTarget) {
+        this.vcs = vcs;
+        this.buildSystem = buildSystem;
+        this.testingFramework = testingFramework;
+        this.deploymentTarget = deploymentTarget;
+    }
+
+    /**
+     * Runs every test on the following deploys instead of only those whose inputs changed
+     * since they last passed
+     */
+    public void setForceFullTestRun(boolean forceFullTestRun) {
+        testingFramework.setForceFullRun(forceFullTestRun);
+    }
+
+    /**
+     * Splits each test suite over this many worker threads, balanced on earlier test
+     * durations
+     */
+    public void setTestShards(int shards) {
+        testingFramework.setShards(shards);
+    }
 
     /**
      * High level subSystemOperation
+     *
+     * The steps run as a DAG, see {@link DeploymentPipeline}: unit and integration tests
+     * run side by side, and the artifact is transferred while they run. Only activation
+     * waits for all of them, so a deploy takes as long as its critical path
+     * (pull, compile, integration tests, activate) instead of the sum of all steps.
      */
     public boolean deployApplication(String branch, String serverAddress) {
         System.out.println("\nFACADE: --- Initiating FULL DEPLOYMENT for branch: "
                 + branch + " to " + serverAddress + " ---");
-        boolean success = true;
+        AtomicReference<String> artifactPath = new AtomicReference<>();
 
-        try {
-            // Pull latest changes
-            vcs.pullLatestChanges(branch);
+        DeploymentPipeline pipeline = buildAndTest(branch, artifactPath)
+                // Transfer the artifact, and activate the new version once everything passed
+                .step(TRANSFER, () -> {
+                    deploymentTarget.transferArtifact(artifactPath.get(), serverAddress);
+                    return true;
+                }, COMPILE)
+                .step(ACTIVATE, () -> {
+                    deploymentTarget.activateNewVersion(serverAddress);
+                    return true;
+                }, UNIT_TESTS, INTEGRATION_TESTS, TRANSFER);
 
-            // Compile the project
-            if (!buildSystem.compileProject()) {
-                System.err.println("FACADE: DEPLOYMENT FAILED - Build compilation failed.");
+        try {
+            DeploymentPipeline.Outcome outcome = pipeline.run();
+            if (!outcome.success()) {
+                System.err.println("FACADE: DEPLOYMENT FAILED - " + failureMessage(outcome));
                 return false;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("FACADE: DEPLOYMENT FAILED - Interrupted.");
+            return false;
+        }
 
-            // Get the artifact
-            String artifactPath = buildSystem.getArtifactPath();
+        System.out.println("FACADE: APPLICATION DEPLOYED SUCCESSFULLY to " + serverAddress + "!");
+        return true;
+    }
 
-            // Run testing step by step
-            if (!testingFramework.runUnitTests()) {
-                System.err.println("FACADE: DEPLOYMENT FAILED - Unit tests failed.");
-                return false;
-            }
+    /**
+     * Deploys one build to many servers.
+     *
+     * The branch is pulled, compiled and tested once, then the artifact is rolled out in
+     * waves as the policy describes: the canary first, then the rest of the fleet, with
+     * at most policy.parallelism() servers being updated at a time. A wave that has
+     * started is allowed to finish, so no server is left between transfer and
+     * activation, but if any of its servers failed the remaining waves are skipped.
+     * The same goes for an interrupt: the current wave finishes and is reported as it
+     * ended, the waves after it are skipped.
+     */
+    public RolloutReport deployToFleet(String branch, List<String> servers, RolloutPolicy policy) {
+        System.out.println("\nFACADE: --- Initiating FLEET DEPLOYMENT for branch: "
+                + branch + " to " + servers.size() + " servers ---");
+        long start = System.nanoTime();
+        List<String> deployed = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        List<List<String>> waves = waves(servers, policy);
+        int started = 0;
+        // Whether the build and tests passed and no wave was cut short
+        boolean completed = false;
 
-            if (!testingFramework.runIntegrationTests()) {
-                System.err.println("FACADE: DEPLOYMENT FAILED - Integration tests failed.");
-                return false;
+        try {
+            AtomicReference<String> artifactPath = new AtomicReference<>();
+            DeploymentPipeline.Outcome outcome = buildAndTest(branch, artifactPath).run();
+            if (!outcome.success()) {
+                System.err.println("FACADE: FLEET DEPLOYMENT FAILED - " + failureMessage(outcome));
+            } else {
+                completed = true;
+                Semaphore permits = new Semaphore(policy.parallelism());
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                    for (List<String> wave : waves) {
+                        started++;
+                        System.out.println("FACADE: Wave " + started + "/" + waves.size() + " - " + wave);
+                        List<String> waveFailures = new ArrayList<>();
+                        boolean interrupted = rollOut(executor, permits, artifactPath.get(), wave,
+                                deployed, waveFailures);
+                        failed.addAll(waveFailures);
+                        if (interrupted) {
+                            throw new InterruptedException();
+                        }
+                        if (!waveFailures.isEmpty()) {
+                            System.err.println("FACADE: FLEET DEPLOYMENT ABORTED - Wave " + started
+                                    + " failed on " + waveFailures);
+                            break;
+                        }
+                    }
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            completed = false;
+            System.err.println("FACADE: FLEET DEPLOYMENT FAILED - Interrupted.");
+        }
 
-            // Transfer the artifact and activate new version
-            deploymentTarget.transferArtifact(artifactPath, serverAddress);
-            deploymentTarget.activateNewVersion(serverAddress);
+        List<String> skipped = new ArrayList<>(servers);
+        skipped.removeAll(deployed);
+        skipped.removeAll(failed);
+        Duration wallTime = Duration.ofNanos(System.nanoTime() - start);
+        boolean success = completed && skipped.isEmpty() && failed.isEmpty();
+        if (success) {
+            System.out.println("FACADE: APPLICATION DEPLOYED SUCCESSFULLY to " + servers.size()
+                    + " servers in " + wallTime.toMillis() + " ms!");
+        }
+        return new RolloutReport(success, List.copyOf(deployed), List.copyOf(failed), List.copyOf(skipped),
+                started, wallTime);
+    }
 
-            System.out.println("FACADE: APPLICATION DEPLOYED SUCCESSFULLY to " + serverAddress + "!");
-        } catch (Exception e) {
-            System.err.println("FACADE: DEPLOYMENT FAILED - An unexpected error occurred: " + e.getMessage());
-            success = false;
+    /**
+     * Splits the servers into the canary and the waves after it
+     */
+    static List<List<String>> waves(List<String> servers, RolloutPolicy policy) {
+        List<List<String>> waves = new ArrayList<>();
+        int canary = Math.min(policy.canarySize(), servers.size());
+        if (canary > 0) {
+            waves.add(List.copyOf(servers.subList(0, canary)));
         }
+        for (int from = canary; from < servers.size(); from += policy.waveSize()) {
+            waves.add(List.copyOf(servers.subList(from, Math.min(from + policy.waveSize(), servers.size()))));
+        }
+        return waves;
+    }
 
-        return success;
+    /**
+     * Transfers and activates the artifact on every server of the wave and waits for all
+     * of them, adding each server to deployed or failed once it is done. An interrupt
+     * does not stop the wave: its servers are still waited for, so the ones that finish
+     * are reported as deployed. Returns whether the caller was interrupted meanwhile.
+     */
+    private boolean rollOut(ExecutorService executor, Semaphore permits, String artifactPath,
+                            List<String> wave, List<String> deployed, List<String> failed) {
+        Map<String, Future<?>> updates = new LinkedHashMap<>();
+        for (String server : wave) {
+            updates.put(server, executor.submit(() -> {
+                permits.acquire();
+                try {
+                    deploymentTarget.transferArtifact(artifactPath, server);
+                    deploymentTarget.activateNewVersion(server);
+                } finally {
+                    permits.release();
+                }
+                return null;
+            }));
+        }
+        boolean interrupted = false;
+        for (Map.Entry<String, Future<?>> update : updates.entrySet()) {
+            while (true) {
+                try {
+                    update.getValue().get();
+                    deployed.add(update.getKey());
+                    break;
+                } catch (InterruptedException e) {
+                    // Keep waiting, the server is being updated either way
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    // The cause itself, its message alone is often null
+                    System.err.println("FACADE: Deployment to " + update.getKey() + " failed - " + e.getCause());
+                    failed.add(update.getKey());
+                    break;
+                }
+            }
+        }
+        return interrupted;
+    }
+
+    /**
+     * Pull, compile and both test suites side by side
+     */
+    private DeploymentPipeline buildAndTest(String branch, AtomicReference<String> artifactPath) {
+        AtomicReference<String> revision = new AtomicReference<>();
+        return new DeploymentPipeline()
+                // Pull latest changes
+                .step(PULL, () -> {
+                    revision.set(vcs.pullLatestChanges(branch));
+                    return true;
+                })
+                // Compile the project and get the artifact
+                .step(COMPILE, () -> {
+                    if (!buildSystem.compileProject(revision.get())) {
+                        return false;
+                    }
+                    artifactPath.set(buildSystem.getArtifactPath(revision.get()));
+                    return true;
+                }, PULL)
+                // Run both test suites at once, against the files at the pulled revision
+                .step(UNIT_TESTS, () -> testingFramework.runUnitTests(
+                        path -> vcs.fileHash(revision.get(), path)), COMPILE)
+                .step(INTEGRATION_TESTS, () -> testingFramework.runIntegrationTests(
+                        path -> vcs.fileHash(revision.get(), path)), COMPILE);
+    }
+
+    private static String failureMessage(DeploymentPipeline.Outcome outcome) {
+        if (outcome.cause() != null) {
+            return "An unexpected error occurred: " + outcome.cause().getMessage();
+        }
+        return switch (outcome.failedStep()) {
+            case COMPILE -> "Build compilation failed.";
+            case UNIT_TESTS -> "Unit tests failed.";
+            case INTEGRATION_TESTS -> "Integration tests failed.";
+            default -> "Step " + outcome.failedStep() + " failed.";
+        };
     }
 }
@@ -0,0 +1,146 @@
+package dev.ripanbaidya.facade;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Deployment steps with declared dependencies, run as a DAG: every step starts on its
+ * own virtual thread as soon as the steps it depends on have succeeded, so independent
+ * steps like unit and integration tests overlap and the pipeline takes as long as its
+ * critical path instead of the sum of all steps.
+ *
+ * When a step fails, by returning false or throwing, the steps still running are
+ * cancelled right away by interrupting them, and steps that have not started never do.
+ *
+ * A step can only depend on steps added before it, which rules out cycles.
+ *
+ * Usage:
+ * <pre>
+ *     DeploymentPipeline.Outcome outcome = new DeploymentPipeline()
+ *             .step("compile", buildSystem::compileProject)
+ *             .step("unitTests", testingFramework::runUnitTests, "compile")
+ *             .step("integrationTests", testingFramework::runIntegrationTests, "compile")
+ *             .run();
+ * </pre>
+ */
+class DeploymentPipeline {
+
+    /**
+     * The work of one step, returns false if the step failed
+     */
+    @FunctionalInterface
+    interface Action {
+        boolean run() throws Exception;
+    }
+
+    /**
+     * Result of a run. On failure, the step that failed first and what it threw, if
+     * anything
+     */
+    record Outcome(boolean success, String failedStep, Throwable cause) {
+
+        static Outcome succeeded() {
+            return new Outcome(true, null, null);
+        }
+    }
+
+    private record Step(String name, Action action, List<String> dependsOn) {
+    }
+
+    private record Completion(String step, boolean success, Throwable cause) {
+    }
+
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+
+    /**
+     * Adds a step that starts once all the given steps have succeeded
+     *
+     * @throws IllegalArgumentException if the name is taken or a dependency is not a step yet
+     */
+    DeploymentPipeline step(String name, Action action, String... dependsOn) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(action, "action");
+        if (steps.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate step: " + name);
+        }
+        for (String dependency : dependsOn) {
+            if (!steps.containsKey(dependency)) {
+                throw new IllegalArgumentException("Step " + name + " depends on unknown step " + dependency);
+            }
+        }
+        steps.put(name, new Step(name, action, List.of(dependsOn)));
+        return this;
+    }
+
+    /**
+     * Runs all steps and waits until they are done, or until the first failure and the
+     * cancellation of the steps still running
+     */
+    Outcome run() throws InterruptedException {
+        Set<String> succeeded = new HashSet<>();
+        Map<String, Future<?>> running = new HashMap<>();
+        BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+        Outcome outcome = Outcome.succeeded();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            startReadySteps(executor, succeeded, running, completions);
+            while (!running.isEmpty()) {
+                Completion completion;
+                try {
+                    completion = completions.take();
+                } catch (InterruptedException e) {
+                    cancel(running);
+                    throw e;
+                }
+                running.remove(completion.step());
+                if (!completion.success()) {
+                    outcome = new Outcome(false, completion.step(), completion.cause());
+                    cancel(running);
+                    break;
+                }
+                succeeded.add(completion.step());
+                startReadySteps(executor, succeeded, running, completions);
+            }
+        }
+        // Closing the executor waited for cancelled steps to stop
+        return outcome;
+    }
+
+    private static void cancel(Map<String, Future<?>> running) {
+        running.values().forEach(future -> future.cancel(true));
+    }
+
+    private void startReadySteps(ExecutorService executor, Set<String> succeeded, Map<String, Future<?>> running,
+                                 BlockingQueue<Completion> completions) {
+        List<Step> ready = new ArrayList<>();
+        for (Step step : steps.values()) {
+            if (!succeeded.contains(step.name()) && !running.containsKey(step.name())
+                    && succeeded.containsAll(step.dependsOn())) {
+                ready.add(step);
+            }
+        }
+        for (Step step : ready) {
+            running.put(step.name(), executor.submit(() -> completions.add(execute(step))));
+        }
+    }
+
+    private static Completion execute(Step step) {
+        try {
+            return new Completion(step.name(), step.action().run(), null);
+        } catch (Throwable e) {
+            // Errors too, every step must complete or run() waits for it forever
+            return new Completion(step.name(), false, e);
+        }
+    }
+}
@@ -8,7 +8,7 @@ class DeploymentTarget {
     /**
      * Transfer the artifact
      */
-    public void transferArtifact(String artifactPath, String server) {
+    public void transferArtifact(String artifactPath, String server) throws InterruptedException {
         System.out.println("Deployment: Transferring " + artifactPath + " to " + server + "...");
         simulateDelay(1000);
         System.out.println("Deployment: Transfer complete.");
@@ -17,17 +17,13 @@ class DeploymentTarget {
     /**
      * Activate the new version
      */
-    public void activateNewVersion(String server) {
+    public void activateNewVersion(String server) throws InterruptedException {
         System.out.println("Deployment: Activating new version on " + server + "...");
         simulateDelay(500);
         System.out.println("Deployment: Now live on " + server + "!");
     }
 
-    private void simulateDelay(int ms) {
-        try {
-            Thread.sleep(ms);
-        } catch (InterruptedException e) {
-            System.out.println(e.getMessage());
-        }
+    private void simulateDelay(int ms) throws InterruptedException {
+        Thread.sleep(ms);
     }
 }
\ No newline at end of file
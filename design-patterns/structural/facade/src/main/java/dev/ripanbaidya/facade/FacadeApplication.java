@@ -3,17 +3,24 @@ package dev.ripanbaidya.facade;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
 /**
  * Facade Design Pattern
  */
 @SpringBootApplication
 public class FacadeApplication {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         // SpringApplication.run(FacadeApplication.class, args);
 
-        // Creating an object of DeploymentFacade class
-        DeploymentFacade deploymentFacade = new DeploymentFacade();
+        // Creating an object of DeploymentFacade class, building through a local artifact cache
+        BuildCache buildCache = new BuildCache(Path.of("target/build-cache"), 256L * 1024 * 1024);
+        DeploymentFacade deploymentFacade = new DeploymentFacade(buildCache, Path.of("target"));
+        deploymentFacade.setTestShards(4);
 
         // Deploy to Production
         deploymentFacade.deployApplication("main", "prod.server");
@@ -21,6 +28,14 @@ public class FacadeApplication {
         // Deploy a feature branch to staging
         System.out.println("\n--- Deploying feature branch to staging ---");
         deploymentFacade.deployApplication("feature/new-ui", "staging.server");
+
+        // Deploy one build to a fleet: a canary, then waves of 10
+        System.out.println("\n--- Rolling out to the production fleet ---");
+        List<String> fleet = IntStream.rangeClosed(1, 21).mapToObj(i -> "prod-" + i + ".server").toList();
+        RolloutReport report = deploymentFacade.deployToFleet("main", fleet, RolloutPolicy.defaults());
+        System.out.println("Deployed to " + report.deployed().size() + " servers in " + report.waves()
+                + " waves, " + report.wallTime().toMillis() + " ms");
+        System.out.println("Build cache: " + buildCache.stats());
     }
 
 }
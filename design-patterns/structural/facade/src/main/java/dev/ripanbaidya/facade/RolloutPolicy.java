@@ -0,0 +1,34 @@
+package dev.ripanbaidya.facade;
+
+/**
+ * How a build is rolled out to a fleet of servers.
+ *
+ * The first wave is the canary: a few servers that get the new version while the rest
+ * of the fleet keeps the old one. The remaining servers follow in waves of waveSize.
+ * Within a wave at most parallelism servers are updated at the same time.
+ *
+ * @param canarySize  servers in the first wave, 0 for no canary
+ * @param waveSize    servers in each following wave
+ * @param parallelism servers updated at once within a wave
+ */
+public record RolloutPolicy(int canarySize, int waveSize, int parallelism) {
+
+    public RolloutPolicy {
+        if (canarySize < 0) {
+            throw new IllegalArgumentException("canarySize must not be negative, was " + canarySize);
+        }
+        if (waveSize < 1) {
+            throw new IllegalArgumentException("waveSize must be at least 1, was " + waveSize);
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1, was " + parallelism);
+        }
+    }
+
+    /**
+     * One canary server, then waves of 10 servers, all 10 updated at once
+     */
+    public static RolloutPolicy defaults() {
+        return new RolloutPolicy(1, 10, 10);
+    }
+}
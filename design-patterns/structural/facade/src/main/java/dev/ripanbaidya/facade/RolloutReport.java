@@ -0,0 +1,18 @@
+package dev.ripanbaidya.facade;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of a fleet deployment.
+ *
+ * @param success  whether the build, the tests and every server succeeded
+ * @param deployed servers now running the new version
+ * @param failed   servers whose transfer or activation failed
+ * @param skipped  servers never touched, because the build, the tests or an earlier wave failed
+ * @param waves    waves started, the canary included
+ * @param wallTime total time, the single build and test run included
+ */
+public record RolloutReport(boolean success, List<String> deployed, List<String> failed,
+                            List<String> skipped, int waves, Duration wallTime) {
+}
@@ -1,35 +1,323 @@
 package dev.ripanbaidya.facade;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
 /**
  * 3. Testing framework
  * Executes unit and integration tests. Could also include E2E, mutation testing, or security scans in real-world setups.
+ *
+ * Every test declares the files it depends on. A passing result is recorded under the
+ * hash of those files' contents, and on later runs a test whose inputs hash the same
+ * is not executed again: its recorded result is reused. After a small commit only the
+ * tests that depend on the changed files run. Failures are never recorded, so a failed
+ * test always runs again. {@link #setForceFullRun(boolean)} runs everything regardless.
+ *
+ * The tests that do run can be split into shards, see {@link #setShards(int)}, each
+ * run by its own worker thread. Shards are balanced on how long every test took in
+ * earlier runs: the longest tests are placed first, each on the shard with the least
+ * work so far, so the suite takes about as long as its total over the shard count, or
+ * its longest test, whichever is more. The shards' results are merged into one report.
  */
 class TestingFramework {
+
+    /**
+     * A test and the files whose content decides its outcome
+     */
+    record TestCase(String name, int millis, List<String> inputs) {
+    }
+
+    /**
+     * Merged result of one suite run over all shards
+     *
+     * @param shardMillis how long each shard ran
+     */
+    record SuiteReport(String suite, int executed, int reused, List<String> failed, List<Long> shardMillis) {
+
+        boolean passed() {
+            return failed.isEmpty();
+        }
+    }
+
+    private static final String BUILD_FILE = "pom.xml";
+
+    // 10 tests, 1.5 s in all
+    static final List<TestCase> UNIT_TESTS = List.of(
+            unitTest("OrderService", 400),
+            unitTest("PaymentService", 250),
+            unitTest("InventoryService", 200),
+            unitTest("OrderRepository", 150),
+            unitTest("OrderController", 120),
+            unitTest("Pricing", 100),
+            unitTest("Discount", 90),
+            unitTest("Tax", 80),
+            unitTest("Shipping", 60),
+            unitTest("Invoice", 50));
+
+    // 6 tests, 3 s in all
+    static final List<TestCase> INTEGRATION_TESTS = List.of(
+            integrationTest("CheckoutIT", 1100, "OrderController", "OrderService", "PaymentService", "Pricing", "Tax"),
+            integrationTest("InventoryIT", 700, "InventoryService", "OrderRepository"),
+            integrationTest("PaymentIT", 450, "PaymentService", "Invoice"),
+            integrationTest("ShippingIT", 350, "Shipping", "OrderService"),
+            integrationTest("RepositoryIT", 250, "OrderRepository"),
+            integrationTest("InvoiceIT", 150, "Invoice", "Tax", "Discount"));
+
+    // Tests that passed, by name and hash of their inputs
+    private final Set<String> greenResults = ConcurrentHashMap.newKeySet();
+    // Measured duration of every test that ran, smoothed over runs
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+    private volatile boolean forceFullRun;
+    private volatile int shards = 1;
+    private volatile SuiteReport lastReport;
+
     /**
      * Run unit test
+     *
+     * @param fileHashes content hash of each file at the revision under test
      */
-    public boolean runUnitTests() {
-        System.out.println("Testing: Running unit tests...");
-        simulateDelay(1500);
-        System.out.println("Testing: Unit tests passed.");
-        return true;
+    public boolean runUnitTests(Function<String, String> fileHashes) {
+        return runSuite("Unit", UNIT_TESTS, fileHashes);
     }
 
     /**
      * Run integration test
+     *
+     * @param fileHashes content hash of each file at the revision under test
+     */
+    public boolean runIntegrationTests(Function<String, String> fileHashes) {
+        return runSuite("Integration", INTEGRATION_TESTS, fileHashes);
+    }
+
+    /**
+     * Whether to run every test, ignoring recorded results
+     */
+    public void setForceFullRun(boolean forceFullRun) {
+        this.forceFullRun = forceFullRun;
+    }
+
+    /**
+     * Number of worker threads each suite is split over, 1 runs it on the calling thread
+     */
+    public void setShards(int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards must be at least 1, was " + shards);
+        }
+        this.shards = shards;
+    }
+
+    /**
+     * Report of the suite that last ran to the end
+     */
+    SuiteReport lastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Splits the tests into shards of about equal expected duration: longest first, each
+     * onto the shard with the least expected work so far
+     */
+    static List<List<TestCase>> balance(List<TestCase> tests, int shards, ToLongFunction<TestCase> expectedMillis) {
+        record Shard(int index, long millis) {
+        }
+        List<List<TestCase>> balanced = new ArrayList<>();
+        PriorityQueue<Shard> lightest = new PriorityQueue<>(
+                Comparator.comparingLong(Shard::millis).thenComparingInt(Shard::index));
+        for (int i = 0; i < Math.min(shards, tests.size()); i++) {
+            balanced.add(new ArrayList<>());
+            lightest.add(new Shard(i, 0));
+        }
+        List<TestCase> longestFirst = new ArrayList<>(tests);
+        longestFirst.sort(Comparator.comparingLong(expectedMillis).reversed());
+        for (TestCase test : longestFirst) {
+            Shard shard = lightest.poll();
+            balanced.get(shard.index()).add(test);
+            lightest.add(new Shard(shard.index(), shard.millis() + expectedMillis.applyAsLong(test)));
+        }
+        return balanced;
+    }
+
+    /**
+     * Executes one test, returns whether it passed
      */
-    public boolean runIntegrationTests() {
-        System.out.println("Testing: Running integration tests...");
-        simulateDelay(3000);
-        System.out.println("Testing: Integration tests passed.");
+    boolean runTest(TestCase test) {
+        simulateDelay(test.millis());
+        return true;
+    }
+
+    private boolean runSuite(String suite, List<TestCase> tests, Function<String, String> fileHashes) {
+        System.out.println("Testing: Running " + suite.toLowerCase() + " tests...");
+        List<TestCase> selected = new ArrayList<>();
+        Map<String, String> results = new ConcurrentHashMap<>();
+        for (TestCase test : tests) {
+            String result = test.name() + "@" + inputHash(test, fileHashes);
+            if (forceFullRun || !greenResults.contains(result)) {
+                selected.add(test);
+                results.put(test.name(), result);
+            }
+        }
+
+        List<List<TestCase>> plan = balance(selected, shards, this::expectedMillis);
+        List<String> failed = new ArrayList<>();
+        List<Long> shardMillis = new ArrayList<>();
+        boolean cancelled;
+        if (plan.size() <= 1) {
+            ShardResult shard = runShard(plan.isEmpty() ? List.of() : plan.getFirst(), results);
+            failed.addAll(shard.failed());
+            shardMillis.add(shard.millis());
+            cancelled = shard.cancelled();
+        } else {
+            cancelled = runShards(plan, results, failed, shardMillis);
+        }
+
+        if (cancelled) {
+            // Cancelled halfway, the results do not count
+            return false;
+        }
+        SuiteReport report = new SuiteReport(suite, selected.size(), tests.size() - selected.size(),
+                List.copyOf(failed), List.copyOf(shardMillis));
+        lastReport = report;
+        if (!report.passed()) {
+            System.out.println("Testing: " + suite + " tests failed: " + failed + ".");
+            return false;
+        }
+        System.out.println("Testing: " + suite + " tests passed (" + report.executed() + " run on "
+                + plan.size() + " shard(s), " + report.reused() + " reused from earlier green runs).");
         return true;
     }
 
+    private record ShardResult(List<String> failed, long millis, boolean cancelled) {
+    }
+
+    /**
+     * Runs every shard on its own worker thread and merges their results. Returns whether
+     * the run was cancelled.
+     */
+    private boolean runShards(List<List<TestCase>> plan, Map<String, String> results,
+                              List<String> failed, List<Long> shardMillis) {
+        try (ExecutorService workers = Executors.newFixedThreadPool(plan.size())) {
+            List<Future<ShardResult>> running = new ArrayList<>();
+            for (List<TestCase> shard : plan) {
+                running.add(workers.submit(() -> runShard(shard, results)));
+            }
+            boolean cancelled = false;
+            for (Future<ShardResult> shard : running) {
+                try {
+                    ShardResult result = shard.get();
+                    failed.addAll(result.failed());
+                    shardMillis.add(result.millis());
+                    cancelled |= result.cancelled();
+                } catch (InterruptedException e) {
+                    // The pipeline cancelled this step, stop the shards too
+                    workers.shutdownNow();
+                    Thread.currentThread().interrupt();
+                    return true;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Test shard crashed", e.getCause());
+                }
+            }
+            return cancelled;
+        }
+    }
+
+    private ShardResult runShard(List<TestCase> shard, Map<String, String> results) {
+        List<String> failed = new ArrayList<>();
+        long shardStart = System.nanoTime();
+        for (TestCase test : shard) {
+            if (Thread.currentThread().isInterrupted()) {
+                return new ShardResult(failed, elapsedMillis(shardStart), true);
+            }
+            long start = System.nanoTime();
+            boolean passed = runTest(test);
+            if (Thread.currentThread().isInterrupted()) {
+                return new ShardResult(failed, elapsedMillis(shardStart), true);
+            }
+            recordDuration(test, elapsedMillis(start));
+            if (passed) {
+                greenResults.add(results.get(test.name()));
+            } else {
+                failed.add(test.name());
+            }
+        }
+        return new ShardResult(failed, elapsedMillis(shardStart), false);
+    }
+
+    private long expectedMillis(TestCase test) {
+        Long measured = durations.get(test.name());
+        if (measured != null) {
+            return measured;
+        }
+        // Never ran: assume it takes as long as an average test
+        return Math.round(durations.values().stream().mapToLong(Long::longValue).average().orElse(1));
+    }
+
+    private void recordDuration(TestCase test, long millis) {
+        durations.merge(test.name(), millis, (previous, latest) -> (previous + latest) / 2);
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static String inputHash(TestCase test, Function<String, String> fileHashes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String input : test.inputs()) {
+                digest.update(input.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '=');
+                digest.update(fileHashes.apply(input).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static TestCase unitTest(String component, int millis) {
+        return new TestCase(component + "Test", millis,
+                List.of(BUILD_FILE, source(component), testSource(component + "Test")));
+    }
+
+    private static TestCase integrationTest(String name, int millis, String... components) {
+        List<String> inputs = new ArrayList<>();
+        inputs.add(BUILD_FILE);
+        for (String component : components) {
+            inputs.add(source(component));
+        }
+        inputs.add(testSource(name));
+        return new TestCase(name, millis, List.copyOf(inputs));
+    }
+
+    static String source(String component) {
+        return "src/main/java/app/" + component + ".java";
+    }
+
+    static String testSource(String test) {
+        return "src/test/java/app/" + test + ".java";
+    }
+
     private void simulateDelay(int ms) {
         try {
             Thread.sleep(ms);
         } catch (InterruptedException e) {
-            System.out.println(e.getMessage());
+            // Keep the interrupt, so a cancelled pipeline step sees it
+            Thread.currentThread().interrupt();
         }
     }
-}
\ No newline at end of file
+}
@@ -1,27 +1,81 @@
 package dev.ripanbaidya.facade;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * 1. Version Control System
  * Handles interaction with Git or another VCS. Responsible for fetching the latest code.
  */
 class VersionControlSystem {
 
+    // Head revision of every branch seen so far
+    private final Map<String, String> heads = new ConcurrentHashMap<>();
+    // Content hash of every file changed on the way to a revision, the rest is as initially checked in
+    private final Map<String, Map<String, String>> changedFiles = new ConcurrentHashMap<>();
+
     /**
      * Pull latest changes from the given branch
      *
      * @param branch branch from where we want to pull the changes
+     * @return the revision the branch is at
      */
-    public void pullLatestChanges(String branch) {
+    public String pullLatestChanges(String branch) throws InterruptedException {
         System.out.println("VCS: Pulling latest changes from '" + branch + "'...");
         simulateDelay();
-        System.out.println("VCS: Pull complete.");
+        String revision = head(branch);
+        System.out.println("VCS: Pull complete, at " + revision.substring(0, 7) + ".");
+        return revision;
+    }
+
+    /**
+     * Simulates a push to the branch: moves its head to a new revision that changes the
+     * given files, and returns it
+     */
+    public String commit(String branch, String message, String... changedPaths) {
+        return heads.compute(branch, (name, head) -> {
+            String parent = head == null ? initialRevision(name) : head;
+            String revision = hash(parent + "\n" + message + "\n" + String.join("\n", changedPaths));
+            Map<String, String> files = new HashMap<>(changedFiles.getOrDefault(parent, Map.of()));
+            for (String path : changedPaths) {
+                files.put(path, hash(revision + ":" + path));
+            }
+            changedFiles.put(revision, Map.copyOf(files));
+            return revision;
+        });
+    }
+
+    /**
+     * Hash of a file's content at the given revision
+     */
+    public String fileHash(String revision, String path) {
+        String hash = changedFiles.getOrDefault(revision, Map.of()).get(path);
+        return hash != null ? hash : hash("initial:" + path);
+    }
+
+    String head(String branch) {
+        return heads.computeIfAbsent(branch, VersionControlSystem::initialRevision);
     }
 
-    private void simulateDelay() {
+    private static String initialRevision(String branch) {
+        return hash("branch " + branch);
+    }
+
+    private static String hash(String content) {
         try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            System.out.println(e.getMessage());
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
         }
     }
-}
\ No newline at end of file
+
+    private void simulateDelay() throws InterruptedException {
+        Thread.sleep(1000);
+    }
+}
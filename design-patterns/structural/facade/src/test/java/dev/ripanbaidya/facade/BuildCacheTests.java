@@ -0,0 +1,162 @@
+package dev.ripanbaidya.facade;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BuildCacheTests {
+
+    @TempDir
+    Path directory;
+
+    private Path artifact(String name, int bytes) throws IOException {
+        Path artifact = directory.resolve(name);
+        Files.write(artifact, new byte[bytes]);
+        return artifact;
+    }
+
+    @Test
+    void keyCoversRevisionAndInputs() {
+        String key = BuildCache.key("abc", Map.of("java.version", "21", "profile", "release"));
+
+        assertThat(key).hasSize(64)
+                .isEqualTo(BuildCache.key("abc", Map.of("profile", "release", "java.version", "21")))
+                .isNotEqualTo(BuildCache.key("abd", Map.of("java.version", "21", "profile", "release")))
+                .isNotEqualTo(BuildCache.key("abc", Map.of("java.version", "25", "profile", "release")));
+    }
+
+    @Test
+    void countsHitsAndMisses() throws IOException {
+        BuildCache cache = new BuildCache(directory.resolve("cache"), 1_000);
+
+        assertThat(cache.lookup("k")).isEmpty();
+        Path cached = cache.publish("k", artifact("build.jar", 100));
+        assertThat(cache.lookup("k")).contains(cached);
+        assertThat(cached).hasSize(100);
+
+        BuildCache.Stats stats = cache.stats();
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.hitRate()).isEqualTo(0.5);
+        assertThat(stats.bytes()).isEqualTo(100);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedArtifactsOverTheLimit() throws IOException {
+        BuildCache cache = new BuildCache(directory.resolve("cache"), 250);
+        cache.publish("a", artifact("a.jar", 100));
+        cache.publish("b", artifact("b.jar", 100));
+        cache.lookup("a");
+
+        cache.publish("c", artifact("c.jar", 100));
+
+        assertThat(cache.lookup("b")).isEmpty();
+        assertThat(cache.lookup("a")).isPresent();
+        assertThat(cache.lookup("c")).isPresent();
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+        assertThat(cache.stats().bytes()).isEqualTo(200);
+    }
+
+    @Test
+    void reopensWithTheArtifactsOnDisk() throws IOException {
+        Path cacheDirectory = directory.resolve("cache");
+        new BuildCache(cacheDirectory, 1_000).publish("a", artifact("a.jar", 10));
+        Path stale = Files.write(cacheDirectory.resolve("b.0000.tmp"), new byte[5]);
+        Files.setLastModifiedTime(stale, FileTime.fromMillis(
+                System.currentTimeMillis() - BuildCache.STALE_TEMP_AGE.toMillis() - 60_000));
+        // Another process may still be publishing this one
+        Path inFlight = Files.write(cacheDirectory.resolve("c.0000.tmp"), new byte[5]);
+
+        BuildCache reopened = new BuildCache(cacheDirectory, 1_000);
+
+        assertThat(reopened.lookup("a")).isPresent();
+        assertThat(reopened.stats().entries()).isEqualTo(1);
+        assertThat(stale).doesNotExist();
+        assertThat(inFlight).exists();
+    }
+
+    @Test
+    void concurrentPublishesOfOneKeyLeaveACompleteArtifact() throws Exception {
+        BuildCache cache = new BuildCache(directory.resolve("cache"), 10_000_000);
+        Path built = artifact("build.jar", 1_000_000);
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Path>> publishes = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                publishes.add(threads.submit(() -> cache.publish("k", built)));
+            }
+            for (Future<Path> publish : publishes) {
+                assertThat(publish.get()).hasSize(1_000_000);
+            }
+        }
+
+        assertThat(cache.stats().bytes()).isEqualTo(1_000_000);
+        try (Stream<Path> files = Files.list(directory.resolve("cache"))) {
+            assertThat(files).hasSize(1);
+        }
+    }
+
+    @Test
+    void unchangedRevisionIsNotCompiledAgain() throws Exception {
+        BuildCache cache = new BuildCache(directory.resolve("cache"), 1_000_000);
+        BuildSystem buildSystem = new BuildSystem(cache, directory.resolve("target"));
+        VersionControlSystem vcs = new VersionControlSystem();
+        String revision = vcs.head("main");
+
+        long start = System.nanoTime();
+        buildSystem.compileProject(revision);
+        Duration miss = Duration.ofNanos(System.nanoTime() - start);
+        String artifact = buildSystem.getArtifactPath(revision);
+
+        start = System.nanoTime();
+        buildSystem.compileProject(revision);
+        Duration hit = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(miss).isGreaterThanOrEqualTo(Duration.ofSeconds(2));
+        assertThat(hit).isLessThan(Duration.ofMillis(500));
+        assertThat(buildSystem.getArtifactPath(revision)).isEqualTo(artifact);
+
+        // A new commit is a new revision, and a new build
+        String next = vcs.commit("main", "Fix typo");
+        assertThat(next).isNotEqualTo(revision);
+        buildSystem.compileProject(next);
+        assertThat(cache.stats().misses()).isEqualTo(2);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void cancelledBuildIsNotPublished() throws IOException {
+        BuildCache cache = new BuildCache(directory.resolve("cache"), 1_000_000);
+        BuildSystem buildSystem = new BuildSystem(cache, directory.resolve("target")) {
+            @Override
+            void compile() {
+                // A compiler that notices the cancel and returns early instead of throwing
+                Thread.currentThread().interrupt();
+            }
+        };
+        String revision = new VersionControlSystem().head("main");
+
+        try {
+            assertThatThrownBy(() -> buildSystem.compileProject(revision))
+                    .isInstanceOf(InterruptedException.class);
+        } finally {
+            Thread.interrupted();
+        }
+        assertThat(cache.stats().entries()).isZero();
+    }
+}
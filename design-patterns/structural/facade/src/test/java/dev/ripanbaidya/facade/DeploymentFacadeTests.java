@@ -0,0 +1,132 @@
+package dev.ripanbaidya.facade;
+
+import dev.ripanbaidya.facade.TestingFramework.TestCase;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Deploys run on subsystems with a tenth of the real delays: pull 100 ms, compile 200 ms,
+ * unit tests 150 ms, integration tests 300 ms, transfer 100 ms, activate 50 ms. In
+ * sequence that is 900 ms, the critical path pull, compile, integration tests, activate
+ * is 650 ms.
+ */
+class DeploymentFacadeTests {
+
+    private static final int SCALE = 10;
+    private static final long SEQUENTIAL_MILLIS = 900;
+    private static final long CRITICAL_PATH_MILLIS = 650;
+
+    static final class FastVersionControlSystem extends VersionControlSystem {
+        @Override
+        public String pullLatestChanges(String branch) throws InterruptedException {
+            Thread.sleep(1000 / SCALE);
+            return head(branch);
+        }
+    }
+
+    static final class FastBuildSystem extends BuildSystem {
+        @Override
+        void compile() throws InterruptedException {
+            Thread.sleep(2000 / SCALE);
+        }
+    }
+
+    static class FastTestingFramework extends TestingFramework {
+        @Override
+        boolean runTest(TestCase test) {
+            try {
+                Thread.sleep(test.millis() / SCALE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }
+    }
+
+    static class FastDeploymentTarget extends DeploymentTarget {
+        @Override
+        public void transferArtifact(String artifactPath, String server) throws InterruptedException {
+            Thread.sleep(1000 / SCALE);
+        }
+
+        @Override
+        public void activateNewVersion(String server) throws InterruptedException {
+            Thread.sleep(500 / SCALE);
+        }
+    }
+
+    @Test
+    void deployTakesTheCriticalPathInsteadOfTheSumOfAllSteps() {
+        DeploymentFacade facade = new DeploymentFacade(new FastVersionControlSystem(), new FastBuildSystem(),
+                new FastTestingFramework(), new FastDeploymentTarget());
+
+        long start = System.nanoTime();
+        boolean deployed = facade.deployApplication("main", "prod.server");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(deployed).isTrue();
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(CRITICAL_PATH_MILLIS);
+        // 0.72 of the sequential time if the steps off the critical path overlap fully
+        assertThat((double) elapsedMillis / SEQUENTIAL_MILLIS).isLessThan(0.9);
+    }
+
+    @Test
+    void failingStepCancelsTheOtherBranches() {
+        AtomicBoolean integrationTestsFinished = new AtomicBoolean();
+        AtomicBoolean activated = new AtomicBoolean();
+        TestingFramework failingUnitTests = new FastTestingFramework() {
+            @Override
+            public boolean runUnitTests(Function<String, String> fileHashes) {
+                super.runUnitTests(fileHashes);
+                return false;
+            }
+
+            @Override
+            public boolean runIntegrationTests(Function<String, String> fileHashes) {
+                boolean passed = super.runIntegrationTests(fileHashes);
+                integrationTestsFinished.set(!Thread.currentThread().isInterrupted());
+                return passed;
+            }
+        };
+        DeploymentTarget target = new FastDeploymentTarget() {
+            @Override
+            public void activateNewVersion(String server) {
+                activated.set(true);
+            }
+        };
+        DeploymentFacade facade = new DeploymentFacade(
+                new FastVersionControlSystem(), new FastBuildSystem(), failingUnitTests, target);
+
+        long start = System.nanoTime();
+        boolean deployed = facade.deployApplication("main", "prod.server");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(deployed).isFalse();
+        assertThat(activated).isFalse();
+        assertThat(integrationTestsFinished).isFalse();
+        // Done after pull, compile and unit tests (450 ms), without waiting out the
+        // integration tests, which would have ended at 600 ms
+        assertThat(elapsedMillis).isLessThan(600);
+    }
+
+    @Test
+    void cancelledSubsystemCallsDoNotReportSuccess() {
+        Thread.currentThread().interrupt();
+        assertThatThrownBy(() -> new VersionControlSystem().pullLatestChanges("main"))
+                .isInstanceOf(InterruptedException.class);
+        Thread.currentThread().interrupt();
+        assertThatThrownBy(() -> new BuildSystem().compileProject("0123456789"))
+                .isInstanceOf(InterruptedException.class);
+        Thread.currentThread().interrupt();
+        assertThatThrownBy(() -> new DeploymentTarget().transferArtifact("app.jar", "prod.server"))
+                .isInstanceOf(InterruptedException.class);
+        Thread.currentThread().interrupt();
+        assertThatThrownBy(() -> new DeploymentTarget().activateNewVersion("prod.server"))
+                .isInstanceOf(InterruptedException.class);
+    }
+}
@@ -0,0 +1,76 @@
+package dev.ripanbaidya.facade;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeploymentPipelineTests {
+
+    @Test
+    void runsStepsAfterTheirDependencies() throws InterruptedException {
+        List<String> finished = new CopyOnWriteArrayList<>();
+
+        DeploymentPipeline.Outcome outcome = new DeploymentPipeline()
+                .step("a", () -> finished.add("a"))
+                .step("slow", () -> {
+                    Thread.sleep(100);
+                    return finished.add("slow");
+                }, "a")
+                .step("fast", () -> finished.add("fast"), "a")
+                .step("last", () -> finished.add("last"), "slow", "fast")
+                .run();
+
+        assertThat(outcome.success()).isTrue();
+        assertThat(finished).containsExactly("a", "fast", "slow", "last");
+    }
+
+    @Test
+    void reportsTheFailedStepAndSkipsItsDependents() throws InterruptedException {
+        List<String> finished = new CopyOnWriteArrayList<>();
+        IllegalStateException failure = new IllegalStateException("disk full");
+
+        DeploymentPipeline.Outcome outcome = new DeploymentPipeline()
+                .step("a", () -> {
+                    throw failure;
+                })
+                .step("b", () -> finished.add("b"), "a")
+                .run();
+
+        assertThat(outcome.success()).isFalse();
+        assertThat(outcome.failedStep()).isEqualTo("a");
+        assertThat(outcome.cause()).isSameAs(failure);
+        assertThat(finished).isEmpty();
+    }
+
+    @Test
+    @Timeout(5)
+    void stepThrowingAnErrorFailsThePipeline() throws InterruptedException {
+        AssertionError error = new AssertionError("broken invariant");
+
+        DeploymentPipeline.Outcome outcome = new DeploymentPipeline()
+                .step("a", () -> {
+                    throw error;
+                })
+                .run();
+
+        assertThat(outcome.success()).isFalse();
+        assertThat(outcome.failedStep()).isEqualTo("a");
+        assertThat(outcome.cause()).isSameAs(error);
+    }
+
+    @Test
+    void rejectsUnknownDependenciesAndDuplicateSteps() {
+        DeploymentPipeline pipeline = new DeploymentPipeline().step("a", () -> true);
+
+        assertThatThrownBy(() -> pipeline.step("b", () -> true, "missing"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unknown step missing");
+        assertThatThrownBy(() -> pipeline.step("a", () -> true))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,234 @@
+package dev.ripanbaidya.facade;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FleetDeploymentTests {
+
+    private static final int UPDATE_MILLIS = 50;
+
+    /**
+     * Instant pull, build and tests, counting how often they run
+     */
+    static final class CountingBuild {
+        final AtomicInteger compilations = new AtomicInteger();
+        final AtomicInteger testRuns = new AtomicInteger();
+
+        VersionControlSystem vcs() {
+            return new VersionControlSystem() {
+                @Override
+                public String pullLatestChanges(String branch) {
+                    return head(branch);
+                }
+            };
+        }
+
+        BuildSystem buildSystem() {
+            return new BuildSystem() {
+                @Override
+                public boolean compileProject(String revision) {
+                    compilations.incrementAndGet();
+                    return true;
+                }
+
+                @Override
+                public String getArtifactPath(String revision) {
+                    return "target/application-" + revision.substring(0, 7) + ".jar";
+                }
+            };
+        }
+
+        TestingFramework testingFramework() {
+            return new TestingFramework() {
+                @Override
+                public boolean runUnitTests(Function<String, String> fileHashes) {
+                    testRuns.incrementAndGet();
+                    return true;
+                }
+
+                @Override
+                public boolean runIntegrationTests(Function<String, String> fileHashes) {
+                    return true;
+                }
+            };
+        }
+    }
+
+    /**
+     * Takes UPDATE_MILLIS per server, fails on the given servers and tracks how many
+     * servers are updated at once
+     */
+    static final class FakeTarget extends DeploymentTarget {
+        final Set<String> failing;
+        final Set<String> activated = ConcurrentHashMap.newKeySet();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        FakeTarget(String... failing) {
+            this.failing = Set.of(failing);
+        }
+
+        @Override
+        public void transferArtifact(String artifactPath, String server) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(UPDATE_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            if (failing.contains(server)) {
+                throw new IllegalStateException("connection refused");
+            }
+        }
+
+        @Override
+        public void activateNewVersion(String server) {
+            activated.add(server);
+        }
+    }
+
+    private static List<String> fleet(int size) {
+        return IntStream.rangeClosed(1, size).mapToObj(i -> "server-" + i).toList();
+    }
+
+    @Test
+    void buildsOnceAndRollsOutInWaves() {
+        CountingBuild build = new CountingBuild();
+        FakeTarget target = new FakeTarget();
+        DeploymentFacade facade = new DeploymentFacade(build.vcs(), build.buildSystem(), build.testingFramework(), target);
+
+        // 2 canaries, then 48 servers in waves of 16
+        RolloutReport report = facade.deployToFleet("main", fleet(50), new RolloutPolicy(2, 16, 4));
+
+        assertThat(report.success()).isTrue();
+        assertThat(report.deployed()).hasSize(50);
+        assertThat(target.activated).hasSize(50);
+        assertThat(report.waves()).isEqualTo(1 + 3);
+        assertThat(build.compilations).hasValue(1);
+        assertThat(build.testRuns).hasValue(1);
+        assertThat(target.maxInFlight.get()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void failedWaveAbortsTheRemainingWaves() {
+        CountingBuild build = new CountingBuild();
+        FakeTarget target = new FakeTarget("server-3");
+        DeploymentFacade facade = new DeploymentFacade(build.vcs(), build.buildSystem(), build.testingFramework(), target);
+
+        RolloutReport report = facade.deployToFleet("main", fleet(20), new RolloutPolicy(1, 5, 5));
+
+        assertThat(report.success()).isFalse();
+        assertThat(report.waves()).isEqualTo(2);
+        assertThat(report.failed()).containsExactly("server-3");
+        // The failed wave finished its other servers, nothing after it was touched
+        assertThat(report.deployed()).containsExactlyInAnyOrder("server-1", "server-2", "server-4", "server-5", "server-6");
+        assertThat(report.skipped()).containsExactlyElementsOf(fleet(20).subList(6, 20));
+    }
+
+    @Test
+    void failedCanaryStopsTheRollout() {
+        CountingBuild build = new CountingBuild();
+        FakeTarget target = new FakeTarget("server-1");
+        DeploymentFacade facade = new DeploymentFacade(build.vcs(), build.buildSystem(), build.testingFramework(), target);
+
+        RolloutReport report = facade.deployToFleet("main", fleet(10), new RolloutPolicy(1, 5, 5));
+
+        assertThat(report.waves()).isEqualTo(1);
+        assertThat(report.deployed()).isEmpty();
+        assertThat(report.skipped()).hasSize(9);
+    }
+
+    @Test
+    void wallTimeGrowsWithTheNumberOfRoundsNotServers() {
+        // With 10 servers updated at once, 100 servers take 10 rounds, not 100 updates
+        for (int size : new int[]{1, 10, 50, 100}) {
+            CountingBuild build = new CountingBuild();
+            DeploymentFacade facade = new DeploymentFacade(
+                    build.vcs(), build.buildSystem(), build.testingFramework(), new FakeTarget());
+
+            RolloutReport report = facade.deployToFleet("main", fleet(size), new RolloutPolicy(0, 10, 10));
+
+            int rounds = (size + 9) / 10;
+            assertThat(report.wallTime())
+                    .isGreaterThanOrEqualTo(Duration.ofMillis((long) rounds * UPDATE_MILLIS))
+                    .isLessThan(Duration.ofMillis((long) rounds * UPDATE_MILLIS + 1_000));
+        }
+    }
+
+    @Test
+    void failedBuildSkipsEveryServer() {
+        CountingBuild build = new CountingBuild();
+        BuildSystem broken = new BuildSystem() {
+            @Override
+            public boolean compileProject(String revision) {
+                return false;
+            }
+        };
+        FakeTarget target = new FakeTarget();
+        DeploymentFacade facade = new DeploymentFacade(build.vcs(), broken, build.testingFramework(), target);
+
+        RolloutReport report = facade.deployToFleet("main", fleet(3), RolloutPolicy.defaults());
+
+        assertThat(report.success()).isFalse();
+        assertThat(report.waves()).isZero();
+        assertThat(report.skipped()).hasSize(3);
+        assertThat(target.activated).isEmpty();
+    }
+
+    @Test
+    void failedBuildIsNotASuccessEvenWithoutServers() {
+        CountingBuild build = new CountingBuild();
+        BuildSystem broken = new BuildSystem() {
+            @Override
+            public boolean compileProject(String revision) {
+                return false;
+            }
+        };
+        DeploymentFacade facade = new DeploymentFacade(build.vcs(), broken, build.testingFramework(), new FakeTarget());
+
+        assertThat(facade.deployToFleet("main", List.of(), RolloutPolicy.defaults()).success()).isFalse();
+    }
+
+    @Test
+    void interruptedRolloutReportsTheServersItFinished() throws Exception {
+        CountingBuild build = new CountingBuild();
+        FakeTarget target = new FakeTarget();
+        DeploymentFacade facade = new DeploymentFacade(build.vcs(), build.buildSystem(), build.testingFramework(), target);
+        AtomicReference<RolloutReport> report = new AtomicReference<>();
+
+        Thread deployer = Thread.ofPlatform().start(() ->
+                report.set(facade.deployToFleet("main", fleet(6), new RolloutPolicy(0, 3, 3))));
+        while (target.inFlight.get() == 0) {
+            Thread.onSpinWait();
+        }
+        deployer.interrupt();
+        deployer.join();
+
+        // The first wave was let finish and counts as deployed, the second never started
+        assertThat(report.get().success()).isFalse();
+        assertThat(report.get().deployed()).containsExactlyElementsOf(fleet(3));
+        assertThat(target.activated).containsExactlyInAnyOrderElementsOf(fleet(3));
+        assertThat(report.get().skipped()).containsExactlyElementsOf(fleet(6).subList(3, 6));
+    }
+
+    @Test
+    void plansCanaryAndWaves() {
+        assertThat(DeploymentFacade.waves(fleet(7), new RolloutPolicy(2, 3, 1)))
+                .extracting(List::size)
+                .containsExactly(2, 3, 2);
+        assertThat(DeploymentFacade.waves(fleet(1), new RolloutPolicy(5, 3, 1))).hasSize(1);
+        assertThatThrownBy(() -> new RolloutPolicy(1, 0, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,185 @@
+package dev.ripanbaidya.facade;
+
+import dev.ripanbaidya.facade.TestingFramework.TestCase;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TestingFrameworkTests {
+
+    /**
+     * Records which tests execute instead of sleeping, failing the given ones
+     */
+    static final class RecordingTestingFramework extends TestingFramework {
+        final List<String> executed = new CopyOnWriteArrayList<>();
+        Set<String> failing = Set.of();
+
+        @Override
+        boolean runTest(TestCase test) {
+            executed.add(test.name());
+            return !failing.contains(test.name());
+        }
+
+        List<String> run(Function<String, String> fileHashes) {
+            executed.clear();
+            runUnitTests(fileHashes);
+            runIntegrationTests(fileHashes);
+            return List.copyOf(executed);
+        }
+
+        /**
+         * Test phase time of the last run: both suites run side by side in the pipeline
+         */
+        long phaseMillis() {
+            return Math.max(millis(UNIT_TESTS), millis(INTEGRATION_TESTS));
+        }
+
+        private long millis(List<TestCase> suite) {
+            return suite.stream().filter(test -> executed.contains(test.name())).mapToLong(TestCase::millis).sum();
+        }
+    }
+
+    private final VersionControlSystem vcs = new VersionControlSystem();
+    private final RecordingTestingFramework testing = new RecordingTestingFramework();
+
+    private Function<String, String> at(String revision) {
+        return path -> vcs.fileHash(revision, path);
+    }
+
+    @Test
+    void unchangedInputsReuseTheGreenRun() {
+        String revision = vcs.head("main");
+
+        assertThat(testing.run(at(revision))).hasSize(16);
+        assertThat(testing.run(at(revision))).isEmpty();
+        // Another commit that touches nothing the tests read
+        assertThat(testing.run(at(vcs.commit("main", "Update README", "README.md")))).isEmpty();
+    }
+
+    @Test
+    void runsOnlyTestsWhoseInputsChanged() {
+        testing.run(at(vcs.head("main")));
+
+        String revision = vcs.commit("main", "Round tax down", TestingFramework.source("Tax"));
+
+        assertThat(testing.run(at(revision))).containsExactlyInAnyOrder("TaxTest", "CheckoutIT", "InvoiceIT");
+        assertThat(testing.run(at(vcs.commit("main", "Bump version", "pom.xml")))).hasSize(16);
+    }
+
+    @Test
+    void failedTestsRunAgain() {
+        testing.failing = Set.of("ShippingTest");
+        String revision = vcs.head("main");
+
+        assertThat(testing.runUnitTests(at(revision))).isFalse();
+        testing.executed.clear();
+        testing.failing = Set.of();
+
+        assertThat(testing.runUnitTests(at(revision))).isTrue();
+        assertThat(testing.executed).containsExactly("ShippingTest");
+    }
+
+    @Test
+    void forcedFullRunIgnoresRecordedResults() {
+        String revision = vcs.head("main");
+        testing.run(at(revision));
+
+        testing.setForceFullRun(true);
+        assertThat(testing.run(at(revision))).hasSize(16);
+        testing.setForceFullRun(false);
+        assertThat(testing.run(at(revision))).isEmpty();
+    }
+
+    @Test
+    void smallCommitsSaveMostOfTheTestPhase() {
+        RecordingTestingFramework full = new RecordingTestingFramework();
+        full.setForceFullRun(true);
+        List<String> touched = List.of("Discount", "Shipping", "OrderController", "Invoice", "Pricing");
+
+        String revision = vcs.head("main");
+        testing.run(at(revision));
+        long selectedMillis = 0;
+        long fullMillis = 0;
+        for (String component : touched) {
+            revision = vcs.commit("main", "Change " + component, TestingFramework.source(component));
+            testing.run(at(revision));
+            full.run(at(revision));
+            selectedMillis += testing.phaseMillis();
+            fullMillis += full.phaseMillis();
+        }
+
+        assertThat(fullMillis).isEqualTo(5 * 3_000);
+        assertThat(selectedMillis).isLessThanOrEqualTo(fullMillis / 3);
+    }
+
+    @Test
+    void longestTestsAreSpreadFirst() {
+        List<List<TestCase>> shards = TestingFramework.balance(TestingFramework.INTEGRATION_TESTS, 4, TestCase::millis);
+
+        assertThat(shards).hasSize(4);
+        assertThat(shards).flatMap(shard -> shard).hasSize(6);
+        // CheckoutIT alone takes 1.1 s, everything else fits next to it
+        assertThat(makespan(shards)).isEqualTo(1_100);
+        assertThat(TestingFramework.balance(TestingFramework.UNIT_TESTS, 20, TestCase::millis)).hasSize(10);
+        assertThat(TestingFramework.balance(List.of(), 4, TestCase::millis)).isEmpty();
+    }
+
+    @Test
+    void measuredDurationsBalanceBetterThanTestCounts() {
+        List<List<TestCase>> byCount = TestingFramework.balance(TestingFramework.UNIT_TESTS, 3, test -> 1);
+        List<List<TestCase>> byDuration = TestingFramework.balance(TestingFramework.UNIT_TESTS, 3, TestCase::millis);
+
+        assertThat(makespan(byDuration)).isLessThan(makespan(byCount));
+        assertThat(makespan(byDuration)).isLessThanOrEqualTo(1_500 / 3 + 100);
+    }
+
+    @Test
+    void shardResultsMergeIntoOneReport() {
+        RecordingTestingFramework sharded = new RecordingTestingFramework();
+        sharded.setShards(4);
+        sharded.failing = Set.of("InventoryIT", "InvoiceIT");
+
+        assertThat(sharded.runIntegrationTests(at(vcs.head("main")))).isFalse();
+        TestingFramework.SuiteReport report = sharded.lastReport();
+        assertThat(report.executed()).isEqualTo(6);
+        assertThat(report.shardMillis()).hasSize(4);
+        assertThat(report.failed()).containsExactlyInAnyOrder("InventoryIT", "InvoiceIT");
+        assertThat(sharded.executed).hasSize(6);
+
+        sharded.failing = Set.of();
+        assertThat(sharded.runIntegrationTests(at(vcs.head("main")))).isTrue();
+        assertThat(sharded.lastReport().reused()).isEqualTo(4);
+        assertThatThrownBy(() -> sharded.setShards(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void moreShardsShortenTheSuites() {
+        for (List<TestCase> suite : List.of(TestingFramework.UNIT_TESTS, TestingFramework.INTEGRATION_TESTS)) {
+            long total = suite.stream().mapToLong(TestCase::millis).sum();
+            long longest = suite.stream().mapToLong(TestCase::millis).max().orElseThrow();
+            long[] makespans = new long[9];
+            for (int shards : new int[] {1, 2, 4, 8}) {
+                makespans[shards] = makespan(TestingFramework.balance(suite, shards, TestCase::millis));
+            }
+
+            assertThat(makespans[1]).isEqualTo(total);
+            assertThat(makespans[2]).isLessThan(makespans[1]);
+            assertThat(makespans[4] * 2).isLessThan(makespans[1]);
+            // Bounded below by the longest test, which no number of shards splits
+            assertThat(makespans[8]).isLessThanOrEqualTo(makespans[4]).isEqualTo(longest);
+        }
+    }
+
+    private static long makespan(List<List<TestCase>> shards) {
+        return shards.stream()
+                .mapToLong(shard -> shard.stream().mapToLong(TestCase::millis).sum())
+                .max()
+                .orElse(0);
+    }
+}
@@ -0,0 +1,80 @@
+package dev.ripanbaidya.facade.benchmark;
+
+import dev.ripanbaidya.facade.BuildCache;
+import dev.ripanbaidya.facade.DeploymentFacade;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Wall time of repeated deploys of one unchanged branch, with and without a
+ * {@link BuildCache}, using the subsystems' real delays.
+ *
+ * Every deploy runs the full test suites, so the build cache is the only difference
+ * between the two modes. Without it every deploy compiles, with it only the first one
+ * does and the compile step drops out of the critical path. The facade's own output is
+ * silenced while it runs.
+ *
+ * Usage, from the module directory after mvn test-compile:
+ * <pre>
+ *     java -cp target/classes:target/test-classes:&lt;test classpath&gt; \
+ *         dev.ripanbaidya.facade.benchmark.BuildCacheBenchmark [deploys]
+ * </pre>
+ */
+public class BuildCacheBenchmark {
+
+    private static final String BRANCH = "main";
+    private static final String SERVER = "benchmark.server";
+
+    public static void main(String[] args) throws Exception {
+        int deploys = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Path directory = Files.createTempDirectory("build-cache-benchmark");
+        try {
+            run("no cache", new DeploymentFacade(), deploys);
+            BuildCache cache = new BuildCache(directory.resolve("cache"), 256L * 1024 * 1024);
+            run("cache", new DeploymentFacade(cache, directory.resolve("target")), deploys);
+            System.out.println("Build cache: " + cache.stats());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void run(String mode, DeploymentFacade facade, int deploys) {
+        facade.setForceFullTestRun(true);
+        long[] millis = new long[deploys];
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int i = 0; i < deploys; i++) {
+                long start = System.nanoTime();
+                if (!facade.deployApplication(BRANCH, SERVER)) {
+                    throw new IllegalStateException("Deploy " + (i + 1) + " failed in mode " + mode);
+                }
+                millis[i] = (System.nanoTime() - start) / 1_000_000;
+            }
+        } finally {
+            System.setOut(out);
+        }
+
+        StringBuilder line = new StringBuilder(String.format("%-9s", mode));
+        long total = 0;
+        for (long deploy : millis) {
+            line.append(String.format(" %6d", deploy));
+            total += deploy;
+        }
+        System.out.println(line.append(String.format("   total %6d ms", total)));
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
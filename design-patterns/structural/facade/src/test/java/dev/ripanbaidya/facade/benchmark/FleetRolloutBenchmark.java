@@ -0,0 +1,55 @@
+package dev.ripanbaidya.facade.benchmark;
+
+import dev.ripanbaidya.facade.DeploymentFacade;
+import dev.ripanbaidya.facade.RolloutPolicy;
+import dev.ripanbaidya.facade.RolloutReport;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Wall time of {@link DeploymentFacade#deployToFleet} over fleets of growing size, using
+ * the subsystems' real delays: 1.5 s to transfer and activate on each server, after one
+ * pull, build and test run.
+ *
+ * Servers are updated 10 at a time in waves of 10, so the rollout should grow with the
+ * number of waves rather than the number of servers. The facade's own output is
+ * silenced while it runs.
+ *
+ * Usage, from the module directory after mvn test-compile:
+ * <pre>
+ *     java -cp target/classes:target/test-classes \
+ *         dev.ripanbaidya.facade.benchmark.FleetRolloutBenchmark [fleet sizes...]
+ * </pre>
+ */
+public class FleetRolloutBenchmark {
+
+    private static final RolloutPolicy POLICY = new RolloutPolicy(0, 10, 10);
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1, 10, 50, 100};
+        for (int size : sizes) {
+            List<String> fleet = IntStream.rangeClosed(1, size).mapToObj(i -> "server-" + i).toList();
+            RolloutReport report = deploy(fleet);
+            if (!report.success()) {
+                throw new IllegalStateException("Rollout to " + size + " servers failed: " + report.failed());
+            }
+            System.out.printf("fleet %3d: %2d waves, %6d ms%n", size, report.waves(), report.wallTime().toMillis());
+        }
+    }
+
+    private static RolloutReport deploy(List<String> fleet) {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            return new DeploymentFacade().deployToFleet("main", fleet, POLICY);
+        } finally {
+            System.setOut(out);
+        }
+    }
+}
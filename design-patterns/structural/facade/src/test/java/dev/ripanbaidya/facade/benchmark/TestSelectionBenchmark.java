@@ -0,0 +1,60 @@
+package dev.ripanbaidya.facade.benchmark;
+
+import dev.ripanbaidya.facade.DeploymentFacade;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Wall time of repeated deploys of one unchanged branch, running only the tests whose
+ * inputs changed against running every test, using the subsystems' real delays.
+ *
+ * With selection the first deploy runs both suites and the later ones reuse its green
+ * results, so the 3 s integration suite drops out of the critical path. Neither mode
+ * uses a build cache, every deploy compiles. The facade's own output is silenced while
+ * it runs.
+ *
+ * Usage, from the module directory after mvn test-compile:
+ * <pre>
+ *     java -cp target/classes:target/test-classes \
+ *         dev.ripanbaidya.facade.benchmark.TestSelectionBenchmark [deploys]
+ * </pre>
+ */
+public class TestSelectionBenchmark {
+
+    private static final String BRANCH = "main";
+    private static final String SERVER = "benchmark.server";
+
+    public static void main(String[] args) {
+        int deploys = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        run("full", true, deploys);
+        run("selected", false, deploys);
+    }
+
+    private static void run(String mode, boolean forceFullTestRun, int deploys) {
+        DeploymentFacade facade = new DeploymentFacade();
+        facade.setForceFullTestRun(forceFullTestRun);
+        long[] millis = new long[deploys];
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int i = 0; i < deploys; i++) {
+                long start = System.nanoTime();
+                if (!facade.deployApplication(BRANCH, SERVER)) {
+                    throw new IllegalStateException("Deploy " + (i + 1) + " failed in mode " + mode);
+                }
+                millis[i] = (System.nanoTime() - start) / 1_000_000;
+            }
+        } finally {
+            System.setOut(out);
+        }
+
+        StringBuilder line = new StringBuilder(String.format("%-9s", mode));
+        long total = 0;
+        for (long deploy : millis) {
+            line.append(String.format(" %6d", deploy));
+            total += deploy;
+        }
+        System.out.println(line.append(String.format("   total %6d ms", total)));
+    }
+}
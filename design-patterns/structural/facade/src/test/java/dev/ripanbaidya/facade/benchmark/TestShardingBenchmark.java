@@ -0,0 +1,67 @@
+package dev.ripanbaidya.facade.benchmark;
+
+import dev.ripanbaidya.facade.DeploymentFacade;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Wall time of a deploy with the test suites split over 1, 2, 4 and 8 shards, using the
+ * subsystems' real delays and running every test on every deploy.
+ *
+ * The integration suite (3 s sequentially, its longest test 1.1 s) is on the critical
+ * path, so sharding it shortens the whole deploy until the longest test or the artifact
+ * transfer running next to the tests is what the deploy waits for. Shards are balanced
+ * on measured durations, so a warm-up deploy runs first. The facade's own output is
+ * silenced while it runs.
+ *
+ * Usage, from the module directory after mvn test-compile:
+ * <pre>
+ *     java -cp target/classes:target/test-classes \
+ *         dev.ripanbaidya.facade.benchmark.TestShardingBenchmark [deploys per shard count]
+ * </pre>
+ */
+public class TestShardingBenchmark {
+
+    private static final String BRANCH = "main";
+    private static final String SERVER = "benchmark.server";
+
+    public static void main(String[] args) {
+        int deploys = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        DeploymentFacade facade = new DeploymentFacade();
+        facade.setForceFullTestRun(true);
+        deploy(facade);
+
+        long baseline = 0;
+        for (int shards : new int[] {1, 2, 4, 8}) {
+            facade.setTestShards(shards);
+            long total = 0;
+            for (int i = 0; i < deploys; i++) {
+                total += deploy(facade);
+            }
+            long average = total / deploys;
+            if (shards == 1) {
+                baseline = average;
+            }
+            System.out.printf("%d shard(s): %5d ms per deploy, speedup %.2fx%n",
+                    shards, average, (double) baseline / average);
+        }
+    }
+
+    /**
+     * @return wall time of the deploy in milliseconds
+     */
+    private static long deploy(DeploymentFacade facade) {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            long start = System.nanoTime();
+            if (!facade.deployApplication(BRANCH, SERVER)) {
+                throw new IllegalStateException("Deploy failed");
+            }
+            return (System.nanoTime() - start) / 1_000_000;
+        } finally {
+            System.setOut(out);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package open_closed.good;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * this is also an implementation of NotificationService, but instead of sending the otp itself
+ * it picks one of the other implementations. it is the open closed principle paying off: a new
+ * channel is routed to without touching this class, just pass it in the list.
+ *
+ * for every channel it remembers the latency of its recent sends. 'sendOtp' goes through the
+ * fastest healthy channel (lowest median). if that channel has not finished by its own p95,
+ * a hedged request is fired on the next fastest channel, whichever finishes first wins and the
+ * other one is cancelled. so one slow send costs about a p95 instead of a timeout, at the price
+ * of roughly 5% extra sends.
+ *
+ * a channel that fails several times in a row is skipped for a cool-down period.
+ *
+ * a send that loses a hedge is cancelled. it is not taken as a latency sample, only as a lower
+ * bound on the channel's latency until its next real sample.
+ *
+ * channels are passed in by name, so two instances of the same class (or two lambdas) are
+ * still told apart in 'latencies'. on a tie the order of the map decides.
+ */
+public class RoutingNotificationService implements NotificationService, AutoCloseable {
+
+    private static final int WINDOW = 256;
+    private static final int FAILURES_BEFORE_COOL_DOWN = 3;
+
+    private final List<Channel> channels = new ArrayList<>();
+    private final long coolDownNanos;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @param services the channels by name, in the order they are preferred while their
+     *                 latencies are equal (pass a LinkedHashMap)
+     */
+    public RoutingNotificationService(Map<String, NotificationService> services, Duration initialLatencyGuess,
+                                      Duration coolDown) {
+        if (services.isEmpty()) {
+            throw new IllegalArgumentException("at least one notification service is required");
+        }
+        services.forEach((name, service) -> channels.add(new Channel(name, service, initialLatencyGuess.toNanos())));
+        this.coolDownNanos = coolDown.toNanos();
+    }
+
+    @Override
+    public void sendOtp(String medium) {
+        long now = System.nanoTime();
+        List<Channel> ranked = rank(now);
+        int next = 0;
+        ExecutorCompletionService<Channel> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<Channel>, Channel> inFlight = new HashMap<>();
+        boolean hedged = false;
+        Throwable lastFailure = null;
+
+        Channel primary = ranked.get(next++);
+        inFlight.put(completion.submit(() -> primary.send(medium)), primary);
+        long hedgeAfter = primary.percentile(0.95);
+        try {
+            while (!inFlight.isEmpty()) {
+                Future<Channel> done;
+                // only a healthy channel is worth racing, a cooling down one is a last resort
+                if (!hedged && next < ranked.size() && ranked.get(next).isHealthy(now)) {
+                    done = completion.poll(hedgeAfter, TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        // the first channel is slower than usual, race a second one
+                        hedged = true;
+                        Channel backup = ranked.get(next++);
+                        inFlight.put(completion.submit(() -> backup.send(medium)), backup);
+                        continue;
+                    }
+                } else {
+                    done = completion.take();
+                }
+                inFlight.remove(done);
+                try {
+                    done.get();
+                    return;
+                } catch (ExecutionException e) {
+                    lastFailure = e.getCause();
+                    if (inFlight.isEmpty() && next < ranked.size()) {
+                        // nothing else is running, fall back right away
+                        hedged = true;
+                        Channel fallback = ranked.get(next++);
+                        inFlight.put(completion.submit(() -> fallback.send(medium)), fallback);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while sending otp", e);
+        } finally {
+            // the loser, if any, is not needed anymore
+            inFlight.keySet().forEach(future -> future.cancel(true));
+        }
+        throw new IllegalStateException("otp could not be sent on any channel", lastFailure);
+    }
+
+    /**
+     * median and p95 of every channel, in nanos, for monitoring
+     */
+    public Map<String, long[]> latencies() {
+        Map<String, long[]> latencies = new LinkedHashMap<>();
+        for (Channel channel : channels) {
+            latencies.put(channel.name, new long[]{channel.percentile(0.5), channel.percentile(0.95)});
+        }
+        return latencies;
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    /**
+     * healthy channels fastest first, then the cooling down ones in case all of them are failing
+     */
+    private List<Channel> rank(long now) {
+        List<Channel> ranked = new ArrayList<>(channels);
+        ranked.sort(Comparator.comparing((Channel channel) -> !channel.isHealthy(now))
+                .thenComparingLong(Channel::expectedLatency));
+        return ranked;
+    }
+
+    /**
+     * a notification service together with its recent latencies and failures
+     */
+    private final class Channel {
+        private final NotificationService service;
+        private final String name;
+        // ring buffer of the last WINDOW latencies
+        private final long[] samples = new long[WINDOW];
+        // samples in order, kept until the next one is recorded: every send ranks all channels
+        private long[] sorted;
+        private int count;
+        private int next;
+        // longest send cut short by a hedge since the last real sample: it took at least that long
+        private long cutShortAfter;
+        private int consecutiveFailures;
+        private long coolDownUntil;
+
+        Channel(String name, NotificationService service, long initialLatencyGuess) {
+            this.service = service;
+            this.name = name;
+            this.coolDownUntil = System.nanoTime();
+            record(initialLatencyGuess);
+        }
+
+        Channel send(String medium) {
+            long start = System.nanoTime();
+            try {
+                service.sendOtp(medium);
+                succeeded(System.nanoTime() - start);
+                return this;
+            } catch (RuntimeException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    // cancelled as the loser of a hedge: not a failure, and not a latency
+                    // sample either, the send was cut short and would make the channel look faster
+                    cutShort(System.nanoTime() - start);
+                } else {
+                    failed();
+                }
+                throw e;
+            }
+        }
+
+        synchronized void succeeded(long latency) {
+            consecutiveFailures = 0;
+            record(latency);
+        }
+
+        synchronized void failed() {
+            if (++consecutiveFailures >= FAILURES_BEFORE_COOL_DOWN) {
+                coolDownUntil = System.nanoTime() + coolDownNanos;
+                consecutiveFailures = 0;
+            }
+        }
+
+        synchronized void cutShort(long elapsed) {
+            cutShortAfter = Math.max(cutShortAfter, elapsed);
+        }
+
+        /**
+         * what ranking goes by: the median, unless the channel recently lost a race after
+         * longer than that, so a channel that always loses is not ranked on its old samples
+         */
+        synchronized long expectedLatency() {
+            return Math.max(percentile(0.5), cutShortAfter);
+        }
+
+        synchronized boolean isHealthy(long now) {
+            return now - coolDownUntil >= 0;
+        }
+
+        synchronized void record(long latency) {
+            samples[next] = latency;
+            next = (next + 1) % WINDOW;
+            count = Math.min(count + 1, WINDOW);
+            sorted = null;
+            cutShortAfter = 0;
+        }
+
+        synchronized long percentile(double percentile) {
+            if (sorted == null) {
+                sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+            }
+            return sorted[Math.min(count - 1, (int) (percentile * count))];
+        }
+    }
+}
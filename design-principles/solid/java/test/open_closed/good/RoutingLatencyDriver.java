@@ -0,0 +1,90 @@
+package open_closed.good;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * sends the same number of otps through one channel on its own and through the router over
+ * two channels, and prints p50 and p99 of both. not a test, there is nothing to assert: it is
+ * there to see what hedging buys on a channel with a slow tail.
+ *
+ * the channels are stand-ins whose latency comes from a distribution passed in. by default both
+ * take about 2 ms, but one send in 40 stalls for 50 ms, independently on each channel. on its
+ * own a channel's p99 is such a stall. the router hedges after the primary's p95, so a stall
+ * mostly costs that wait plus the backup's latency.
+ *
+ * run with: java open_closed.good.RoutingLatencyDriver [sends]
+ */
+public class RoutingLatencyDriver {
+
+    /**
+     * channel stand-in that sleeps for whatever its latency distribution says, in millis
+     */
+    static final class StandIn implements NotificationService {
+        private final LongSupplier latencyMillis;
+
+        StandIn(LongSupplier latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public void sendOtp(String medium) {
+            try {
+                Thread.sleep(latencyMillis.getAsLong());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("cancelled", e);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int sends = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+
+        long[] single = measure(new StandIn(slowTail(1)), sends);
+
+        Map<String, NotificationService> channels = new LinkedHashMap<>();
+        channels.put("email", new StandIn(slowTail(2)));
+        channels.put("sms", new StandIn(slowTail(3)));
+        long[] routed;
+        try (RoutingNotificationService router =
+                     new RoutingNotificationService(channels, Duration.ofMillis(2), Duration.ofMinutes(1))) {
+            routed = measure(router, sends);
+        }
+
+        report("single channel", single);
+        report("routed, hedged", routed);
+    }
+
+    /**
+     * 2 ms, give or take one, except one send in 40 which stalls for 50 ms
+     */
+    static LongSupplier slowTail(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return () -> {
+            synchronized (random) {
+                return random.nextInt(40) == 0 ? 50 : 1 + random.nextInt(3);
+            }
+        };
+    }
+
+    private static long[] measure(NotificationService service, int sends) {
+        long[] latencies = new long[sends];
+        for (int i = 0; i < sends; i++) {
+            long start = System.nanoTime();
+            service.sendOtp("user@example.com");
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void report(String label, long[] sorted) {
+        System.out.printf("%-16s p50 %6.1f ms   p99 %6.1f ms%n", label,
+                sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6);
+    }
+}
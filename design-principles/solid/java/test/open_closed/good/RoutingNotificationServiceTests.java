@@ -0,0 +1,131 @@
+package open_closed.good;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RoutingNotificationServiceTests {
+
+    private static final Duration GUESS = Duration.ofMillis(1);
+    private static final Duration COOL_DOWN = Duration.ofMinutes(1);
+
+    /**
+     * channel stand-in with an injectable latency, that can be told to stall or fail
+     */
+    static final class StandIn implements NotificationService {
+        final AtomicInteger sends = new AtomicInteger();
+        final AtomicInteger completed = new AtomicInteger();
+        volatile long latencyMillis;
+        volatile long stallMillis;
+        volatile boolean failing;
+
+        StandIn(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public void sendOtp(String medium) {
+            sends.incrementAndGet();
+            if (failing) {
+                throw new IllegalStateException("channel down");
+            }
+            try {
+                Thread.sleep(stallMillis > 0 ? stallMillis : latencyMillis);
+                completed.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("cancelled", e);
+            }
+        }
+    }
+
+    @Test
+    void sendsThroughTheFastestChannel() {
+        StandIn slow = new StandIn(20);
+        StandIn fast = new StandIn(2);
+        try (RoutingNotificationService router = router(slow, fast)) {
+            for (int i = 0; i < 50; i++) {
+                router.sendOtp("user@example.com");
+            }
+        }
+
+        // after the first send the slow channel only comes in as a hedge, and loses
+        assertThat(fast.completed.get()).isGreaterThanOrEqualTo(48);
+        assertThat(slow.completed.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void hedgesAStalledSendOnTheNextChannel() {
+        StandIn primary = new StandIn(5);
+        StandIn backup = new StandIn(30);
+        try (RoutingNotificationService router = router(primary, backup)) {
+            for (int i = 0; i < 8; i++) {
+                router.sendOtp("user@example.com");
+            }
+            long primaryP95 = router.latencies().get("primary")[1];
+
+            primary.stallMillis = 2_000;
+            int backupSends = backup.sends.get();
+            long start = System.nanoTime();
+            router.sendOtp("user@example.com");
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            // about the primary's p95 plus the backup's latency instead of the stall
+            assertThat(elapsed).isLessThan(Duration.ofMillis(500));
+            assertThat(backup.sends).hasValue(backupSends + 1);
+            // the cancelled primary is not sampled, its cut-short time says nothing about it
+            assertThat(router.latencies().get("primary")[1]).isEqualTo(primaryP95);
+        }
+    }
+
+    @Test
+    void fallsBackAndCoolsDownAFailingChannel() {
+        StandIn broken = new StandIn(1);
+        StandIn healthy = new StandIn(10);
+        broken.failing = true;
+        try (RoutingNotificationService router = router(broken, healthy)) {
+            for (int i = 0; i < 10; i++) {
+                router.sendOtp("user@example.com");
+            }
+        }
+
+        assertThat(healthy.sends).hasValue(10);
+        // three failures in a row, then it is skipped for the cool-down
+        assertThat(broken.sends).hasValue(3);
+    }
+
+    @Test
+    void failsWhenEveryChannelFails() {
+        StandIn first = new StandIn(1);
+        StandIn second = new StandIn(1);
+        first.failing = true;
+        second.failing = true;
+        try (RoutingNotificationService router = router(first, second)) {
+            assertThatThrownBy(() -> router.sendOtp("user@example.com"))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("channel down");
+        }
+    }
+
+    @Test
+    void keepsChannelsOfTheSameClassApart() {
+        try (RoutingNotificationService router = router(new StandIn(1), new StandIn(1))) {
+            router.sendOtp("user@example.com");
+
+            assertThat(router.latencies()).containsOnlyKeys("primary", "backup");
+        }
+    }
+
+    private static RoutingNotificationService router(StandIn primary, StandIn backup) {
+        Map<String, NotificationService> services = new LinkedHashMap<>();
+        services.put("primary", primary);
+        services.put("backup", backup);
+        return new RoutingNotificationService(services, GUESS, COOL_DOWN);
+    }
+}